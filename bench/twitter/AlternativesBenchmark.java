@@ -0,0 +1,37 @@
+package twitter;
+
+/**
+ * AlternativesBenchmark measures the parallel, indexed and graph
+ * alternatives to the operations of HotPathBenchmark, on the same corpus.
+ *
+ * Usage: java -cp <classes> twitter.AlternativesBenchmark [key=value ...],
+ * with the options of HotPathBenchmark.
+ */
+public class AlternativesBenchmark {
+
+    public static void main(final String[] args) {
+        final Bench bench = HotPathBenchmark.bench(args);
+        final HotPathBenchmark.Workload w = new HotPathBenchmark.Workload(args);
+        final TweetIndex authorIndex = new TweetIndex(w.corpus);
+        final TimeIndex timeIndex = new TimeIndex(w.corpus);
+        final WordIndex wordIndex = new WordIndex(w.corpus);
+        final TweetStore store = new TweetStore(w.corpus);
+        final FollowsGraph followsGraph = FollowsGraph.fromMap(w.graph);
+        final PageRank pageRank = new PageRank();
+        final ShortestPaths shortestPaths = new ShortestPaths(followsGraph);
+
+        bench.run("Extract.mentionedParallel", () -> Extract.getMentionedUsersParallel(w.corpus));
+        bench.run("TweetIndex.writtenBy", () -> authorIndex.writtenBy(w.username()));
+        bench.run("TimeIndex.inTimespan", () -> timeIndex.inTimespan(w.hour));
+        bench.run("WordIndex.containing", () -> wordIndex.containing(w.wordList));
+        bench.run("TweetStore.writtenBy", () -> store.writtenBy(w.username()));
+        bench.run("TweetStore.inTimespan", () -> store.inTimespan(w.hour));
+        bench.run("TweetStore.containing", () -> store.containing(w.wordList));
+        bench.run("TweetStore.mentionedUsers", () -> store.mentionedUsers());
+        bench.run("FollowsGraph.fromTweets", () -> FollowsGraph.fromTweets(w.corpus));
+        bench.run("WeightedMention.fromTweets", () -> WeightedMentionGraph.fromTweets(w.corpus));
+        bench.run("SocialNetwork.influencers10", () -> SocialNetwork.influencers(w.graph, 10));
+        bench.run("PageRank.influencers10", () -> pageRank.influencers(followsGraph, 10));
+        bench.run("ShortestPaths.path", () -> shortestPaths.path(w.username(), w.username()));
+    }
+}
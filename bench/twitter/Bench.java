@@ -0,0 +1,91 @@
+package twitter;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Bench is a small timing harness for the benchmarks in this directory. It
+ * runs an operation for a warmup period, then for a measurement period, and
+ * reports operations per second and heap bytes allocated per operation (on
+ * HotSpot, through com.sun.management.ThreadMXBean).
+ *
+ * Results of every operation are folded into a volatile sink so the JIT
+ * cannot drop the work as dead code.
+ */
+class Bench {
+
+    /*
+     * Op is one invocation of the code under measurement.
+     */
+    interface Op {
+        Object run();
+    }
+
+    private static volatile int sink;
+
+    private final long warmupMillis;
+    private final long measureMillis;
+
+    // Creator:
+    Bench(final long warmupMillis, final long measureMillis) {
+        this.warmupMillis = warmupMillis;
+        this.measureMillis = measureMillis;
+    }
+
+    /**
+     * Measure op and print one result line.
+     *
+     * @param name
+     *            name of the benchmark, printed first.
+     * @param op
+     *            the operation to measure; it must not depend on how many
+     *            times it has run.
+     */
+    void run(final String name, final Op op) {
+        loop(op, warmupMillis * 1000000L);
+
+        final long allocatedBefore = allocatedBytes();
+        final long begin = System.nanoTime();
+        final long ops = loop(op, measureMillis * 1000000L);
+        final long nanos = System.nanoTime() - begin;
+        final long allocated = allocatedBytes() - allocatedBefore;
+
+        System.out.printf("%-28s %14.1f ops/s %16.0f B/op%n",
+                name, ops * 1e9 / nanos, allocated < 0 ? Double.NaN : (double) allocated / ops);
+    }
+
+    // run op until nanos have passed, at least once; return the number of runs.
+    private static long loop(final Op op, final long nanos) {
+        final long deadline = System.nanoTime() + nanos;
+        long ops = 0;
+        int h = 0;
+        do {
+            final Object result = op.run();
+            h += result == null ? 0 : System.identityHashCode(result);
+            ++ops;
+        } while (System.nanoTime() < deadline);
+        sink += h;
+        return ops;
+    }
+
+    // heap bytes allocated so far by this thread, or -1 if unsupported.
+    private static long allocatedBytes() {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /*
+     * @return the value of "key=value" in args, or fallback if absent.
+     */
+    static String option(final String[] args, final String key, final String fallback) {
+        for (String arg : args) {
+            if (arg.startsWith(key + "=")) {
+                return arg.substring(key.length() + 1);
+            }
+        }
+        return fallback;
+    }
+}
@@ -0,0 +1,57 @@
+package twitter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ContentionBenchmark measures how ConcurrentFollowsGraphBuilder throughput
+ * changes with the number of producer threads (1, 8 and 32 by default),
+ * against a single-threaded SocialNetwork.guessFollowsGraph().
+ *
+ * Usage: java -cp <classes> twitter.ContentionBenchmark [tweets=N] [users=N] [threads=1,8,32]
+ */
+public class ContentionBenchmark {
+
+    public static void main(final String[] args) throws InterruptedException {
+        final int size = Integer.parseInt(Bench.option(args, "tweets", "1000000"));
+        final int users = Integer.parseInt(Bench.option(args, "users", "100000"));
+        final String[] threadCounts = Bench.option(args, "threads", "1,8,32").split(",");
+        final List<Tweet> tweets = new TweetGenerator(6005).withUsers(users).list(size);
+
+        for (int round = 0; round < 3; ++round) {
+            long begin = System.nanoTime();
+            final Map<String, Set<String>> expected = SocialNetwork.guessFollowsGraph(tweets);
+            report("guessFollowsGraph", 1, size, System.nanoTime() - begin);
+
+            for (String count : threadCounts) {
+                final int n = Integer.parseInt(count);
+                final ConcurrentFollowsGraphBuilder builder = new ConcurrentFollowsGraphBuilder();
+                final Thread[] threads = new Thread[n];
+                for (int i = 0; i < n; ++i) {
+                    final int first = i;
+                    threads[i] = new Thread(() -> {
+                        for (int j = first; j < tweets.size(); j += n) {
+                            builder.add(tweets.get(j));
+                        }
+                    });
+                }
+                begin = System.nanoTime();
+                for (Thread thread : threads) {
+                    thread.start();
+                }
+                for (Thread thread : threads) {
+                    thread.join();
+                }
+                report("concurrent builder", n, size, System.nanoTime() - begin);
+                if (!builder.snapshot().equals(expected)) {
+                    throw new AssertionError("graphs differ");
+                }
+            }
+        }
+    }
+
+    private static void report(final String name, final int threads, final int tweets, final long nanos) {
+        System.out.printf("%-20s %3d threads %14.0f tweets/s%n", name, threads, tweets * 1e9 / nanos);
+    }
+}
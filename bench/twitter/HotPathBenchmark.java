@@ -0,0 +1,93 @@
+package twitter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * HotPathBenchmark measures throughput and allocation of the public
+ * operations of Extract, Filter and SocialNetwork on a corpus made by
+ * TweetGenerator.
+ *
+ * Usage: java -cp <classes> twitter.HotPathBenchmark [key=value ...]
+ *
+ *   tweets=100000   corpus size
+ *   users=10000     number of distinct usernames
+ *   skew=1.0        Zipf exponent of authors and mention targets (0 = uniform)
+ *   mentions=1.0    average number of @-mentions per tweet
+ *   words=5         length of the word list given to Filter.containing
+ *   warmup=1000     warmup time per benchmark, in milliseconds
+ *   measure=2000    measurement time per benchmark, in milliseconds
+ *
+ * It uses only the original public API, so it also compiles against the
+ * sources before any of the optimizations (with Bench, TweetGenerator and
+ * ZipfSampler copied in); AlternativesBenchmark measures the indexes and
+ * graphs added since on the same corpus. The results checked in under
+ * bench/results are the reference every performance change is compared
+ * with; rerun with the same options on the same machine before comparing.
+ */
+public class HotPathBenchmark {
+
+    /*
+     * Workload is the corpus and query arguments that the options describe.
+     */
+    static class Workload {
+        final int users;
+        final Random random = new Random(6005);
+        final TweetGenerator generator;
+        final List<Tweet> corpus;
+        final List<String> wordList = new ArrayList<String>();
+        final Timespan hour;
+        final Map<String, Set<String>> graph;
+
+        Workload(final String[] args) {
+            final int tweets = Integer.parseInt(Bench.option(args, "tweets", "100000"));
+            users = Integer.parseInt(Bench.option(args, "users", "10000"));
+            final double skew = Double.parseDouble(Bench.option(args, "skew", "1.0"));
+            final double mentions = Double.parseDouble(Bench.option(args, "mentions", "1.0"));
+            final int words = Integer.parseInt(Bench.option(args, "words", "5"));
+            generator = new TweetGenerator(6005)
+                    .withUsers(users)
+                    .withSkew(skew, skew, 1.0)
+                    .withMentionsPerTweet(mentions)
+                    .withArrivals(Instant.parse("2016-02-01T00:00:00Z"), tweets / (30.0 * 24 * 3600), 0.5);
+            corpus = generator.list(tweets);
+            for (int i = 0; i < words; ++i) {
+                wordList.add(generator.word(1 + random.nextInt(100)).toUpperCase());
+            }
+            final Timespan span = Extract.getTimespan(corpus);
+            final Instant middle = span.getStart().plusSeconds(
+                    (span.getEnd().getEpochSecond() - span.getStart().getEpochSecond()) / 2);
+            hour = new Timespan(middle, middle.plusSeconds(3600));
+            graph = SocialNetwork.guessFollowsGraph(corpus);
+            System.out.printf("# tweets=%d users=%d skew=%s mentions=%s words=%d%n",
+                    tweets, users, skew, mentions, words);
+        }
+
+        // a random username of the corpus.
+        String username() {
+            return generator.username(1 + random.nextInt(users));
+        }
+    }
+
+    static Bench bench(final String[] args) {
+        return new Bench(Long.parseLong(Bench.option(args, "warmup", "1000")),
+                Long.parseLong(Bench.option(args, "measure", "2000")));
+    }
+
+    public static void main(final String[] args) {
+        final Bench bench = bench(args);
+        final Workload w = new Workload(args);
+
+        bench.run("Extract.getTimespan", () -> Extract.getTimespan(w.corpus));
+        bench.run("Extract.getMentionedUsers", () -> Extract.getMentionedUsers(w.corpus));
+        bench.run("Filter.writtenBy", () -> Filter.writtenBy(w.corpus, w.username()));
+        bench.run("Filter.inTimespan", () -> Filter.inTimespan(w.corpus, w.hour));
+        bench.run("Filter.containing", () -> Filter.containing(w.corpus, w.wordList));
+        bench.run("SocialNetwork.guessFollows", () -> SocialNetwork.guessFollowsGraph(w.corpus));
+        bench.run("SocialNetwork.influencers", () -> SocialNetwork.influencers(w.graph));
+    }
+}
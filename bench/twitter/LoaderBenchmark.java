@@ -0,0 +1,60 @@
+package twitter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * LoaderBenchmark measures TweetLoader on a newline-delimited JSON file, on
+ * one thread and on all of them, against only reading the lines of the file
+ * with a BufferedReader, which is the least a single-threaded parser has to
+ * do. Multiply ops/s by the file size for the throughput.
+ *
+ * Usage: java -cp <classes> twitter.LoaderBenchmark [tweets=N] [users=N]
+ */
+public class LoaderBenchmark {
+
+    public static void main(final String[] args) throws IOException {
+        final int size = Integer.parseInt(Bench.option(args, "tweets", "1000000"));
+        final int users = Integer.parseInt(Bench.option(args, "users", "100000"));
+        final Bench bench = new Bench(Long.parseLong(Bench.option(args, "warmup", "1000")),
+                Long.parseLong(Bench.option(args, "measure", "3000")));
+        final List<Tweet> tweets = new TweetGenerator(6005).withUsers(users).list(size);
+        final Path file = Files.createTempFile("tweets", ".ndjson");
+        file.toFile().deleteOnExit();
+        TweetLoader.write(tweets, file);
+        final ForkJoinPool single = new ForkJoinPool(1);
+        final ForkJoinPool all = ForkJoinPool.commonPool();
+        System.out.printf("# tweets=%d file=%d bytes threads=%d%n", size, Files.size(file), all.getParallelism());
+
+        bench.run("BufferedReader.readLine", () -> readLines(file));
+        bench.run("TweetLoader.load(1)", () -> load(file, single));
+        bench.run("TweetLoader.load", () -> load(file, all));
+        single.shutdown();
+    }
+
+    private static int readLines(final Path file) {
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            int lines = 0;
+            while (in.readLine() != null) {
+                ++lines;
+            }
+            return lines;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<Tweet> load(final Path file, final ForkJoinPool pool) {
+        try {
+            return TweetLoader.load(file, pool);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
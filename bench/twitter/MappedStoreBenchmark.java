@@ -0,0 +1,60 @@
+package twitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * MappedStoreBenchmark compares the Filter operations on a heap TweetStore
+ * with the same operations on a MappedTweetStore of the same tweets, and
+ * measures opening a mapped store, which a restarted process pays instead of
+ * loading its tweets again.
+ *
+ * Usage: java -cp <classes> twitter.MappedStoreBenchmark [tweets=N] [users=N]
+ */
+public class MappedStoreBenchmark {
+
+    public static void main(final String[] args) throws IOException {
+        final int size = Integer.parseInt(Bench.option(args, "tweets", "1000000"));
+        final int users = Integer.parseInt(Bench.option(args, "users", "100000"));
+        final Bench bench = new Bench(Long.parseLong(Bench.option(args, "warmup", "1000")),
+                Long.parseLong(Bench.option(args, "measure", "3000")));
+        final TweetGenerator generator = new TweetGenerator(6005).withUsers(users);
+        final List<Tweet> tweets = generator.list(size);
+        final Path directory = Files.createTempDirectory("tweets");
+        directory.toFile().deleteOnExit();
+        for (String file : Arrays.asList(MappedTweetStore.RECORDS, MappedTweetStore.TEXTS, MappedTweetStore.AUTHORS)) {
+            directory.resolve(file).toFile().deleteOnExit();
+        }
+        try (MappedTweetStore.Writer writer = new MappedTweetStore.Writer(directory)) {
+            writer.appendAll(tweets);
+        }
+        final TweetStore heap = new TweetStore(tweets);
+        final MappedTweetStore mapped = open(directory);
+        final Timespan span = Extract.getTimespan(tweets);
+        final Timespan hour = new Timespan(span.getStart(), span.getStart().plusSeconds(3600));
+        final List<String> words = Arrays.asList(generator.word(3).toUpperCase(), generator.word(50));
+        System.out.printf("# tweets=%d users=%d heap=%d bytes%n", size, users, heap.footprint());
+
+        bench.run("open", () -> open(directory));
+        bench.run("TweetStore.writtenBy", () -> heap.writtenBy(generator.username(1 + (int) (Math.random() * users))));
+        bench.run("Mapped.writtenBy", () -> mapped.writtenBy(generator.username(1 + (int) (Math.random() * users))));
+        bench.run("TweetStore.inTimespan", () -> heap.inTimespan(hour));
+        bench.run("Mapped.inTimespan", () -> mapped.inTimespan(hour));
+        bench.run("TweetStore.containing", () -> heap.containing(words));
+        bench.run("Mapped.containing", () -> mapped.containing(words));
+        bench.run("Extract.getMentionedUsers", () -> Extract.getMentionedUsers(mapped.tweets()));
+        bench.run("Mapped.mentionedUsers", () -> mapped.mentionedUsers());
+    }
+
+    private static MappedTweetStore open(final Path directory) {
+        try {
+            return MappedTweetStore.open(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
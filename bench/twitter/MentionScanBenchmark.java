@@ -0,0 +1,82 @@
+package twitter;
+
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * MentionScanBenchmark compares the throughput of MentionScanner against the
+ * regex Extract.getMentionedNamesFromOneTweet() used before it, on a large
+ * synthetic corpus of tweet texts.
+ *
+ * Usage: java -cp <classes> twitter.MentionScanBenchmark [tweets] [rounds]
+ */
+public class MentionScanBenchmark {
+
+    private static final Pattern REGEX =
+            Pattern.compile("(?<![\\w\\-])@(([\\w\\-]){1,15})(?![\\w\\-])");
+
+    private static final String[] WORDS = {
+        "rivest", "talk", "in", "30", "minutes", "#hype", "is", "it", "reasonable",
+        "bitdiddle@mit.edu", "@@dupatsign", "@johnsmith", "@JohnSmith", "@usa_456,",
+        "@a1234567890123456789", "lunch?", "@mary!", "the", "a", "fyi:"
+    };
+
+    public static void main(final String[] args) {
+        final int tweets = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        final int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        final String[] corpus = corpus(tweets, new Random(6005));
+
+        for (int round = 0; round < rounds; ++round) {
+            long begin = System.nanoTime();
+            final long regexCount = regex(corpus);
+            final long regexNanos = System.nanoTime() - begin;
+
+            begin = System.nanoTime();
+            final long scanCount = scan(corpus);
+            final long scanNanos = System.nanoTime() - begin;
+
+            if (regexCount != scanCount) {
+                throw new AssertionError("mention counts differ: " + regexCount + " vs " + scanCount);
+            }
+            System.out.printf("round %d: regex %,.0f tweets/s, scanner %,.0f tweets/s (%d mentions)%n",
+                    round, tweets * 1e9 / regexNanos, tweets * 1e9 / scanNanos, scanCount);
+        }
+    }
+
+    private static long regex(final String[] corpus) {
+        long count = 0;
+        for (String text : corpus) {
+            final Matcher matcher = REGEX.matcher(text);
+            while (matcher.find()) {
+                count += matcher.group(1).toLowerCase().length() > 0 ? 1 : 0;
+            }
+        }
+        return count;
+    }
+
+    private static long scan(final String[] corpus) {
+        long count = 0;
+        final MentionScanner scanner = new MentionScanner("");
+        for (String text : corpus) {
+            scanner.reset(text);
+            while (scanner.find()) {
+                count += scanner.mention().length() > 0 ? 1 : 0;
+            }
+        }
+        return count;
+    }
+
+    private static String[] corpus(final int size, final Random random) {
+        final String[] corpus = new String[size];
+        final StringBuilder text = new StringBuilder();
+        for (int i = 0; i < size; ++i) {
+            text.setLength(0);
+            while (text.length() < 100) {
+                text.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            corpus[i] = text.toString();
+        }
+        return corpus;
+    }
+}
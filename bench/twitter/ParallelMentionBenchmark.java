@@ -0,0 +1,52 @@
+package twitter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * ParallelMentionBenchmark measures how Extract.getMentionedUsersParallel()
+ * scales with the number of worker threads, against the serial
+ * Extract.getMentionedUsers().
+ *
+ * Usage: java -cp <classes> twitter.ParallelMentionBenchmark [tweets] [rounds]
+ */
+public class ParallelMentionBenchmark {
+
+    public static void main(final String[] args) {
+        final int size = args.length > 0 ? Integer.parseInt(args[0]) : 2000000;
+        final int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        final List<Tweet> tweets = corpus(size, new Random(6005));
+
+        for (int round = 0; round < rounds; ++round) {
+            long begin = System.nanoTime();
+            final int expected = Extract.getMentionedUsers(tweets).size();
+            System.out.printf("round %d serial: %,.0f ms%n", round, (System.nanoTime() - begin) / 1e6);
+
+            for (int threads = 1; threads <= Runtime.getRuntime().availableProcessors(); threads *= 2) {
+                final ForkJoinPool pool = new ForkJoinPool(threads);
+                begin = System.nanoTime();
+                final int actual = Extract.getMentionedUsersParallel(tweets, pool).size();
+                final long nanos = System.nanoTime() - begin;
+                pool.shutdown();
+                if (actual != expected) {
+                    throw new AssertionError("sets differ: " + expected + " vs " + actual);
+                }
+                System.out.printf("round %d %2d threads: %,.0f ms%n", round, threads, nanos / 1e6);
+            }
+        }
+    }
+
+    private static List<Tweet> corpus(final int size, final Random random) {
+        final Instant now = Instant.parse("2016-02-17T10:00:00Z");
+        final List<Tweet> tweets = new ArrayList<Tweet>(size);
+        for (int i = 0; i < size; ++i) {
+            final String text = "rt @user" + random.nextInt(size / 4) + " and @User"
+                    + random.nextInt(size / 4) + " via bitdiddle@mit.edu #hype";
+            tweets.add(new Tweet(i, "author" + random.nextInt(10000), text, now));
+        }
+        return tweets;
+    }
+}
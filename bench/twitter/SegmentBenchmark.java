@@ -0,0 +1,64 @@
+package twitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * SegmentBenchmark compares answering Filter queries over a month of tweets
+ * kept in a newline-delimited JSON file, which must be parsed whole, with
+ * answering them from a TweetSegment of the same tweets, which skips the
+ * blocks its zone maps rule out.
+ *
+ * Usage: java -cp <classes> twitter.SegmentBenchmark [tweets=N] [users=N]
+ */
+public class SegmentBenchmark {
+
+    public static void main(final String[] args) throws IOException {
+        final int size = Integer.parseInt(Bench.option(args, "tweets", "1000000"));
+        final int users = Integer.parseInt(Bench.option(args, "users", "100000"));
+        final Bench bench = new Bench(Long.parseLong(Bench.option(args, "warmup", "1000")),
+                Long.parseLong(Bench.option(args, "measure", "3000")));
+        final TweetGenerator generator = new TweetGenerator(6005).withUsers(users)
+                .withArrivals(Instant.parse("2016-02-01T00:00:00Z"), size / (30.0 * 24 * 3600), 0.5);
+        final List<Tweet> tweets = generator.list(size);
+        final Path json = Files.createTempFile("tweets", ".ndjson");
+        json.toFile().deleteOnExit();
+        TweetLoader.write(tweets, json);
+        final Path segmentFile = Files.createTempFile("tweets", ".twsg");
+        segmentFile.toFile().deleteOnExit();
+        TweetSegment.write(tweets, segmentFile);
+
+        final Instant middle = Instant.parse("2016-02-15T12:00:00Z");
+        final Timespan hour = new Timespan(middle, middle.plusSeconds(3600));
+        final String author = generator.username(50);
+        try (TweetSegment segment = TweetSegment.open(segmentFile)) {
+            segment.inTimespan(hour);
+            System.out.printf("# tweets=%d json=%d bytes segment=%d bytes; an hour reads %d bytes%n",
+                    size, Files.size(json), Files.size(segmentFile), segment.bytesRead());
+            bench.run("json.load+inTimespan", () -> Filter.inTimespan(load(json), hour));
+            bench.run("segment.tweets", () -> read(() -> segment.tweets()));
+            bench.run("segment.inTimespan", () -> read(() -> segment.inTimespan(hour)));
+            bench.run("segment.writtenBy", () -> read(() -> segment.writtenBy(author)));
+        }
+    }
+
+    private interface Query {
+        List<Tweet> run() throws IOException;
+    }
+
+    private static List<Tweet> read(final Query query) {
+        try {
+            return query.run();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<Tweet> load(final Path file) {
+        return read(() -> TweetLoader.load(file));
+    }
+}
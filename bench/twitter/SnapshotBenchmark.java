@@ -0,0 +1,44 @@
+package twitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * SnapshotBenchmark compares the two ways a restarted process can get its
+ * follows graph back: rebuilding it from the tweets, or opening a
+ * GraphSnapshot; both end with an influencers query.
+ *
+ * Usage: java -cp <classes> twitter.SnapshotBenchmark [tweets=N] [users=N]
+ */
+public class SnapshotBenchmark {
+
+    public static void main(final String[] args) throws IOException {
+        final int size = Integer.parseInt(Bench.option(args, "tweets", "1000000"));
+        final int users = Integer.parseInt(Bench.option(args, "users", "100000"));
+        final Bench bench = new Bench(Long.parseLong(Bench.option(args, "warmup", "1000")),
+                Long.parseLong(Bench.option(args, "measure", "3000")));
+        final List<Tweet> tweets = new TweetGenerator(6005).withUsers(users).list(size);
+        final Path path = Files.createTempFile("snapshot", ".twfg");
+        path.toFile().deleteOnExit();
+        final FollowsGraph graph = FollowsGraph.fromTweets(tweets);
+        GraphSnapshot.write(graph, path);
+        System.out.printf("# tweets=%d users=%d edges=%d file=%d bytes%n",
+                size, graph.userCount(), graph.edgeCount(), Files.size(path));
+
+        bench.run("rebuild+influencers10", () -> SocialNetwork.influencers(FollowsGraph.fromTweets(tweets), 10));
+        bench.run("open+influencers10", () -> open(path).influencers(10));
+        final GraphSnapshot snapshot = open(path);
+        bench.run("snapshot.id", () -> snapshot.id("user" + (1 + (int) (Math.random() * users))));
+    }
+
+    private static GraphSnapshot open(final Path path) {
+        try {
+            return GraphSnapshot.open(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package twitter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ConcurrentFollowsGraphBuilder collects follows evidence from many producer
+ * threads at once, with the evidence rules of SocialNetwork.guessFollowsGraph():
+ * the author of a tweet follows every user it @-mentions, except himself.
+ *
+ * All the evidence of a tweet is about its author, so the builder is cut
+ * into stripes by the hash of the (lower case) author, each a plain map of
+ * authors to follow sets under a lock of its own. A producer holds only the
+ * lock of its author's stripe, for one tweet, so producers only contend when
+ * their authors share a stripe. snapshot() holds every stripe lock just long
+ * enough to swap each stripe's map for an empty one, so a snapshot contains
+ * all or none of the evidence of every tweet; it merges and sorts the maps
+ * it took after releasing the locks.
+ *
+ * A ConcurrentFollowsGraphBuilder is mutable and thread-safe.
+ */
+public class ConcurrentFollowsGraphBuilder {
+
+    private static final int STRIPES = 64;
+
+    private final Stripe[] stripes;
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private final Map<String, Set<String>> taken = new HashMap<String, Set<String>>();
+    // Rep invariant:
+    //   stripes.length == STRIPES, a power of two
+    //   every key and every set element of every map is a lower case username
+    //   every key of stripes[i].recent is an author whose stripe is i
+    //   no key is an element of its own set
+    //
+    // Abstraction Function:
+    //   represents the social network in which A follows B iff B is in the
+    //   set of A in taken or in the recent map of A's stripe, and whose users
+    //   are the keys and set elements of those maps.
+    //
+    // Safety from rep exposure:
+    //   All fields are private; snapshot() returns a new map of new sets.
+    //
+    // Thread safety argument:
+    //   The recent map of a stripe is only read or written under the lock
+    //   of the stripe; taken is only read or written under snapshotLock,
+    //   which only snapshot() takes. An adder holds its stripe lock for a
+    //   whole tweet and snapshot() swaps every recent map while holding all
+    //   stripe locks at once, so no tweet is half visible in a snapshot. The
+    //   maps snapshot() swaps out are no longer reachable by adders.
+
+    /*
+     * Stripe is the evidence added since the last snapshot for the authors
+     * whose hash falls in the stripe.
+     */
+    private static class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private Map<String, Set<String>> recent = new HashMap<String, Set<String>>();
+    }
+
+    /**
+     * Make an empty builder.
+     */
+    public ConcurrentFollowsGraphBuilder() {
+        this.stripes = new Stripe[STRIPES];
+        for (int i = 0; i < stripes.length; ++i) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    private Stripe stripe(final String author) {
+        final int h = author.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+    }
+
+    /**
+     * Add the evidence of one tweet. May be called by many threads at once.
+     *
+     * @param tweet
+     *            a tweet, not modified by this method.
+     */
+    public void add(final Tweet tweet) {
+        final String author = tweet.getAuthor().toLowerCase();
+        // scan outside the lock; only the map update needs it
+        final Set<String> mentioned = Extract.getMentionedNamesFromOneTweet(tweet);
+        mentioned.remove(author);
+
+        final Stripe stripe = stripe(author);
+        stripe.lock.lock();
+        try {
+            final Set<String> followList = stripe.recent.get(author);
+            if (followList == null) {
+                stripe.recent.put(author, new HashSet<String>(mentioned));
+            } else {
+                followList.addAll(mentioned);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Add the evidence of a batch of tweets. May be called by many threads
+     * at once.
+     *
+     * @param tweets
+     *            a list of tweets, not modified by this method.
+     */
+    public void addAll(final List<Tweet> tweets) {
+        for (Tweet t : tweets) {
+            add(t);
+        }
+    }
+
+    /**
+     * @return a new social network (as defined in SocialNetwork), in the
+     *         shape SocialNetwork.guessFollowsGraph() returns, holding the
+     *         evidence of every tweet whose add() completed before this call
+     *         and of no tweet whose add() started after it.
+     */
+    public Map<String, Set<String>> snapshot() {
+        snapshotLock.lock();
+        try {
+            final List<Map<String, Set<String>>> recent = new ArrayList<Map<String, Set<String>>>(stripes.length);
+            for (Stripe stripe : stripes) {
+                stripe.lock.lock();
+            }
+            try {
+                for (Stripe stripe : stripes) {
+                    recent.add(stripe.recent);
+                    stripe.recent = new HashMap<String, Set<String>>();
+                }
+            } finally {
+                for (Stripe stripe : stripes) {
+                    stripe.lock.unlock();
+                }
+            }
+
+            // producers run again; merge what was swapped out, then sort
+            for (Map<String, Set<String>> map : recent) {
+                for (Map.Entry<String, Set<String>> entry : map.entrySet()) {
+                    final Set<String> followList = taken.get(entry.getKey());
+                    if (followList == null) {
+                        taken.put(entry.getKey(), entry.getValue());
+                    } else {
+                        followList.addAll(entry.getValue());
+                    }
+                }
+            }
+            final Map<String, Set<String>> followsMap =
+                    new TreeMap<String, Set<String>>(String.CASE_INSENSITIVE_ORDER);
+            for (Map.Entry<String, Set<String>> entry : taken.entrySet()) {
+                final Set<String> followList = new TreeSet<String>(String.CASE_INSENSITIVE_ORDER);
+                followList.addAll(entry.getValue());
+                followsMap.put(entry.getKey(), followList);
+            }
+            // users who were mentioned but never wrote a tweet
+            for (Set<String> followList : taken.values()) {
+                for (String name : followList) {
+                    if (!followsMap.containsKey(name)) {
+                        followsMap.put(name, new TreeSet<String>(String.CASE_INSENSITIVE_ORDER));
+                    }
+                }
+            }
+            return followsMap;
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+}
@@ -1,12 +1,17 @@
 package twitter;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.time.Instant;
 import java.util.Collections;
-import java.util.regex.Pattern;
-import java.util.regex.Matcher;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Spliterator;
+import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * Extract consists of methods that extract information from a list of tweets.
@@ -80,9 +85,6 @@ public class Extract {
      *         include a username at most once.
      */
     public static Set<String> getMentionedNamesFromOneTweet(final Tweet tweet) {
-        String twtText, validAuthor;
-        Matcher matcher;
-        boolean duplicate = false;
         final Set<String> mentionedUsers = new TreeSet<String>();
         
         // the tweet must not be null
@@ -93,42 +95,16 @@ public class Extract {
         // A username is just the username-mention without the @. Or rather, 
         // the username-mention is @ plus a username.
         // 
-        // "(?<! [\w\-])" use negative lookbehind to make sure there is no valid 
-        //    letter (including "-") in front of @, then
-        // "([\w\-]){1, 15}" there are at least 1 but no more than 15 valid
-        //    letters.
-        // "(?=$|\\s|\\,|\\.])" only "end of string" or "white space" or "," or "." 
-        //    allowed after the legal name.
-        
-  //      String regex = "(?<![\\w\\-])@(([\\w\\-]){1,15})(?=$|\\s|\\,|\\.])";
-        String regex = "(?<![\\w\\-])@(([\\w\\-]){1,15})(?![\\w\\-])";
-        final Pattern pattern = Pattern.compile(regex);
-                
-        // parse the text of the tweet according to the pattern.
-        twtText = tweet.getText();
-        // System.out.println("input text: " + twtText); // *** test
-        matcher = pattern.matcher(twtText);
-          
-        // find all matches in the string. Only the username is needed, not including @
-        while (matcher.find()) {
-            validAuthor = matcher.group(1);
-            // System.out.println("valid name: " + validAuthor); // *** test
-            
-            // find out if the name already exists in the set.
-            for (String name : mentionedUsers)
-            {
-                if (name.compareToIgnoreCase(validAuthor) == 0) {
-                    duplicate = true;
-                }
-            }
-
-            if(!duplicate) { // name is not in the set yet
-                mentionedUsers.add(validAuthor);
-            }
-            else {
-                duplicate = false; // reset the flag
-            }
-        };
+        // MentionScanner walks the text once and applies the same rules the
+        // regex "(?<![\\w\\-])@(([\\w\\-]){1,15})(?![\\w\\-])" used to:
+        // no valid letter (including "-") in front of @, at least 1 but no
+        // more than 15 valid letters, and no valid letter after the name.
+        // Names come back folded to lower case, so the set drops duplicates
+        // like @johnsmith and @JohnSmith by itself.
+        final MentionScanner scanner = new MentionScanner(tweet.getText());
+        while (scanner.find()) {
+            mentionedUsers.add(scanner.mention());
+        }
         return mentionedUsers;
     }
 
@@ -170,6 +146,164 @@ public class Extract {
         return mentionedUsers;
     }
 
+    /**
+     * Count how often users are mentioned in a list of tweets.
+     * 
+     * @param tweets
+     *            list of tweets with distinct ids, not modified by this method.
+     * @return a map from every username in getMentionedUsers(tweets) to the
+     *         number of tweets in the list that mention it. Twitter usernames
+     *         are case-insensitive, so the map's keys are too.
+     */
+    public static Map<String, Integer> getMentionCounts(final List<Tweet> tweets) {
+        
+        // the tweets list must not be null
+        if (tweets == null) {
+            throw new NullPointerException("tweet list is null");
+        }
+        
+        // count into mutable cells of a hash map first, the sorted map is
+        // only built once at the end.
+        final Map<String, int[]> cells = new HashMap<String, int[]>();
+        for (Tweet t : tweets) {
+            for (String name : getMentionedNamesFromOneTweet(t)) {
+                int[] cell = cells.get(name);
+                if (cell == null) {
+                    cell = new int[1];
+                    cells.put(name, cell);
+                }
+                ++cell[0];
+            }
+        }
+        
+        final Map<String, Integer> mentionCounts = new TreeMap<String, Integer>(String.CASE_INSENSITIVE_ORDER);
+        for (Map.Entry<String, int[]> entry : cells.entrySet()) {
+            mentionCounts.put(entry.getKey(), entry.getValue()[0]);
+        }
+        return mentionCounts;
+    }
+
+    /**
+     * Find the most mentioned users in a list of tweets.
+     * 
+     * For inputs too large to count exactly, see MentionHeavyHitters.
+     * 
+     * @param tweets
+     *            list of tweets with distinct ids, not modified by this method.
+     * @param k
+     *            maximum number of usernames to return, k >= 0.
+     * @return the (at most) k usernames of getMentionCounts(tweets) with the
+     *         highest counts, in descending order of count; usernames with the
+     *         same count are in alphabetical order.
+     */
+    public static List<String> getMostMentionedUsers(final List<Tweet> tweets, final int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k is a negative number");
+        }
+        
+        // give every name a dense id, then keep the k best in a bounded heap
+        final Map<String, Integer> mentionCounts = getMentionCounts(tweets);
+        final String[] names = new String[mentionCounts.size()];
+        final int[] counts = new int[names.length];
+        int id = 0;
+        for (Map.Entry<String, Integer> entry : mentionCounts.entrySet()) {
+            names[id] = entry.getKey();
+            counts[id++] = entry.getValue();
+        }
+        return TopK.names(TopK.select(names.length, k, TopK.byCount(counts, names)), names);
+    }
+
+    /**
+     * Get usernames mentioned in a list of tweets, using every core of the
+     * common ForkJoinPool.
+     * 
+     * @param tweets
+     *            list of tweets with distinct ids, not modified by this method
+     *            or by any other thread while this method runs.
+     * @return the same set getMentionedUsers(tweets) returns.
+     */
+    public static Set<String> getMentionedUsersParallel(final List<Tweet> tweets) {
+        return getMentionedUsersParallel(tweets, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Get usernames mentioned in a list of tweets, in parallel on a given pool.
+     * 
+     * @param tweets
+     *            list of tweets with distinct ids, not modified by this method
+     *            or by any other thread while this method runs.
+     * @param pool
+     *            the pool that runs the extraction.
+     * @return the same set getMentionedUsers(tweets) returns.
+     */
+    public static Set<String> getMentionedUsersParallel(final List<Tweet> tweets, final ForkJoinPool pool) {
+        
+        // the tweets list must not be null
+        if (tweets == null) {
+            throw new NullPointerException("tweet list is null");
+        }
+        
+        // check if the list is empty
+        if (tweets.isEmpty()) {
+            return Collections.emptySet();
+        }
+        
+        // every chunk collects lower case names into its own hash set, the
+        // sets are merged pairwise as the fork-join tree unwinds, and only the
+        // final set is sorted into the case-insensitive set the caller expects.
+        final Set<String> mentionedUsers = new TreeSet<String>(String.CASE_INSENSITIVE_ORDER);
+        mentionedUsers.addAll(pool.invoke(new MentionTask(tweets.spliterator())));
+        return mentionedUsers;
+    }
+
+    /*
+     * MentionTask extracts the lower case usernames mentioned in the tweets of
+     * one spliterator, splitting it in halves until the pieces are small.
+     */
+    private static class MentionTask extends RecursiveTask<Set<String>> {
+        private static final long serialVersionUID = 1L;
+        private static final long CHUNK_SIZE = 4096;
+
+        private final Spliterator<Tweet> tweets;
+
+        MentionTask(final Spliterator<Tweet> tweets) {
+            this.tweets = tweets;
+        }
+
+        @Override
+        protected Set<String> compute() {
+            if (tweets.estimateSize() > CHUNK_SIZE) {
+                final Spliterator<Tweet> prefix = tweets.trySplit();
+                if (prefix != null) {
+                    final MentionTask left = new MentionTask(prefix);
+                    left.fork();
+                    final Set<String> right = compute();
+                    return merge(left.join(), right);
+                }
+            }
+
+            final Set<String> names = new HashSet<String>();
+            final MentionScanner scanner = new MentionScanner("");
+            tweets.forEachRemaining(t -> {
+                scanner.reset(t.getText());
+                while (scanner.find()) {
+                    names.add(scanner.mention());
+                }
+            });
+            return names;
+        }
+
+        // pour the smaller set into the larger one.
+        private static Set<String> merge(final Set<String> a, final Set<String> b) {
+            if (a.size() < b.size()) {
+                b.addAll(a);
+                return b;
+            }
+            a.addAll(b);
+            return a;
+        }
+    }
+
     /* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
      * Redistribution of original or derived work requires explicit permission.
      * Don't post any of this code on the web or to a public Github repository.
@@ -1,9 +1,9 @@
 package twitter;
 
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.time.Instant;
 
 /**
@@ -89,42 +89,23 @@ public class Filter {
     public static List<Tweet> containing(final List<Tweet> tweets, final List<String> words) {
         
         final List<Tweet> matchedTweets = new ArrayList<Tweet>();
-        String textString, regex;
-        Matcher matcher;
+        final Set<Tweet> matchedSet = new HashSet<Tweet>();
         
         // first make sure either the words or tweets list is not empty, do nothing if so.
         if ((words.size() == 0) || (tweets.size() == 0))
                 return matchedTweets;
         
-        // prepare regex based on the words list: on word boundary
-        // 
-        regex = "\\b(";
-        regex = regex.concat(words.get(0));
-        for (int i = 1; i < words.size(); ++i) {
-            regex = regex.concat("|");
-            regex = regex.concat(words.get(i));
-        }
-        regex = regex.concat(")\\b");
-        // System.out.println("regex = " + regex); // ** test
-        
-        // compile the regex to be used in matcher()
-        final Pattern pattern = Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
+        // put the words into a case-insensitive hash table once, then look up
+        // every space-bounded word of every tweet in it. Unlike a regex built
+        // from the words, this needs no escaping and never backtracks.
+        final WordMatcher matcher = new WordMatcher(words);
         
         // loop thru the whole tweet list to check if its text string contain any
         // word from the words list.
         for (Tweet t : tweets) {
-            textString = t.getText();
-            
-            // System.out.println("Text string to be matched: " + textString); // ** test
-            
-            matcher = pattern.matcher(textString);
-
-            // Find if matched.
-            if (matcher.find()) {
-                // System.out.println("match found : " + matcher.group(1)); // ** test
-                // check if this tweet is already on our list?
-                if (!matchedTweets.contains(t))
-                    matchedTweets.add(t);
+            // a tweet listed twice is only returned once.
+            if (matcher.matches(t.getText()) && matchedSet.add(t)) {
+                matchedTweets.add(t);
             }
         }
         return matchedTweets;
@@ -0,0 +1,452 @@
+package twitter;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * FollowsGraph is a compact, immutable social network (as defined in
+ * SocialNetwork) stored in compressed sparse row (CSR) form.
+ *
+ * Every username is given a dense int id in 0..userCount()-1. The users that
+ * user u follows are outTarget(i) for outStart(u) <= i < outEnd(u), stored in
+ * one int array for the whole graph, so an edge costs 4 bytes and walking a
+ * user's neighbors reads consecutive memory. The reverse (followers) CSR
+ * arrays are built the first time they are asked for.
+ *
+ * fromTweets() finds the same follows relation as
+ * SocialNetwork.guessFollowsGraph(), and asMap() shows the graph as a
+ * read-only Map<String, Set<String>> without copying it.
+ *
+ * A FollowsGraph is immutable and safe to share between threads.
+ */
+public class FollowsGraph {
+
+    private final String[] names;
+    private final Map<String, Integer> ids;
+    private final int[] outOffsets;
+    private final int[] outTargets;
+    private volatile int[] inOffsets;
+    private volatile int[] inTargets;
+    // Rep invariant:
+    //   names are distinct lower case usernames, ids maps names[i] to i
+    //   outOffsets.length == names.length + 1, outOffsets[0] == 0,
+    //     outOffsets is non-decreasing, outOffsets[n] == outTargets.length
+    //   every row outTargets[outOffsets[u]..outOffsets[u+1]) is strictly
+    //     increasing, holds valid ids and does not hold u
+    //   inOffsets/inTargets are null, or the CSR form of the reverse graph
+    //     with the same properties
+    //
+    // Abstraction Function:
+    //   represents the social network in which names[u] follows names[v]
+    //   iff v is in row u of outTargets; every name is a user of the
+    //   network even if it follows nobody.
+    //
+    // Safety from rep exposure:
+    //   All fields are private; arrays are never returned; asMap() is a
+    //   read-only view.
+    //
+    // Thread safety argument:
+    //   All fields but the in-edge arrays are final and never mutated after
+    //   construction. The in-edge arrays are computed under this object's
+    //   lock and published through volatile fields, inTargets before
+    //   inOffsets, so a reader that sees inOffsets also sees inTargets.
+
+    // Creator: takes ownership of the arrays.
+    FollowsGraph(final String[] names, final Map<String, Integer> ids,
+            final int[] outOffsets, final int[] outTargets) {
+        this.names = names;
+        this.ids = ids;
+        this.outOffsets = outOffsets;
+        this.outTargets = outTargets;
+    }
+
+    /**
+     * Guess who might follow whom, from evidence found in tweets: Ernie
+     * follows Bert iff Ernie @-mentions Bert in a tweet, as in
+     * SocialNetwork.guessFollowsGraph().
+     *
+     * @param tweets
+     *            a list of tweets providing the evidence, not modified by this
+     *            method.
+     * @return a graph whose users are all the authors and @-mentioned users
+     *         of the tweets.
+     */
+    public static FollowsGraph fromTweets(final List<Tweet> tweets) {
+        final Builder builder = new Builder();
+        for (Tweet t : tweets) {
+            builder.add(t);
+        }
+        return builder.build();
+    }
+
+    /**
+     * @param followsGraph
+     *            a social network (as defined in SocialNetwork), not modified
+     *            by this method.
+     * @return the same social network as a FollowsGraph.
+     */
+    public static FollowsGraph fromMap(final Map<String, Set<String>> followsGraph) {
+        final Builder builder = new Builder();
+        for (Map.Entry<String, Set<String>> entry : followsGraph.entrySet()) {
+            final int from = builder.user(entry.getKey());
+            for (String followed : entry.getValue()) {
+                builder.edge(from, builder.user(followed));
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return number of users in the graph.
+     */
+    public int userCount() {
+        return names.length;
+    }
+
+    /**
+     * @return number of follows edges in the graph.
+     */
+    public int edgeCount() {
+        return outTargets.length;
+    }
+
+    /**
+     * @param username
+     *            a Twitter username, case-insensitive.
+     * @return the id of username, or -1 if it is not in the graph.
+     */
+    public int id(final String username) {
+        final Integer id = ids.get(username.toLowerCase());
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @param id
+     *            a user id, 0 <= id < userCount().
+     * @return the lower case username of that user.
+     */
+    public String username(final int id) {
+        return names[id];
+    }
+
+    /**
+     * @param id
+     *            a user id.
+     * @return index of the first user followed by id, see outTarget().
+     */
+    public int outStart(final int id) {
+        return outOffsets[id];
+    }
+
+    /**
+     * @param id
+     *            a user id.
+     * @return index just past the last user followed by id.
+     */
+    public int outEnd(final int id) {
+        return outOffsets[id + 1];
+    }
+
+    /**
+     * @param index
+     *            an index between outStart(u) and outEnd(u) of some user u.
+     * @return id of a user that u follows; ids of one row are increasing.
+     */
+    public int outTarget(final int index) {
+        return outTargets[index];
+    }
+
+    /**
+     * @param id
+     *            a user id.
+     * @return number of users that id follows.
+     */
+    public int outDegree(final int id) {
+        return outOffsets[id + 1] - outOffsets[id];
+    }
+
+    /**
+     * @param id
+     *            a user id.
+     * @return index of the first follower of id, see inSource().
+     */
+    public int inStart(final int id) {
+        return inOffsets()[id];
+    }
+
+    /**
+     * @param id
+     *            a user id.
+     * @return index just past the last follower of id.
+     */
+    public int inEnd(final int id) {
+        return inOffsets()[id + 1];
+    }
+
+    /**
+     * @param index
+     *            an index between inStart(v) and inEnd(v) of some user v.
+     * @return id of a user that follows v; ids of one row are increasing.
+     */
+    public int inSource(final int index) {
+        inOffsets();
+        return inTargets[index];
+    }
+
+    /**
+     * @param id
+     *            a user id.
+     * @return number of followers of id.
+     */
+    public int inDegree(final int id) {
+        final int[] offsets = inOffsets();
+        return offsets[id + 1] - offsets[id];
+    }
+
+    // Observers for the hot loops of this package: the reverse CSR arrays,
+    // so that a loop over every edge reads the volatile fields once; the
+    // rows of inSourceArray() are delimited by inOffsetArray(). Callers must
+    // not modify them.
+    int[] inOffsetArray() {
+        return inOffsets();
+    }
+
+    int[] inSourceArray() {
+        inOffsets();
+        return inTargets;
+    }
+
+    private int[] inOffsets() {
+        int[] offsets = inOffsets;
+        if (offsets == null) {
+            synchronized (this) {
+                offsets = inOffsets;
+                if (offsets == null) {
+                    offsets = reverse();
+                }
+            }
+        }
+        return offsets;
+    }
+
+    // build and publish the reverse CSR arrays; returns the offsets.
+    private int[] reverse() {
+        final int n = names.length;
+        final int[] offsets = new int[n + 1];
+        for (int target : outTargets) {
+            ++offsets[target + 1];
+        }
+        for (int v = 0; v < n; ++v) {
+            offsets[v + 1] += offsets[v];
+        }
+        // sources are visited in increasing order, so every row comes out sorted
+        final int[] next = Arrays.copyOf(offsets, n);
+        final int[] sources = new int[outTargets.length];
+        for (int u = 0; u < n; ++u) {
+            for (int i = outOffsets[u]; i < outOffsets[u + 1]; ++i) {
+                sources[next[outTargets[i]]++] = u;
+            }
+        }
+        inTargets = sources;
+        inOffsets = offsets;
+        return offsets;
+    }
+
+    /**
+     * @param follower
+     *            a user id.
+     * @param followed
+     *            a user id.
+     * @return true iff follower follows followed; O(log outDegree(follower)).
+     */
+    public boolean follows(final int follower, final int followed) {
+        return Arrays.binarySearch(outTargets, outOffsets[follower], outOffsets[follower + 1], followed) >= 0;
+    }
+
+    /**
+     * @return estimated heap bytes of the CSR arrays (and reverse arrays if
+     *         built), not counting the username dictionary.
+     */
+    public long edgeFootprint() {
+        long bytes = 4L * (outOffsets.length + outTargets.length);
+        if (inOffsets != null) {
+            bytes += 4L * (inOffsets.length + inTargets.length);
+        }
+        return bytes;
+    }
+
+    /**
+     * @return a read-only view of this graph as a social network (as defined
+     *         in SocialNetwork). Keys and set elements are lower case, and
+     *         lookups ignore case. Every user is a key.
+     */
+    public Map<String, Set<String>> asMap() {
+        return new MapView();
+    }
+
+    /*
+     * MapView shows the graph as a Map, creating entries and sets on demand.
+     */
+    private class MapView extends AbstractMap<String, Set<String>> {
+
+        @Override public int size() {
+            return names.length;
+        }
+
+        @Override public boolean containsKey(final Object key) {
+            return key instanceof String && id((String) key) >= 0;
+        }
+
+        @Override public Set<String> get(final Object key) {
+            if (!(key instanceof String)) {
+                return null;
+            }
+            final int id = id((String) key);
+            return id < 0 ? null : new RowView(id);
+        }
+
+        @Override public Set<Map.Entry<String, Set<String>>> entrySet() {
+            return new AbstractSet<Map.Entry<String, Set<String>>>() {
+                @Override public int size() {
+                    return names.length;
+                }
+
+                @Override public Iterator<Map.Entry<String, Set<String>>> iterator() {
+                    return new Iterator<Map.Entry<String, Set<String>>>() {
+                        private int next = 0;
+
+                        @Override public boolean hasNext() {
+                            return next < names.length;
+                        }
+
+                        @Override public Map.Entry<String, Set<String>> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            final int id = next++;
+                            return new AbstractMap.SimpleImmutableEntry<String, Set<String>>(
+                                    names[id], new RowView(id));
+                        }
+                    };
+                }
+            };
+        }
+    }
+
+    /*
+     * RowView shows the users one user follows as a Set.
+     */
+    private class RowView extends AbstractSet<String> {
+        private final int id;
+
+        RowView(final int id) {
+            this.id = id;
+        }
+
+        @Override public int size() {
+            return outDegree(id);
+        }
+
+        @Override public boolean contains(final Object o) {
+            if (!(o instanceof String)) {
+                return false;
+            }
+            final int other = id((String) o);
+            return other >= 0 && follows(id, other);
+        }
+
+        @Override public Iterator<String> iterator() {
+            return new Iterator<String>() {
+                private int next = outOffsets[id];
+
+                @Override public boolean hasNext() {
+                    return next < outOffsets[id + 1];
+                }
+
+                @Override public String next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return names[outTargets[next++]];
+                }
+            };
+        }
+    }
+
+    /*
+     * Builder collects users and edges, then sorts the edges into CSR form.
+     * Not thread-safe.
+     */
+    static class Builder {
+        private final Map<String, Integer> ids = new HashMap<String, Integer>();
+        private String[] names = new String[16];
+        private long[] edges = new long[16];
+        private int edgeCount;
+        private final MentionScanner scanner = new MentionScanner("");
+
+        // Mutator: the id of username, adding it if it is new.
+        int user(final String username) {
+            final String name = username.toLowerCase();
+            Integer id = ids.get(name);
+            if (id == null) {
+                id = ids.size();
+                if (id == names.length) {
+                    names = Arrays.copyOf(names, id * 2);
+                }
+                names[id] = name;
+                ids.put(name, id);
+            }
+            return id;
+        }
+
+        // Mutator: add the edge follower -> followed unless it is a self loop.
+        void edge(final int follower, final int followed) {
+            if (follower == followed) {
+                return;
+            }
+            if (edgeCount == edges.length) {
+                edges = Arrays.copyOf(edges, edgeCount * 2);
+            }
+            edges[edgeCount++] = ((long) follower << 32) | followed;
+        }
+
+        // Mutator: add the author and the evidence of one tweet.
+        void add(final Tweet tweet) {
+            final int author = user(tweet.getAuthor());
+            scanner.reset(tweet.getText());
+            while (scanner.find()) {
+                edge(author, user(scanner.mention()));
+            }
+        }
+
+        // Producer: the graph of everything added so far.
+        FollowsGraph build() {
+            final int n = ids.size();
+            final long[] sorted = Arrays.copyOf(edges, edgeCount);
+            Arrays.sort(sorted);
+
+            final int[] offsets = new int[n + 1];
+            final int[] targets = new int[edgeCount];
+            int m = 0;
+            for (int i = 0; i < sorted.length; ++i) {
+                if (i > 0 && sorted[i] == sorted[i - 1]) {
+                    continue; // the same evidence seen again
+                }
+                ++offsets[(int) (sorted[i] >>> 32) + 1];
+                targets[m++] = (int) sorted[i];
+            }
+            for (int u = 0; u < n; ++u) {
+                offsets[u + 1] += offsets[u];
+            }
+            return new FollowsGraph(Arrays.copyOf(names, n), new HashMap<String, Integer>(ids),
+                    offsets, Arrays.copyOf(targets, m));
+        }
+    }
+}
@@ -0,0 +1,594 @@
+package twitter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * GraphSnapshot is a follows graph stored in a file that is memory-mapped
+ * rather than read, so a process can answer queries on it right after
+ * open(), and the operating system pages the parts that are used in lazily.
+ *
+ * The file holds, in little-endian order:
+ *
+ *   header (64 bytes): magic "TWFG", version, userCount n, edgeCount m,
+ *       byte length of the names, CRC-32 of the dictionary, CRC-32 of
+ *       the edges, and a CRC-32 of the header itself
+ *   dictionary: int[n + 1] name offsets, then the UTF-8 names, padded to 4
+ *       bytes; user ids are ranks in unsigned byte order of the names, so
+ *       id() is a binary search on the mapped bytes
+ *   edges: followed users in CSR form, int[n + 1] offsets and int[m]
+ *       targets, then followers in the same form
+ *
+ * open() only checks the header, so that it does not touch the whole file;
+ * verify() checks the dictionary and edge checksums. A file is at most
+ * 2 GiB, the size one mapping can hold.
+ *
+ * A GraphSnapshot is immutable and safe to share between threads.
+ */
+public class GraphSnapshot {
+
+    private static final int MAGIC = 0x47465754; // "TWFG" in little-endian
+    private static final int VERSION = 1;
+    private static final int HEADER = 64;
+    private static final int HEADER_CHECKED = 56;
+
+    private final ByteBuffer file;
+    private final int users;
+    private final int edges;
+    private final IntBuffer nameOffsets;
+    private final int namesAt;
+    private final IntBuffer outOffsets;
+    private final IntBuffer outTargets;
+    private final IntBuffer inOffsets;
+    private final IntBuffer inTargets;
+    private final long dictionaryCrc;
+    private final long edgesCrc;
+    // Rep invariant:
+    //   file is read-only and holds a snapshot with a valid header; the
+    //     IntBuffers are views of its sections, with the lengths given in
+    //     the header
+    //   (and, if verify() returns true, the sections are the ones written)
+    //
+    // Abstraction Function:
+    //   represents the social network of the snapshot file: the user with
+    //   id u is the name at bytes [nameOffsets[u], nameOffsets[u+1]) after
+    //   namesAt, and follows the users outTargets[outOffsets[u]..
+    //   outOffsets[u+1]).
+    //
+    // Safety from rep exposure:
+    //   All fields are private; buffers are never returned, and are only
+    //   read with absolute gets.
+    //
+    // Thread safety argument:
+    //   The mapping is read-only and never changes; absolute gets do not
+    //   touch the buffers' positions, and verify() reads through its own
+    //   duplicate.
+
+    // Creator: checks the header of a mapped file.
+    private GraphSnapshot(final ByteBuffer file) throws IOException {
+        if (file.capacity() < HEADER || file.getInt(0) != MAGIC) {
+            throw new IOException("not a follows graph snapshot");
+        }
+        if (file.getInt(4) != VERSION) {
+            throw new IOException("unsupported snapshot version " + file.getInt(4));
+        }
+        final ByteBuffer header = file.duplicate();
+        header.position(0).limit(HEADER_CHECKED);
+        if (crc(header) != file.getLong(HEADER_CHECKED)) {
+            throw new IOException("corrupt snapshot header");
+        }
+        this.file = file;
+        this.users = file.getInt(8);
+        this.edges = file.getInt(12);
+        final long nameBytes = file.getLong(16);
+        this.dictionaryCrc = file.getLong(24);
+        this.edgesCrc = file.getLong(32);
+
+        final long namesAt = HEADER + 4L * (users + 1);
+        final long outAt = align(namesAt + nameBytes);
+        final long end = outAt + 8L * (users + 1) + 8L * edges;
+        if (users < 0 || edges < 0 || nameBytes < 0 || end != file.capacity()) {
+            throw new IOException("truncated or corrupt snapshot");
+        }
+        this.namesAt = (int) namesAt;
+        this.nameOffsets = ints(file, HEADER, users + 1);
+        this.outOffsets = ints(file, outAt, users + 1);
+        this.outTargets = ints(file, outAt + 4L * (users + 1), edges);
+        this.inOffsets = ints(file, outAt + 4L * (users + 1) + 4L * edges, users + 1);
+        this.inTargets = ints(file, outAt + 8L * (users + 1) + 4L * edges, edges);
+    }
+
+    private static IntBuffer ints(final ByteBuffer file, final long at, final int count) {
+        final ByteBuffer section = file.duplicate();
+        section.position((int) at).limit((int) (at + 4L * count));
+        return section.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+
+    private static long align(final long position) {
+        return (position + 3) & ~3L;
+    }
+
+    private static long crc(final ByteBuffer bytes) {
+        final CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+
+    /**
+     * Map a snapshot file written by write(). Only the header is read.
+     *
+     * @param path
+     *            the snapshot file.
+     * @return the snapshot.
+     * @throws IOException
+     *             if the file cannot be read, or is not a valid snapshot.
+     */
+    public static GraphSnapshot open(final Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("snapshot larger than 2 GiB");
+            }
+            // the mapping stays valid after the channel is closed
+            final MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new GraphSnapshot(mapped.order(ByteOrder.LITTLE_ENDIAN));
+        }
+    }
+
+    /**
+     * Write a social network as a snapshot file. The file is written next to
+     * path and then renamed over it, so a reader never maps a half-written
+     * snapshot.
+     *
+     * @param followsGraph
+     *            a social network (as defined in SocialNetwork), not modified
+     *            by this method.
+     * @param path
+     *            the snapshot file to create or replace.
+     * @throws IOException
+     *             if the file cannot be written.
+     */
+    public static void write(final Map<String, Set<String>> followsGraph, final Path path) throws IOException {
+        write(FollowsGraph.fromMap(followsGraph), path);
+    }
+
+    /**
+     * Write a graph as a snapshot file, as write(Map, Path) does.
+     *
+     * @param graph
+     *            a social network.
+     * @param path
+     *            the snapshot file to create or replace.
+     * @throws IOException
+     *             if the file cannot be written.
+     */
+    public static void write(final FollowsGraph graph, final Path path) throws IOException {
+        final int n = graph.userCount();
+        final int m = graph.edgeCount();
+
+        // renumber users in unsigned byte order of their UTF-8 names
+        final byte[][] names = new byte[n][];
+        final Integer[] order = new Integer[n];
+        for (int u = 0; u < n; ++u) {
+            names[u] = graph.username(u).getBytes(StandardCharsets.UTF_8);
+            order[u] = u;
+        }
+        Arrays.sort(order, (a, b) -> compareUnsigned(names[a], names[b]));
+        final int[] newId = new int[n];
+        for (int u = 0; u < n; ++u) {
+            newId[order[u]] = u;
+        }
+
+        final int[] outOffsets = new int[n + 1];
+        final int[] outTargets = new int[m];
+        for (int u = 0; u < n; ++u) {
+            final int old = order[u];
+            int next = outOffsets[u];
+            for (int i = graph.outStart(old); i < graph.outEnd(old); ++i) {
+                outTargets[next++] = newId[graph.outTarget(i)];
+            }
+            Arrays.sort(outTargets, outOffsets[u], next);
+            outOffsets[u + 1] = next;
+        }
+        final int[] inOffsets = new int[n + 1];
+        for (int target : outTargets) {
+            ++inOffsets[target + 1];
+        }
+        for (int v = 0; v < n; ++v) {
+            inOffsets[v + 1] += inOffsets[v];
+        }
+        // sources are visited in increasing order, so every row comes out sorted
+        final int[] inTargets = new int[m];
+        final int[] fill = Arrays.copyOf(inOffsets, n);
+        for (int u = 0; u < n; ++u) {
+            for (int i = outOffsets[u]; i < outOffsets[u + 1]; ++i) {
+                inTargets[fill[outTargets[i]]++] = u;
+            }
+        }
+
+        final Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                final Output out = new Output(channel);
+                out.position(HEADER);
+
+                out.startSection();
+                long nameBytes = 0;
+                out.putInt(0);
+                for (int u = 0; u < n; ++u) {
+                    nameBytes += names[order[u]].length;
+                    if (nameBytes > Integer.MAX_VALUE) {
+                        throw new IOException("snapshot larger than 2 GiB");
+                    }
+                    out.putInt((int) nameBytes);
+                }
+                for (int u = 0; u < n; ++u) {
+                    out.putBytes(names[order[u]]);
+                }
+                out.putBytes(new byte[(int) (align(nameBytes) - nameBytes)]);
+                final long dictionaryCrc = out.endSection();
+
+                out.startSection();
+                out.putInts(outOffsets);
+                out.putInts(outTargets);
+                out.putInts(inOffsets);
+                out.putInts(inTargets);
+                final long edgesCrc = out.endSection();
+                if (out.size() > Integer.MAX_VALUE) {
+                    throw new IOException("snapshot larger than 2 GiB");
+                }
+
+                final ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(m)
+                        .putLong(nameBytes).putLong(dictionaryCrc).putLong(edgesCrc);
+                header.position(0).limit(HEADER_CHECKED);
+                final long headerCrc = crc(header);
+                header.limit(HEADER);
+                header.putLong(HEADER_CHECKED, headerCrc);
+                header.position(0);
+                out.writeAt(0, header);
+                channel.force(true);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    private static int compareUnsigned(final byte[] a, final byte[] b) {
+        final int length = Math.min(a.length, b.length);
+        for (int i = 0; i < length; ++i) {
+            final int d = (a[i] & 0xff) - (b[i] & 0xff);
+            if (d != 0) {
+                return d;
+            }
+        }
+        return a.length - b.length;
+    }
+
+    /*
+     * Output writes a file sequentially through a direct buffer, keeping a
+     * CRC-32 of the current section.
+     */
+    private static class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        private long size;
+        private CRC32 crc;
+
+        Output(final FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void position(final long position) throws IOException {
+            flush();
+            channel.position(position);
+            size = position;
+        }
+
+        void startSection() throws IOException {
+            flush();
+            crc = new CRC32();
+        }
+
+        long endSection() throws IOException {
+            flush();
+            final long value = crc.getValue();
+            crc = null;
+            return value;
+        }
+
+        void putInt(final int value) throws IOException {
+            if (buffer.remaining() < 4) {
+                flush();
+            }
+            buffer.putInt(value);
+        }
+
+        void putInts(final int[] values) throws IOException {
+            for (int value : values) {
+                putInt(value);
+            }
+        }
+
+        void putBytes(final byte[] bytes) throws IOException {
+            int from = 0;
+            while (from < bytes.length) {
+                if (!buffer.hasRemaining()) {
+                    flush();
+                }
+                final int length = Math.min(buffer.remaining(), bytes.length - from);
+                buffer.put(bytes, from, length);
+                from += length;
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            if (crc != null) {
+                crc.update(buffer.duplicate());
+            }
+            size += buffer.remaining();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        long size() throws IOException {
+            flush();
+            return size;
+        }
+
+        void writeAt(final long position, final ByteBuffer bytes) throws IOException {
+            flush();
+            long at = position;
+            while (bytes.hasRemaining()) {
+                at += channel.write(bytes, at);
+            }
+        }
+    }
+
+    /**
+     * Check the dictionary and edge checksums; reads the whole file.
+     *
+     * @return true iff the dictionary and edges are the ones written.
+     */
+    public boolean verify() {
+        final ByteBuffer dictionary = file.duplicate();
+        dictionary.position(HEADER).limit(outAt());
+        final ByteBuffer edgeSection = file.duplicate();
+        edgeSection.position(outAt()).limit(file.capacity());
+        return crc(dictionary) == dictionaryCrc && crc(edgeSection) == edgesCrc;
+    }
+
+    private int outAt() {
+        return (int) align(namesAt + (long) nameOffsets.get(users));
+    }
+
+    /**
+     * @return number of users in the graph.
+     */
+    public int userCount() {
+        return users;
+    }
+
+    /**
+     * @return number of follows edges in the graph.
+     */
+    public int edgeCount() {
+        return edges;
+    }
+
+    /**
+     * @param username
+     *            a Twitter username, case-insensitive.
+     * @return the id of username, or -1 if it is not in the graph;
+     *         O(log userCount()) without decoding any name.
+     */
+    public int id(final String username) {
+        final byte[] key = username.toLowerCase().getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = users - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int c = compareName(mid, key);
+            if (c < 0) {
+                low = mid + 1;
+            } else if (c > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    // compare the name of id with key, in unsigned byte order.
+    private int compareName(final int id, final byte[] key) {
+        final int start = namesAt + nameOffsets.get(id);
+        final int length = nameOffsets.get(id + 1) - nameOffsets.get(id);
+        final int common = Math.min(length, key.length);
+        for (int i = 0; i < common; ++i) {
+            final int d = (file.get(start + i) & 0xff) - (key[i] & 0xff);
+            if (d != 0) {
+                return d;
+            }
+        }
+        return length - key.length;
+    }
+
+    /**
+     * @param id
+     *            a user id, 0 <= id < userCount().
+     * @return the lower case username of that user.
+     */
+    public String username(final int id) {
+        final int start = nameOffsets.get(id);
+        final byte[] bytes = new byte[nameOffsets.get(id + 1) - start];
+        for (int i = 0; i < bytes.length; ++i) {
+            bytes[i] = file.get(namesAt + start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param id
+     *            a user id.
+     * @return index of the first user followed by id, see outTarget().
+     */
+    public int outStart(final int id) {
+        return outOffsets.get(id);
+    }
+
+    /**
+     * @param id
+     *            a user id.
+     * @return index just past the last user followed by id.
+     */
+    public int outEnd(final int id) {
+        return outOffsets.get(id + 1);
+    }
+
+    /**
+     * @param index
+     *            an index between outStart(u) and outEnd(u) of some user u.
+     * @return id of a user that u follows; ids of one row are increasing.
+     */
+    public int outTarget(final int index) {
+        return outTargets.get(index);
+    }
+
+    /**
+     * @param id
+     *            a user id.
+     * @return number of users that id follows.
+     */
+    public int outDegree(final int id) {
+        return outOffsets.get(id + 1) - outOffsets.get(id);
+    }
+
+    /**
+     * @param id
+     *            a user id.
+     * @return index of the first follower of id, see inSource().
+     */
+    public int inStart(final int id) {
+        return inOffsets.get(id);
+    }
+
+    /**
+     * @param id
+     *            a user id.
+     * @return index just past the last follower of id.
+     */
+    public int inEnd(final int id) {
+        return inOffsets.get(id + 1);
+    }
+
+    /**
+     * @param index
+     *            an index between inStart(v) and inEnd(v) of some user v.
+     * @return id of a user that follows v; ids of one row are increasing.
+     */
+    public int inSource(final int index) {
+        return inTargets.get(index);
+    }
+
+    /**
+     * @param id
+     *            a user id.
+     * @return number of followers of id.
+     */
+    public int inDegree(final int id) {
+        return inOffsets.get(id + 1) - inOffsets.get(id);
+    }
+
+    /**
+     * @param follower
+     *            a user id.
+     * @param followed
+     *            a user id.
+     * @return true iff follower follows followed; O(log outDegree(follower)).
+     */
+    public boolean follows(final int follower, final int followed) {
+        int low = outOffsets.get(follower);
+        int high = outOffsets.get(follower + 1) - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int target = outTargets.get(mid);
+            if (target < followed) {
+                low = mid + 1;
+            } else if (target > followed) {
+                high = mid - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Find the k people in the snapshot who have the most followers, reading
+     * only the follower offsets and k names.
+     *
+     * @param k
+     *            maximum number of usernames to return, k >= 0.
+     * @return the same list as SocialNetwork.influencers(graph, k) for the
+     *         graph that was written, if all usernames are ASCII (ties are
+     *         broken in UTF-8 byte order of the names).
+     */
+    public List<String> influencers(final int k) {
+        final int[] counts = new int[users];
+        for (int v = 0; v < users; ++v) {
+            counts[v] = inDegree(v);
+        }
+        // ids are in name order, so ties are broken by id
+        final int[] best = TopK.select(users, k, (a, b) -> counts[a] != counts[b]
+                ? Integer.compare(counts[b], counts[a])
+                : Integer.compare(a, b));
+        final String[] names = new String[users];
+        for (int id : best) {
+            names[id] = username(id);
+        }
+        return TopK.names(best, names);
+    }
+
+    /**
+     * @return a new FollowsGraph holding the whole snapshot; reads the whole
+     *         file.
+     */
+    public FollowsGraph toFollowsGraph() {
+        final String[] names = new String[users];
+        final Map<String, Integer> ids = new HashMap<String, Integer>();
+        for (int u = 0; u < users; ++u) {
+            names[u] = username(u);
+            ids.put(names[u], u);
+        }
+        final int[] offsets = new int[users + 1];
+        final int[] targets = new int[edges];
+        outOffsets.duplicate().get(offsets);
+        outTargets.duplicate().get(targets);
+        return new FollowsGraph(names, ids, offsets, targets);
+    }
+}
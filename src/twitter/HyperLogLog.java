@@ -0,0 +1,208 @@
+package twitter;
+
+import java.util.List;
+
+/**
+ * HyperLogLog estimates the number of distinct Twitter usernames it has seen
+ * in a few kilobytes of memory (Flajolet, Fusy, Gandouet and Meunier, 2007).
+ *
+ * A sketch with precision p keeps 2^p one-byte registers and has a relative
+ * standard error of about 1.04 / sqrt(2^p), e.g. 0.8% with p = 14 (16 KB).
+ * Usernames are case-insensitive, so "ernie" and "ERNie" count once.
+ *
+ * Sketches built with the same precision on different partitions of the data
+ * can be merged; the merged sketch estimates the size of the union. This is
+ * how distinct mentioned users, distinct authors and the distinct users among
+ * both are counted from one pass:
+ *
+ *     HyperLogLog mentioned = new HyperLogLog(14), authors = new HyperLogLog(14);
+ *     mentioned.addMentions(tweets);
+ *     authors.addAuthors(tweets);
+ *     long everyone = mentioned.union(authors).estimate();
+ *
+ * Mentions are found with the rules of Extract.getMentionedNamesFromOneTweet().
+ * A HyperLogLog is mutable and must not be shared between threads.
+ */
+public class HyperLogLog {
+
+    /** smallest supported precision. */
+    public static final int MIN_PRECISION = 4;
+    /** largest supported precision. */
+    public static final int MAX_PRECISION = 18;
+
+    private final int precision;
+    private final byte[] registers;
+    private final MentionScanner scanner = new MentionScanner("");
+    // Rep invariant:
+    //   MIN_PRECISION <= precision <= MAX_PRECISION
+    //   registers.length == 2^precision
+    //   0 <= registers[i] <= 64 - precision + 1
+    //
+    // Abstraction Function:
+    //   represents a multiset of usernames through, for each of the 2^precision
+    //   buckets a username can hash to, the largest position of the first 1 bit
+    //   among the remaining hash bits of the usernames seen in that bucket.
+    //
+    // Safety from rep exposure:
+    //   All fields are private and never returned.
+
+    // Creator:
+    public HyperLogLog(final int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("precision must be between "
+                    + MIN_PRECISION + " and " + MAX_PRECISION);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * @return the precision this sketch was created with.
+     */
+    public int precision() {
+        return precision;
+    }
+
+    /**
+     * Add a username to the sketch.
+     *
+     * @param username
+     *            a Twitter username.
+     */
+    public void add(final CharSequence username) {
+        addHash(hash(username, 0, username.length()));
+    }
+
+    /**
+     * Add every user mentioned in a tweet to the sketch.
+     *
+     * @param tweet
+     *            a tweet, not modified by this method.
+     */
+    public void addMentions(final Tweet tweet) {
+        final String text = tweet.getText();
+        scanner.reset(text);
+        while (scanner.find()) {
+            addHash(hash(text, scanner.start(), scanner.end()));
+        }
+    }
+
+    /**
+     * Add every user mentioned in a list of tweets to the sketch.
+     *
+     * @param tweets
+     *            a list of tweets, not modified by this method.
+     */
+    public void addMentions(final List<Tweet> tweets) {
+        for (Tweet t : tweets) {
+            addMentions(t);
+        }
+    }
+
+    /**
+     * Add the author of every tweet in a list to the sketch.
+     *
+     * @param tweets
+     *            a list of tweets, not modified by this method.
+     */
+    public void addAuthors(final List<Tweet> tweets) {
+        for (Tweet t : tweets) {
+            add(t.getAuthor());
+        }
+    }
+
+    private void addHash(final long hash) {
+        final int bucket = (int) (hash >>> (64 - precision));
+        final long rest = hash << precision;
+        // rank of the first 1 bit; an all-zero remainder gets the largest rank.
+        final int rank = Math.min(Long.numberOfLeadingZeros(rest), 64 - precision) + 1;
+        if (rank > registers[bucket]) {
+            registers[bucket] = (byte) rank;
+        }
+    }
+
+    /**
+     * Fold another sketch into this one, so that this sketch estimates the
+     * union of both.
+     *
+     * @param that
+     *            a sketch with the same precision, not modified by this method.
+     */
+    public void merge(final HyperLogLog that) {
+        if (that.precision != precision) {
+            throw new IllegalArgumentException("cannot merge sketches of different precision");
+        }
+        for (int i = 0; i < registers.length; ++i) {
+            if (that.registers[i] > registers[i]) {
+                registers[i] = that.registers[i];
+            }
+        }
+    }
+
+    /**
+     * @param that
+     *            a sketch with the same precision, not modified by this method.
+     * @return a new sketch of the union of this and that; neither is modified.
+     */
+    public HyperLogLog union(final HyperLogLog that) {
+        final HyperLogLog union = new HyperLogLog(precision);
+        union.merge(this);
+        union.merge(that);
+        return union;
+    }
+
+    /**
+     * @return estimated number of distinct usernames added to this sketch (or
+     *         to any sketch merged into it).
+     */
+    public long estimate() {
+        final int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                ++zeros;
+            }
+        }
+
+        final double alpha;
+        if (m == 16) {
+            alpha = 0.673;
+        } else if (m == 32) {
+            alpha = 0.697;
+        } else if (m == 64) {
+            alpha = 0.709;
+        } else {
+            alpha = 0.7213 / (1 + 1.079 / m);
+        }
+        final double raw = alpha * m * m / sum;
+
+        // small cardinalities leave empty buckets; linear counting is more
+        // accurate there. A 64 bit hash needs no large range correction.
+        if (raw <= 2.5 * m && zeros > 0) {
+            return Math.round(m * Math.log((double) m / zeros));
+        }
+        return Math.round(raw);
+    }
+
+    /*
+     * @return a well mixed 64 bit hash of the lower case form of s[start..end).
+     */
+    private static long hash(final CharSequence s, final int start, final int end) {
+        // FNV-1a over the folded characters ...
+        long h = 0xcbf29ce484222325L;
+        for (int i = start; i < end; ++i) {
+            h ^= MentionScanner.foldChar(s.charAt(i));
+            h *= 0x100000001b3L;
+        }
+        // ... followed by the MurmurHash3 finalizer, so every bit of the
+        // bucket index and the rank depends on every character.
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,75 @@
+package twitter;
+
+import java.util.Arrays;
+
+/**
+ * IntList is a growable array of primitive ints, used for posting lists and
+ * adjacency lists where a List<Integer> would box every element.
+ *
+ * An IntList is mutable and must not be shared between threads while it is
+ * being modified.
+ */
+class IntList {
+
+    private int[] elements;
+    private int size;
+    // Rep invariant:
+    //   0 <= size <= elements.length
+    //
+    // Abstraction Function:
+    //   represents the sequence elements[0..size).
+    //
+    // Safety from rep exposure:
+    //   All fields are private; toArray() returns a copy.
+
+    // Creator:
+    IntList() {
+        this(4);
+    }
+
+    // Creator:
+    IntList(final int capacity) {
+        elements = new int[Math.max(capacity, 1)];
+    }
+
+    // Mutator: append value at the end.
+    void add(final int value) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size * 2);
+        }
+        elements[size++] = value;
+    }
+
+    // Observer:
+    int get(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        }
+        return elements[index];
+    }
+
+    // Mutator: remove all elements, keeping the capacity.
+    void clear() {
+        size = 0;
+    }
+
+    // Observer:
+    int size() {
+        return size;
+    }
+
+    // Observer:
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Observer: the last element; requires a non-empty list.
+    int last() {
+        return get(size - 1);
+    }
+
+    // Observer: a copy of the elements.
+    int[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+}
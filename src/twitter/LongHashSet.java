@@ -0,0 +1,98 @@
+package twitter;
+
+import java.util.Arrays;
+
+/**
+ * LongHashSet is an open-addressing hash set of primitive longs, used for
+ * sets of packed (follower, followed) edges where a HashSet<Long> would box
+ * every element.
+ *
+ * A LongHashSet is mutable and not thread-safe.
+ */
+class LongHashSet {
+
+    private static final long FREE = Long.MIN_VALUE;
+
+    private long[] slots;
+    private int size;
+    private boolean containsFree;
+    // Rep invariant:
+    //   slots.length is a power of two, more than twice size
+    //   every element other than FREE is stored in a slot that its linear
+    //     probe sequence reaches before any FREE slot; FREE itself is
+    //     recorded by containsFree
+    //
+    // Abstraction Function:
+    //   represents the set of the non-FREE values in slots, plus FREE if
+    //   containsFree.
+
+    // Creator:
+    LongHashSet() {
+        slots = new long[16];
+        Arrays.fill(slots, FREE);
+    }
+
+    // Mutator: add value; true iff it was not present.
+    boolean add(final long value) {
+        if (value == FREE) {
+            final boolean added = !containsFree;
+            containsFree = true;
+            size += added ? 1 : 0;
+            return added;
+        }
+        if (2 * (size + 1) > slots.length) {
+            grow();
+        }
+        int slot = slot(value, slots.length);
+        while (slots[slot] != FREE) {
+            if (slots[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & (slots.length - 1);
+        }
+        slots[slot] = value;
+        ++size;
+        return true;
+    }
+
+    // Observer:
+    boolean contains(final long value) {
+        if (value == FREE) {
+            return containsFree;
+        }
+        int slot = slot(value, slots.length);
+        while (slots[slot] != FREE) {
+            if (slots[slot] == value) {
+                return true;
+            }
+            slot = (slot + 1) & (slots.length - 1);
+        }
+        return false;
+    }
+
+    // Observer:
+    int size() {
+        return size;
+    }
+
+    private void grow() {
+        final long[] old = slots;
+        slots = new long[old.length * 2];
+        Arrays.fill(slots, FREE);
+        for (long value : old) {
+            if (value != FREE) {
+                int slot = slot(value, slots.length);
+                while (slots[slot] != FREE) {
+                    slot = (slot + 1) & (slots.length - 1);
+                }
+                slots[slot] = value;
+            }
+        }
+    }
+
+    private static int slot(final long value, final int length) {
+        long h = value * 0x9e3779b97f4a7c15L;
+        h ^= h >>> 32;
+        return (int) h & (length - 1);
+    }
+}
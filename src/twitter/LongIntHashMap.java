@@ -0,0 +1,176 @@
+package twitter;
+
+import java.util.Arrays;
+
+/**
+ * LongIntHashMap is an open-addressing hash map from primitive longs to
+ * ints, used for packed (follower, followed) edges where a
+ * HashMap<Long, Integer> would box every key and value.
+ *
+ * A map is used either for counts (increment() and decrement()), as a
+ * multiset of edges, or for numbering keys (putIfAbsent()). A key whose
+ * count drops to 0 is removed, by shifting later keys of its probe sequence
+ * back, so the table never fills up with deleted slots.
+ *
+ * A LongIntHashMap is mutable and not thread-safe.
+ */
+class LongIntHashMap {
+
+    private static final long FREE = Long.MIN_VALUE;
+
+    private long[] keys;
+    private int[] counts;
+    private int size;
+    // Rep invariant:
+    //   keys.length == counts.length is a power of two, more than twice size
+    //   size == number of non-FREE keys
+    //   every non-FREE key is stored in a slot that its linear probe sequence
+    //     reaches before any FREE slot
+    //
+    // Abstraction Function:
+    //   represents the map from every non-FREE keys[i] to counts[i].
+
+    // Creator:
+    LongIntHashMap() {
+        keys = new long[16];
+        counts = new int[16];
+        Arrays.fill(keys, FREE);
+    }
+
+    // Mutator: add 1 to the count of key, which must not be Long.MIN_VALUE;
+    // returns the new count.
+    int increment(final long key) {
+        if (key == FREE) {
+            throw new IllegalArgumentException("key is Long.MIN_VALUE");
+        }
+        if (2 * (size + 1) > keys.length) {
+            grow();
+        }
+        int slot = slot(key, keys.length);
+        while (keys[slot] != FREE) {
+            if (keys[slot] == key) {
+                return ++counts[slot];
+            }
+            slot = (slot + 1) & (keys.length - 1);
+        }
+        keys[slot] = key;
+        counts[slot] = 1;
+        ++size;
+        return 1;
+    }
+
+    // Mutator: map key, which must not be Long.MIN_VALUE, to value unless it
+    // is already present; returns the value key maps to afterwards.
+    int putIfAbsent(final long key, final int value) {
+        if (key == FREE) {
+            throw new IllegalArgumentException("key is Long.MIN_VALUE");
+        }
+        if (2 * (size + 1) > keys.length) {
+            grow();
+        }
+        int slot = slot(key, keys.length);
+        while (keys[slot] != FREE) {
+            if (keys[slot] == key) {
+                return counts[slot];
+            }
+            slot = (slot + 1) & (keys.length - 1);
+        }
+        keys[slot] = key;
+        counts[slot] = value;
+        ++size;
+        return value;
+    }
+
+    // Mutator: subtract 1 from the count of key, removing it at 0; returns the
+    // new count, or -1 if key was not present.
+    int decrement(final long key) {
+        final int mask = keys.length - 1;
+        int slot = find(key);
+        if (slot < 0) {
+            return -1;
+        }
+        if (--counts[slot] > 0) {
+            return counts[slot];
+        }
+        // backward shift: move up every later key whose home slot allows it
+        --size;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            if (keys[next] == FREE) {
+                break;
+            }
+            final int home = slot(keys[next], keys.length);
+            // keys[next] may fill the hole unless its home is cyclically in (slot, next]
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                keys[slot] = keys[next];
+                counts[slot] = counts[next];
+                slot = next;
+            }
+        }
+        keys[slot] = FREE;
+        counts[slot] = 0;
+        return 0;
+    }
+
+    // Observer: the value of key, 0 if absent.
+    int get(final long key) {
+        final int slot = find(key);
+        return slot < 0 ? 0 : counts[slot];
+    }
+
+    // Observer:
+    int size() {
+        return size;
+    }
+
+    // Producer: a new array of the keys, in no particular order.
+    long[] keys() {
+        final long[] result = new long[size];
+        int i = 0;
+        for (long key : keys) {
+            if (key != FREE) {
+                result[i++] = key;
+            }
+        }
+        return result;
+    }
+
+    private int find(final long key) {
+        if (key == FREE) {
+            return -1;
+        }
+        int slot = slot(key, keys.length);
+        while (keys[slot] != FREE) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & (keys.length - 1);
+        }
+        return -1;
+    }
+
+    private void grow() {
+        final long[] oldKeys = keys;
+        final int[] oldCounts = counts;
+        keys = new long[oldKeys.length * 2];
+        counts = new int[oldKeys.length * 2];
+        Arrays.fill(keys, FREE);
+        for (int i = 0; i < oldKeys.length; ++i) {
+            if (oldKeys[i] != FREE) {
+                int slot = slot(oldKeys[i], keys.length);
+                while (keys[slot] != FREE) {
+                    slot = (slot + 1) & (keys.length - 1);
+                }
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+
+    private static int slot(final long key, final int length) {
+        long h = key * 0x9e3779b97f4a7c15L;
+        h ^= h >>> 32;
+        return (int) h & (length - 1);
+    }
+}
@@ -0,0 +1,739 @@
+package twitter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * MappedTweetStore is a corpus of tweets kept in files outside the Java heap
+ * and memory-mapped, so that the heap it needs does not grow with the number
+ * of tweets (only with the number of distinct authors), the garbage collector
+ * never scans it, and a restarted process can use it again right away.
+ *
+ * A store is a directory of three files, all little-endian:
+ *
+ *   tweets.rec: a 64 byte header, then one 32 byte record per tweet: id,
+ *       timestamp in nanoseconds since the epoch, text offset, author id,
+ *       and text length with the top bit set if the text is not ASCII. The
+ *       header holds, at these byte offsets: 0 magic "TWTS", 4 version,
+ *       8 log2 of the chunk size, 12 author count (ints), 16 tweet count,
+ *       24 text length, 32 dictionary length (longs); the rest is zero
+ *   tweets.txt: the UTF-8 texts, padded so none crosses a chunk boundary
+ *   authors.dict: the distinct author strings, each as a length and UTF-8
+ *
+ * The files are mapped in chunks of 1 GiB, since one mapping holds at most
+ * 2 GiB. A Writer appends tweets; its flush() makes them durable and then
+ * commits them by rewriting the header, so a crash leaves the store as of the
+ * last flush. open() maps the committed tweets. Timestamps must lie between
+ * the years 1677 and 2262, and a text must fit in a chunk.
+ *
+ * tweets() shows the store as a List<Tweet> of flyweights, so Extract, Filter
+ * and SocialNetwork work on it unchanged; writtenBy(), inTimespan() and
+ * containing() scan the mapped records and texts directly.
+ *
+ * A MappedTweetStore is immutable (it does not see tweets committed after it
+ * was opened) and safe to share between threads.
+ */
+public class MappedTweetStore {
+
+    static final String RECORDS = "tweets.rec";
+    static final String TEXTS = "tweets.txt";
+    static final String AUTHORS = "authors.dict";
+
+    private static final int MAGIC = 0x53545754; // "TWTS" in little-endian
+    private static final int VERSION = 1;
+    private static final int HEADER = 64;
+    private static final int RECORD = 32;
+    private static final int NON_ASCII = 0x80000000;
+    private static final int DEFAULT_CHUNK_BITS = 30;
+
+    private final int chunkBits;
+    private final int size;
+    private final ByteBuffer[] records;
+    private final ByteBuffer[] texts;
+    private final String[] authorNames;
+    private final Map<String, IntList> foldedAuthors = new HashMap<String, IntList>();
+    // Rep invariant:
+    //   records[k] and texts[k] are read-only little-endian mappings of
+    //     bytes [k << chunkBits, (k + 1) << chunkBits) of their files, the
+    //     last one cut at the committed length
+    //   the record of tweet i, 0 <= i < size, starts at file position
+    //     HEADER + RECORD * i, within one chunk; its text, if not empty,
+    //     lies within one chunk of the text file (an empty text may start
+    //     at the end of the file, past the last chunk)
+    //   author ids of the records are < authorNames.length; foldedAuthors
+    //     maps a folded name to the ids of the author names with that fold
+    //
+    // Abstraction Function:
+    //   represents the tweets of the records 0..size-1, with the author
+    //   names of authorNames and the texts of the text file.
+    //
+    // Safety from rep exposure:
+    //   All fields are private; buffers are only read with absolute gets and
+    //   never returned.
+    //
+    // Thread safety argument:
+    //   The mappings are read-only and never change; all reads are absolute
+    //   gets, which do not touch the buffers' positions; the other fields are
+    //   not mutated after construction.
+
+    // Creator: maps a store directory.
+    private MappedTweetStore(final Path directory) throws IOException {
+        try (FileChannel recordFile = FileChannel.open(directory.resolve(RECORDS), StandardOpenOption.READ);
+                FileChannel textFile = FileChannel.open(directory.resolve(TEXTS), StandardOpenOption.READ);
+                FileChannel authorFile = FileChannel.open(directory.resolve(AUTHORS), StandardOpenOption.READ)) {
+            final Header header = Header.read(recordFile);
+            if (header.count > Integer.MAX_VALUE) {
+                throw new IOException("store has more than 2^31 - 1 tweets");
+            }
+            header.checkSizes(recordFile, textFile, authorFile);
+            this.chunkBits = header.chunkBits;
+            this.size = (int) header.count;
+            this.records = map(recordFile, header.recordBytes(), chunkBits);
+            this.texts = map(textFile, header.textBytes, chunkBits);
+            this.authorNames = readAuthors(authorFile, header.authorCount, header.authorBytes);
+        }
+        for (int a = 0; a < authorNames.length; ++a) {
+            foldedAuthors.computeIfAbsent(fold(authorNames[a]), key -> new IntList(1)).add(a);
+        }
+    }
+
+    private static ByteBuffer[] map(final FileChannel channel, final long length, final int chunkBits)
+            throws IOException {
+        final long chunk = 1L << chunkBits;
+        final ByteBuffer[] chunks = new ByteBuffer[(int) ((length + chunk - 1) >>> chunkBits)];
+        for (int k = 0; k < chunks.length; ++k) {
+            final long start = (long) k << chunkBits;
+            // the mappings stay valid after the channel is closed
+            chunks[k] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(chunk, length - start))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return chunks;
+    }
+
+    private static String[] readAuthors(final FileChannel channel, final int count, final long length)
+            throws IOException {
+        final ByteBuffer bytes = ByteBuffer.allocate((int) length).order(ByteOrder.LITTLE_ENDIAN);
+        while (bytes.hasRemaining() && channel.read(bytes, bytes.position()) >= 0) {
+            // read until full
+        }
+        bytes.flip();
+        final String[] names = new String[count];
+        for (int a = 0; a < count; ++a) {
+            final int nameLength = bytes.remaining() < 4 ? -1 : bytes.getInt();
+            if (nameLength < 0 || nameLength > bytes.remaining()) {
+                throw new IOException("corrupt author dictionary");
+            }
+            final byte[] name = new byte[nameLength];
+            bytes.get(name);
+            names[a] = new String(name, StandardCharsets.UTF_8);
+        }
+        return names;
+    }
+
+    // author folded so that two names are equal iff equalsIgnoreCase.
+    private static String fold(final String name) {
+        final char[] chars = new char[name.length()];
+        for (int i = 0; i < chars.length; ++i) {
+            chars[i] = WordMatcher.fold(name.charAt(i));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Map the tweets committed to a store directory.
+     *
+     * @param directory
+     *            a directory written by a Writer.
+     * @return the store.
+     * @throws IOException
+     *             if the files cannot be read or are not a valid store.
+     */
+    public static MappedTweetStore open(final Path directory) throws IOException {
+        return new MappedTweetStore(directory);
+    }
+
+    /**
+     * @return number of tweets in the store.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return number of distinct author strings in the store.
+     */
+    public int authorCount() {
+        return authorNames.length;
+    }
+
+    // the chunk holding the record of tweet i, and its position in it.
+    private ByteBuffer record(final int i) {
+        return records[(int) ((HEADER + (long) RECORD * i) >>> chunkBits)];
+    }
+
+    private int at(final int i) {
+        return (int) ((HEADER + (long) RECORD * i) & ((1L << chunkBits) - 1));
+    }
+
+    // position of the first record in records chunk k; the scans walk the
+    // records chunk by chunk, and a record never crosses a chunk.
+    private static int firstRecord(final int k) {
+        return k == 0 ? HEADER : 0;
+    }
+
+    private long id(final int i) {
+        return record(i).getLong(at(i));
+    }
+
+    private long nanos(final int i) {
+        return record(i).getLong(at(i) + 8);
+    }
+
+    private String author(final int i) {
+        return authorNames[record(i).getInt(at(i) + 24)];
+    }
+
+    private String text(final int i) {
+        final ByteBuffer record = record(i);
+        final int at = at(i);
+        final long offset = record.getLong(at + 16);
+        final int length = record.getInt(at + 28) & ~NON_ASCII;
+        if (length == 0) {
+            return ""; // its offset may be the end of the last chunk
+        }
+        final ByteBuffer chunk = texts[(int) (offset >>> chunkBits)];
+        final int start = (int) (offset & ((1L << chunkBits) - 1));
+        final byte[] bytes = new byte[length];
+        for (int b = 0; b < length; ++b) {
+            bytes[b] = chunk.get(start + b);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Instant instant(final long nanos) {
+        return Instant.ofEpochSecond(Math.floorDiv(nanos, 1000000000L), Math.floorMod(nanos, 1000000000L));
+    }
+
+    /**
+     * @return a read-only view of the store as a list. Its elements are
+     *         flyweights that read the mapped files.
+     */
+    public List<Tweet> tweets() {
+        return new View(null);
+    }
+
+    /**
+     * Find tweets written by a particular user, as Filter.writtenBy() does.
+     *
+     * @param username
+     *            Twitter username.
+     * @return all and only the stored tweets whose author is username,
+     *         ignoring case, in store order.
+     */
+    public List<Tweet> writtenBy(final String username) {
+        final IntList candidates = foldedAuthors.get(fold(username));
+        final IntList found = new IntList();
+        if (candidates == null) {
+            return new View(found);
+        }
+        final boolean[] wanted = new boolean[authorNames.length];
+        for (int c = 0; c < candidates.size(); ++c) {
+            final int a = candidates.get(c);
+            wanted[a] = authorNames[a].equalsIgnoreCase(username);
+        }
+        int i = 0;
+        for (int k = 0; k < records.length; ++k) {
+            final ByteBuffer chunk = records[k];
+            for (int at = firstRecord(k); at < chunk.limit(); at += RECORD, ++i) {
+                if (wanted[chunk.getInt(at + 24)]) {
+                    found.add(i);
+                }
+            }
+        }
+        return new View(found);
+    }
+
+    /**
+     * Find tweets that were sent during a particular timespan, as
+     * Filter.inTimespan() does.
+     *
+     * @param timespan
+     *            timespan
+     * @return all and only the stored tweets sent during the timespan, in
+     *         store order.
+     */
+    public List<Tweet> inTimespan(final Timespan timespan) {
+        final long start = TimeIndex.nanos(timespan.getStart());
+        final long end = TimeIndex.nanos(timespan.getEnd());
+        final IntList found = new IntList();
+        int i = 0;
+        for (int k = 0; k < records.length; ++k) {
+            final ByteBuffer chunk = records[k];
+            for (int at = firstRecord(k); at < chunk.limit(); at += RECORD, ++i) {
+                final long time = chunk.getLong(at + 8);
+                if (time >= start && time <= end) {
+                    found.add(i);
+                }
+            }
+        }
+        return new View(found);
+    }
+
+    /**
+     * Find tweets that contain certain words, as Filter.containing() does.
+     *
+     * @param words
+     *            a list of words to search for in the tweets.
+     * @return all and only the stored tweets whose text includes at least one
+     *         of the words, compared without regard to case, in store order;
+     *         of several stored tweets with the same id, only the first.
+     */
+    public List<Tweet> containing(final List<String> words) {
+        final WordMatcher matcher = new WordMatcher(words);
+        final IntList found = new IntList();
+        if (matcher.size() == 0) {
+            return new View(found);
+        }
+        final LongHashSet seen = new LongHashSet();
+        final long mask = (1L << chunkBits) - 1;
+        int i = 0;
+        for (int k = 0; k < records.length; ++k) {
+            final ByteBuffer chunk = records[k];
+            for (int at = firstRecord(k); at < chunk.limit(); at += RECORD, ++i) {
+                final int length = chunk.getInt(at + 28);
+                final boolean match;
+                if (length == 0) {
+                    match = false; // no word is in an empty text
+                } else if ((length & NON_ASCII) != 0) {
+                    match = matcher.matches(text(i));
+                } else {
+                    final long offset = chunk.getLong(at + 16);
+                    final int start = (int) (offset & mask);
+                    match = matcher.matchesAscii(texts[(int) (offset >>> chunkBits)], start, start + length);
+                }
+                if (match && seen.add(chunk.getLong(at))) {
+                    found.add(i);
+                }
+            }
+        }
+        return new View(found);
+    }
+
+    /**
+     * Get usernames mentioned in the stored tweets, as
+     * Extract.getMentionedUsers() does, scanning the UTF-8 texts in place.
+     *
+     * @return the set of lower case usernames mentioned in the texts of the
+     *         stored tweets, compared without regard to case.
+     */
+    public Set<String> mentionedUsers() {
+        final UsernameDictionary mentioned = new UsernameDictionary();
+        final Utf8MentionScanner scanner = new Utf8MentionScanner();
+        final long mask = (1L << chunkBits) - 1;
+        for (int k = 0; k < records.length; ++k) {
+            final ByteBuffer chunk = records[k];
+            for (int at = firstRecord(k); at < chunk.limit(); at += RECORD) {
+                final long offset = chunk.getLong(at + 16);
+                final int start = (int) (offset & mask);
+                final int length = chunk.getInt(at + 28) & ~NON_ASCII;
+                if (length == 0) {
+                    continue;
+                }
+                scanner.reset(texts[(int) (offset >>> chunkBits)], start, start + length);
+                while (scanner.find()) {
+                    scanner.mentionId(mentioned);
+                }
+            }
+        }
+        return TweetStore.names(mentioned);
+    }
+
+    /**
+     * @return the smallest timespan containing every stored tweet, as
+     *         Extract.getTimespan() returns it; requires size() > 0.
+     */
+    public Timespan timespan() {
+        if (size == 0) {
+            throw new IllegalArgumentException("store is empty");
+        }
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int k = 0; k < records.length; ++k) {
+            final ByteBuffer chunk = records[k];
+            for (int at = firstRecord(k); at < chunk.limit(); at += RECORD) {
+                final long time = chunk.getLong(at + 8);
+                min = Math.min(min, time);
+                max = Math.max(max, time);
+            }
+        }
+        return new Timespan(instant(min), instant(max));
+    }
+
+    /*
+     * View is a read-only list of stored tweets: all of them if positions is
+     * null, else the ones at positions.
+     */
+    private class View extends AbstractList<Tweet> implements RandomAccess {
+        private final IntList positions;
+
+        View(final IntList positions) {
+            this.positions = positions;
+        }
+
+        @Override public int size() {
+            return positions == null ? MappedTweetStore.this.size : positions.size();
+        }
+
+        @Override public Tweet get(final int index) {
+            if (positions != null) {
+                return new MappedTweet(MappedTweetStore.this, positions.get(index));
+            }
+            if (index < 0 || index >= MappedTweetStore.this.size) {
+                throw new IndexOutOfBoundsException("index " + index + " of " + MappedTweetStore.this.size);
+            }
+            return new MappedTweet(MappedTweetStore.this, index);
+        }
+    }
+
+    /*
+     * MappedTweet is a flyweight Tweet: it keeps the id (for equals and
+     * hashCode) and the shared author string, and reads the text and the
+     * timestamp from the mapped files when asked.
+     */
+    private static class MappedTweet extends Tweet {
+        private final MappedTweetStore store;
+        private final int index;
+
+        MappedTweet(final MappedTweetStore store, final int index) {
+            super(store.id(index), store.author(index), null, null);
+            this.store = store;
+            this.index = index;
+        }
+
+        @Override public String getText() {
+            return store.text(index);
+        }
+
+        @Override public Instant getTimestamp() {
+            return instant(store.nanos(index));
+        }
+    }
+
+    /*
+     * Header is the committed state of a store, kept at the start of the
+     * records file.
+     */
+    private static class Header {
+        private int chunkBits;
+        private long count;
+        private int authorCount;
+        private long textBytes;
+        private long authorBytes;
+
+        static Header read(final FileChannel records) throws IOException {
+            final ByteBuffer bytes = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            while (bytes.hasRemaining() && records.read(bytes, bytes.position()) >= 0) {
+                // read until full or end of file
+            }
+            if (bytes.position() < HEADER || bytes.getInt(0) != MAGIC) {
+                throw new IOException("not a tweet store");
+            }
+            if (bytes.getInt(4) != VERSION) {
+                throw new IOException("unsupported tweet store version " + bytes.getInt(4));
+            }
+            final Header header = new Header();
+            header.chunkBits = bytes.getInt(8);
+            header.count = bytes.getLong(16);
+            header.authorCount = bytes.getInt(12);
+            header.textBytes = bytes.getLong(24);
+            header.authorBytes = bytes.getLong(32);
+            if (header.chunkBits < 10 || header.chunkBits > 30 || header.count < 0 || header.authorCount < 0
+                    || header.textBytes < 0 || header.authorBytes < 0 || header.authorBytes > Integer.MAX_VALUE) {
+                throw new IOException("corrupt tweet store header");
+            }
+            return header;
+        }
+
+        void write(final FileChannel records) throws IOException {
+            final ByteBuffer bytes = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            bytes.putInt(MAGIC).putInt(VERSION).putInt(chunkBits).putInt(authorCount)
+                    .putLong(count).putLong(textBytes).putLong(authorBytes);
+            bytes.clear();
+            long at = 0;
+            while (bytes.hasRemaining()) {
+                at += records.write(bytes, at);
+            }
+        }
+
+        long recordBytes() {
+            return HEADER + RECORD * count;
+        }
+
+        // throws if a file is shorter than the committed state.
+        void checkSizes(final FileChannel records, final FileChannel texts, final FileChannel authors)
+                throws IOException {
+            if (records.size() < recordBytes() || texts.size() < textBytes || authors.size() < authorBytes) {
+                throw new IOException("truncated tweet store");
+            }
+        }
+    }
+
+    /**
+     * Writer appends tweets to a store directory, creating it if needed.
+     * Appended tweets become visible to open() and survive a crash once
+     * flush() or close() returns.
+     *
+     * A Writer is mutable and not thread-safe; a store must have at most one
+     * Writer at a time.
+     */
+    public static class Writer implements Closeable {
+        private final FileChannel recordFile;
+        private final FileChannel textFile;
+        private final FileChannel authorFile;
+        private final Header header;
+        private final Map<String, Integer> authorIds = new HashMap<String, Integer>();
+        private final ByteBuffer recordBuffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        private final ByteBuffer textBuffer = ByteBuffer.allocateDirect(1 << 16);
+        private long recordsWritten;
+        private long textWritten;
+        private long authorsWritten;
+        private final List<String> newAuthors = new ArrayList<String>();
+        // Rep invariant:
+        //   header is the committed state; recordsWritten, textWritten and
+        //     authorsWritten are the file lengths including what is buffered
+        //     or appended since; authorIds holds every author written
+        //
+        // Abstraction Function:
+        //   represents appending to the store in the three files, whose
+        //   tweets are the committed ones followed by the ones appended since.
+        //
+        // Safety from rep exposure:
+        //   All fields are private.
+
+        /**
+         * Open a store directory for appending, creating the directory and
+         * an empty store if there is none. Tweets written but not committed by
+         * an earlier Writer are dropped.
+         *
+         * @param directory
+         *            the store directory.
+         * @throws IOException
+         *             if the files cannot be created or read, or are not a
+         *             valid store.
+         */
+        public Writer(final Path directory) throws IOException {
+            this(directory, DEFAULT_CHUNK_BITS);
+        }
+
+        // Creator: a Writer that makes new stores with chunks of 2^chunkBits bytes.
+        Writer(final Path directory, final int chunkBits) throws IOException {
+            Files.createDirectories(directory);
+            FileChannel records = null;
+            FileChannel texts = null;
+            FileChannel authors = null;
+            try {
+                records = FileChannel.open(directory.resolve(RECORDS), StandardOpenOption.CREATE,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE);
+                texts = FileChannel.open(directory.resolve(TEXTS), StandardOpenOption.CREATE,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE);
+                authors = FileChannel.open(directory.resolve(AUTHORS), StandardOpenOption.CREATE,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE);
+                if (records.size() == 0) {
+                    header = new Header();
+                    header.chunkBits = chunkBits;
+                    header.write(records);
+                } else {
+                    header = Header.read(records);
+                    header.checkSizes(records, texts, authors);
+                    final String[] names = readAuthors(authors, header.authorCount, header.authorBytes);
+                    for (int a = 0; a < names.length; ++a) {
+                        authorIds.put(names[a], a);
+                    }
+                }
+                // drop anything not committed
+                records.truncate(header.recordBytes());
+                texts.truncate(header.textBytes);
+                authors.truncate(header.authorBytes);
+                recordsWritten = header.recordBytes();
+                textWritten = header.textBytes;
+                authorsWritten = header.authorBytes;
+                records.position(recordsWritten);
+                texts.position(textWritten);
+                authors.position(authorsWritten);
+            } catch (IOException | RuntimeException e) {
+                for (FileChannel channel : new FileChannel[] {records, texts, authors}) {
+                    if (channel != null) {
+                        try {
+                            channel.close();
+                        } catch (IOException suppressed) {
+                            e.addSuppressed(suppressed);
+                        }
+                    }
+                }
+                throw e;
+            }
+            recordFile = records;
+            textFile = texts;
+            authorFile = authors;
+        }
+
+        /**
+         * Append a tweet to the store.
+         *
+         * @param tweet
+         *            tweet to add; its timestamp must be between the years 1677
+         *            and 2262.
+         * @throws IOException
+         *             if the files cannot be written.
+         */
+        public void append(final Tweet tweet) throws IOException {
+            final long time = TimeIndex.nanos(tweet.getTimestamp());
+            if (time == Long.MIN_VALUE || time == Long.MAX_VALUE) {
+                throw new IllegalArgumentException("timestamp out of range: " + tweet.getTimestamp());
+            }
+            final byte[] text = tweet.getText().getBytes(StandardCharsets.UTF_8);
+            final long chunk = 1L << header.chunkBits;
+            if (text.length > chunk) {
+                throw new IllegalArgumentException("text longer than a chunk");
+            }
+            final long used = textWritten & (chunk - 1);
+            if (used + text.length > chunk) {
+                // start the text at the next chunk, so no text crosses one
+                putText(new byte[(int) (chunk - used)]);
+            }
+            final long offset = textWritten;
+            putText(text);
+
+            boolean ascii = true;
+            for (byte b : text) {
+                if (b < 0) {
+                    ascii = false;
+                    break;
+                }
+            }
+            if (recordBuffer.remaining() < RECORD) {
+                flushBuffer(recordFile, recordBuffer);
+            }
+            recordBuffer.putLong(tweet.getId()).putLong(time).putLong(offset)
+                    .putInt(authorId(tweet.getAuthor())).putInt(ascii ? text.length : text.length | NON_ASCII);
+            recordsWritten += RECORD;
+        }
+
+        /**
+         * Append tweets to the store, in order.
+         *
+         * @param tweets
+         *            tweets to add, not modified by this method.
+         * @throws IOException
+         *             if the files cannot be written.
+         */
+        public void appendAll(final List<Tweet> tweets) throws IOException {
+            for (Tweet t : tweets) {
+                append(t);
+            }
+        }
+
+        private void putText(final byte[] bytes) throws IOException {
+            int from = 0;
+            while (from < bytes.length) {
+                if (!textBuffer.hasRemaining()) {
+                    flushBuffer(textFile, textBuffer);
+                }
+                final int length = Math.min(textBuffer.remaining(), bytes.length - from);
+                textBuffer.put(bytes, from, length);
+                from += length;
+            }
+            textWritten += bytes.length;
+        }
+
+        private int authorId(final String author) {
+            Integer id = authorIds.get(author);
+            if (id == null) {
+                id = authorIds.size();
+                authorIds.put(author, id);
+                newAuthors.add(author);
+            }
+            return id;
+        }
+
+        private static void flushBuffer(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        /**
+         * Make every tweet appended so far durable and commit it.
+         *
+         * @throws IOException
+         *             if the files cannot be written.
+         */
+        public void flush() throws IOException {
+            for (String author : newAuthors) {
+                final byte[] name = author.getBytes(StandardCharsets.UTF_8);
+                final ByteBuffer entry = ByteBuffer.allocate(4 + name.length).order(ByteOrder.LITTLE_ENDIAN);
+                entry.putInt(name.length).put(name).flip();
+                while (entry.hasRemaining()) {
+                    authorFile.write(entry);
+                }
+                authorsWritten += 4 + name.length;
+            }
+            newAuthors.clear();
+            flushBuffer(textFile, textBuffer);
+            flushBuffer(recordFile, recordBuffer);
+            if (authorsWritten > Integer.MAX_VALUE) {
+                throw new IOException("author dictionary larger than 2 GiB");
+            }
+            textFile.force(false);
+            authorFile.force(false);
+            recordFile.force(false);
+
+            // the data is on disk; now commit it
+            header.count = (recordsWritten - HEADER) / RECORD;
+            header.authorCount = authorIds.size();
+            header.textBytes = textWritten;
+            header.authorBytes = authorsWritten;
+            header.write(recordFile);
+            recordFile.force(false);
+        }
+
+        /**
+         * Flush and release the files.
+         *
+         * @throws IOException
+         *             if the files cannot be written.
+         */
+        @Override public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                try {
+                    recordFile.close();
+                } finally {
+                    try {
+                        textFile.close();
+                    } finally {
+                        authorFile.close();
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MentionHeavyHitters estimates the most mentioned users of an unbounded
+ * stream of tweets in bounded memory, using the Space-Saving algorithm
+ * (Metwally, Agrawal and El Abbadi, 2005).
+ *
+ * The sketch keeps at most capacity counters. A user that is already counted
+ * gets its counter incremented; a new user takes over the smallest counter and
+ * inherits its count as possible overestimation. Every user mentioned in more
+ * than (number of mentions) / capacity tweets is guaranteed to hold a counter,
+ * and every estimate is at most error() above the true count.
+ *
+ * Mentions are counted with the rules of Extract.getMentionedNamesFromOneTweet():
+ * a user mentioned several times in one tweet is counted once for that tweet,
+ * so for a stream that never overflows the sketch the counts equal
+ * Extract.getMentionCounts().
+ *
+ * A MentionHeavyHitters is mutable and must not be shared between threads.
+ */
+public class MentionHeavyHitters {
+
+    private final int capacity;
+    private final String[] names;
+    private final long[] counts;
+    private final long[] errors;
+    private final Map<String, Integer> positions;
+    private int size;
+    private long total;
+    // Rep invariant:
+    //   capacity > 0, 0 <= size <= capacity
+    //   names[0..size), counts[0..size) and errors[0..size) form a binary
+    //     min-heap ordered by counts
+    //   positions maps exactly names[0..size) (lower case) to their heap index
+    //   0 <= errors[i] < counts[i] for all i < size
+    //
+    // Abstraction Function:
+    //   represents the estimated mention count counts[i], with overestimation
+    //   at most errors[i], of every monitored user names[i]; total is the
+    //   number of (tweet, mentioned user) pairs seen so far.
+    //
+    // Safety from rep exposure:
+    //   All fields are private; observers return new lists of immutable
+    //   Counter objects.
+
+    // Creator:
+    public MentionHeavyHitters(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.names = new String[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.positions = new HashMap<String, Integer>(capacity * 2);
+    }
+
+    /**
+     * Count the users mentioned in one tweet.
+     *
+     * @param tweet
+     *            a tweet, not modified by this method.
+     */
+    public void add(final Tweet tweet) {
+        if (tweet == null) {
+            throw new NullPointerException("tweet is null");
+        }
+        for (String name : Extract.getMentionedNamesFromOneTweet(tweet)) {
+            offer(name);
+        }
+    }
+
+    /**
+     * Count the users mentioned in every tweet of a list.
+     *
+     * @param tweets
+     *            a list of tweets, not modified by this method.
+     */
+    public void addAll(final List<Tweet> tweets) {
+        for (Tweet t : tweets) {
+            add(t);
+        }
+    }
+
+    // account for one mention of a lower case username.
+    private void offer(final String name) {
+        ++total;
+        final Integer position = positions.get(name);
+        if (position != null) {
+            ++counts[position];
+            siftDown(position);
+            return;
+        }
+        if (size < capacity) {
+            names[size] = name;
+            counts[size] = 1;
+            errors[size] = 0;
+            positions.put(name, size);
+            siftUp(size++);
+            return;
+        }
+        // evict the least counted user; the newcomer may have been counted
+        // up to counts[0] times while it was not monitored.
+        positions.remove(names[0]);
+        names[0] = name;
+        errors[0] = counts[0];
+        ++counts[0];
+        positions.put(name, 0);
+        siftDown(0);
+    }
+
+    /**
+     * @return the number of (tweet, mentioned user) pairs counted so far.
+     */
+    public long total() {
+        return total;
+    }
+
+    /**
+     * @param username
+     *            a Twitter username, case-insensitive.
+     * @return an upper bound of the number of tweets that mentioned username;
+     *         0 if username is not monitored.
+     */
+    public long count(final String username) {
+        final Integer position = positions.get(username.toLowerCase());
+        return position == null ? 0 : counts[position];
+    }
+
+    /**
+     * @param k
+     *            maximum number of users to return, k >= 0.
+     * @return at most k monitored users in descending order of estimated
+     *         count; ties are broken by username.
+     */
+    public List<Counter> top(final int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k is a negative number");
+        }
+        final List<Counter> counters = new ArrayList<Counter>(size);
+        for (int i = 0; i < size; ++i) {
+            counters.add(new Counter(names[i], counts[i], errors[i]));
+        }
+        Collections.sort(counters);
+        return new ArrayList<Counter>(counters.subList(0, Math.min(k, counters.size())));
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            final int parent = (i - 1) / 2;
+            if (counts[parent] <= counts[i]) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            final int left = 2 * i + 1;
+            if (left >= size) {
+                break;
+            }
+            final int right = left + 1;
+            final int child = (right < size && counts[right] < counts[left]) ? right : left;
+            if (counts[i] <= counts[child]) {
+                break;
+            }
+            swap(i, child);
+            i = child;
+        }
+    }
+
+    private void swap(final int i, final int j) {
+        final String name = names[i];
+        names[i] = names[j];
+        names[j] = name;
+        final long count = counts[i];
+        counts[i] = counts[j];
+        counts[j] = count;
+        final long error = errors[i];
+        errors[i] = errors[j];
+        errors[j] = error;
+        positions.put(names[i], i);
+        positions.put(names[j], j);
+    }
+
+    /*
+     * Counter is an immutable estimate of how many tweets mentioned one user.
+     */
+    public static class Counter implements Comparable<Counter> {
+        private final String userName;
+        private final long count;
+        private final long error;
+        // Rep invariant:
+        //   userName is a lower case Twitter username
+        //   0 <= error < count
+        //
+        // Abstraction Function:
+        //   userName was mentioned in at least count - error and at most
+        //   count tweets.
+        //
+        // Safety from rep exposure:
+        //   All fields are private and immutable.
+
+        // Creator:
+        Counter(final String userName, final long count, final long error) {
+            this.userName = userName;
+            this.count = count;
+            this.error = error;
+        }
+
+        // Observer:
+        public String getUserName() {
+            return userName;
+        }
+
+        // Observer: upper bound of the number of mentioning tweets.
+        public long getCount() {
+            return count;
+        }
+
+        // Observer: how much getCount() may overestimate.
+        public long getError() {
+            return error;
+        }
+
+        // Observer: descending count, then ascending username.
+        public int compareTo(final Counter that) {
+            if (count != that.count) {
+                return count > that.count ? -1 : 1;
+            }
+            return userName.compareTo(that.userName);
+        }
+
+        @Override public String toString() {
+            return userName + "=" + count + "(+-" + error + ")";
+        }
+    }
+}
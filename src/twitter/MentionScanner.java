@@ -0,0 +1,163 @@
+package twitter;
+
+/**
+ * MentionScanner finds the username-mentions in a piece of tweet text in a
+ * single left-to-right pass, without regular expressions.
+ *
+ * A username-mention is "@" followed by a Twitter username (as defined by
+ * Tweet.getAuthor()'s spec) of 1 to MAX_USERNAME_LENGTH characters. The
+ * username-mention cannot be immediately preceded or followed by any character
+ * valid in a Twitter username, so an email address like bitdiddle@mit.edu does
+ * NOT contain a mention of the username mit. These are the same rules that
+ * Extract.getMentionedNamesFromOneTweet() has always applied.
+ *
+ * A scanner is used like a Matcher: call find() until it returns false, and
+ * read start()/end() or mention() after every successful find(). A scanner can
+ * be reset() onto new text so that one instance serves a whole corpus.
+ *
+ * A MentionScanner is mutable and must not be shared between threads.
+ */
+public class MentionScanner {
+
+    /** longest username accepted in a username-mention. */
+    public static final int MAX_USERNAME_LENGTH = 15;
+
+    private CharSequence text;
+    private int position;
+    private int start;
+    private int end;
+    private final char[] folded = new char[MAX_USERNAME_LENGTH];
+    // Rep invariant:
+    //   0 <= position <= text.length()
+    //   after a successful find(): 0 < start < end <= position,
+    //     text[start-1] == '@' and 1 <= end - start <= MAX_USERNAME_LENGTH
+    //   otherwise start == end == -1
+    //
+    // Abstraction Function:
+    //   represents a cursor over text; every mention before position has
+    //   already been reported, and text[start..end) is the username of the
+    //   last reported mention (if any).
+    //
+    // Safety from rep exposure:
+    //   All fields are private; folded is never returned, only copied into
+    //   new Strings.
+
+    // Creator:
+    public MentionScanner(final CharSequence text) {
+        reset(text);
+    }
+
+    /**
+     * Point this scanner at new text and rewind it to the beginning.
+     *
+     * @param text
+     *            text to be scanned, not modified by this scanner.
+     * @return this scanner
+     */
+    public MentionScanner reset(final CharSequence text) {
+        if (text == null) {
+            throw new NullPointerException("text is null");
+        }
+        this.text = text;
+        this.position = 0;
+        this.start = -1;
+        this.end = -1;
+        return this;
+    }
+
+    /**
+     * Advance to the next username-mention in the text.
+     *
+     * @return true if another username-mention was found, in which case
+     *         start(), end() and mention() describe it; false if the text is
+     *         exhausted.
+     */
+    public boolean find() {
+        final int length = text.length();
+        int i = position;
+
+        while (i < length) {
+            if (text.charAt(i) != '@') {
+                ++i;
+                continue;
+            }
+            // the "@" must not be glued to a previous username character
+            if (i > 0 && isUsernameChar(text.charAt(i - 1))) {
+                ++i;
+                continue;
+            }
+            // take the whole run of username characters after the "@";
+            // a run longer than the limit is not a mention at all, and no
+            // "@" can start inside the run, so we continue after it.
+            int j = i + 1;
+            while (j < length && isUsernameChar(text.charAt(j))) {
+                ++j;
+            }
+            final int nameLength = j - (i + 1);
+            if (nameLength >= 1 && nameLength <= MAX_USERNAME_LENGTH) {
+                start = i + 1;
+                end = j;
+                position = j;
+                return true;
+            }
+            i = Math.max(j, i + 1);
+        }
+
+        position = length;
+        start = end = -1;
+        return false;
+    }
+
+    /**
+     * @return index of the first username character of the last mention found.
+     */
+    public int start() {
+        checkFound();
+        return start;
+    }
+
+    /**
+     * @return index just past the last username character of the last mention found.
+     */
+    public int end() {
+        checkFound();
+        return end;
+    }
+
+    /**
+     * @return the username of the last mention found, folded to lower case.
+     */
+    public String mention() {
+        checkFound();
+        for (int i = start; i < end; ++i) {
+            folded[i - start] = foldChar(text.charAt(i));
+        }
+        return new String(folded, 0, end - start);
+    }
+
+    private void checkFound() {
+        if (start < 0) {
+            throw new IllegalStateException("no mention found");
+        }
+    }
+
+    /**
+     * @param c
+     *            a character
+     * @return true iff c may appear in a Twitter username: A-Z, a-z, 0-9, "_"
+     *         or "-".
+     */
+    public static boolean isUsernameChar(final int c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')
+                || (c >= '0' && c <= '9') || c == '_' || c == '-';
+    }
+
+    /**
+     * @param c
+     *            a username character
+     * @return c in lower case; usernames are ASCII so no locale is involved.
+     */
+    public static char foldChar(final char c) {
+        return (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c;
+    }
+}
@@ -0,0 +1,216 @@
+package twitter;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * PageRank ranks the users of a FollowsGraph by PageRank instead of by raw
+ * follower count: following a user passes on a share of the follower's own
+ * rank, so a ring of bots that only follow each other gains little.
+ *
+ * The ranks are computed by power iteration over the graph's primitive
+ * arrays. Every iteration pulls rank along the followers (in-edge) rows, so
+ * blocks of users are updated in parallel without any locking. The rank of
+ * users who follow nobody (dangling users) is spread like teleportation:
+ * evenly over all users, or over the seed users for personalized PageRank.
+ * Iteration stops when the L1 distance between two iterations is at most the
+ * tolerance, or after maxIterations.
+ *
+ * A PageRank is immutable and safe to share between threads.
+ */
+public class PageRank {
+
+    /** Probability of following an edge instead of teleporting. */
+    public static final double DEFAULT_DAMPING = 0.85;
+    /** L1 distance between two iterations at which to stop. */
+    public static final double DEFAULT_TOLERANCE = 1e-9;
+    /** Iterations after which to stop even without convergence. */
+    public static final int DEFAULT_MAX_ITERATIONS = 100;
+
+    // users per parallel block; large enough to amortize the task overhead
+    private static final int BLOCK = 1 << 13;
+
+    private final double damping;
+    private final double tolerance;
+    private final int maxIterations;
+    // Rep invariant:
+    //   0 <= damping < 1, tolerance >= 0, maxIterations >= 1
+    //
+    // Abstraction Function:
+    //   represents the PageRank computation with these parameters.
+    //
+    // Safety from rep exposure:
+    //   All fields are private, final and immutable.
+
+    /**
+     * Make a PageRank with the default parameters.
+     */
+    public PageRank() {
+        this(DEFAULT_DAMPING, DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS);
+    }
+
+    /**
+     * Make a PageRank.
+     *
+     * @param damping
+     *            probability of following an edge, 0 <= damping < 1.
+     * @param tolerance
+     *            L1 distance between two iterations at which to stop,
+     *            tolerance >= 0.
+     * @param maxIterations
+     *            iterations after which to stop, maxIterations >= 1.
+     */
+    public PageRank(final double damping, final double tolerance, final int maxIterations) {
+        if (!(damping >= 0 && damping < 1)) {
+            throw new IllegalArgumentException("damping must be in [0, 1)");
+        }
+        if (!(tolerance >= 0)) {
+            throw new IllegalArgumentException("tolerance is a negative number");
+        }
+        if (maxIterations < 1) {
+            throw new IllegalArgumentException("maxIterations must be positive");
+        }
+        this.damping = damping;
+        this.tolerance = tolerance;
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * @param graph
+     *            a social network.
+     * @return the PageRank of every user, indexed by user id; the ranks add
+     *         up to 1 unless the graph is empty.
+     */
+    public double[] ranks(final FollowsGraph graph) {
+        final int n = graph.userCount();
+        final double[] teleport = new double[n];
+        Arrays.fill(teleport, 1.0 / n);
+        return iterate(graph, teleport);
+    }
+
+    /**
+     * Personalized PageRank: teleportation, and the rank of dangling users,
+     * only goes to the seed users, so the ranks measure influence as seen
+     * from the seeds.
+     *
+     * @param graph
+     *            a social network.
+     * @param seeds
+     *            usernames, case-insensitive; names not in graph are ignored,
+     *            but at least one must be in graph.
+     * @return the personalized PageRank of every user, indexed by user id;
+     *         the ranks add up to 1.
+     */
+    public double[] ranks(final FollowsGraph graph, final Set<String> seeds) {
+        final double[] teleport = new double[graph.userCount()];
+        int found = 0;
+        for (String seed : seeds) {
+            final int id = graph.id(seed);
+            if (id >= 0 && teleport[id] == 0) {
+                teleport[id] = 1;
+                ++found;
+            }
+        }
+        if (found == 0) {
+            throw new IllegalArgumentException("no seed is a user of the graph");
+        }
+        for (int u = 0; u < teleport.length; ++u) {
+            teleport[u] /= found;
+        }
+        return iterate(graph, teleport);
+    }
+
+    /**
+     * Find the k users with the highest PageRank.
+     *
+     * @param graph
+     *            a social network.
+     * @param k
+     *            maximum number of usernames to return, k >= 0.
+     * @return the min(k, graph.userCount()) lower case usernames of highest
+     *         rank, in descending order of rank; equal ranks are in
+     *         ascending order of username.
+     */
+    public List<String> influencers(final FollowsGraph graph, final int k) {
+        return top(graph, ranks(graph), k);
+    }
+
+    /**
+     * Find the k users with the highest personalized PageRank.
+     *
+     * @param graph
+     *            a social network.
+     * @param seeds
+     *            usernames, as for ranks(graph, seeds).
+     * @param k
+     *            maximum number of usernames to return, k >= 0.
+     * @return the min(k, graph.userCount()) lower case usernames of highest
+     *         personalized rank, as for influencers(graph, k).
+     */
+    public List<String> influencers(final FollowsGraph graph, final Set<String> seeds, final int k) {
+        return top(graph, ranks(graph, seeds), k);
+    }
+
+    private static List<String> top(final FollowsGraph graph, final double[] ranks, final int k) {
+        final String[] names = new String[ranks.length];
+        for (int u = 0; u < names.length; ++u) {
+            names[u] = graph.username(u);
+        }
+        return TopK.names(TopK.select(names.length, k, TopK.byScore(ranks, names)), names);
+    }
+
+    // power iteration from the teleport distribution, which adds up to 1.
+    private double[] iterate(final FollowsGraph graph, final double[] teleport) {
+        final int n = graph.userCount();
+        final int blocks = (n + BLOCK - 1) / BLOCK;
+        double[] rank = teleport.clone();
+        double[] next = new double[n];
+        final double[] share = new double[n];
+        final int[] inOffsets = graph.inOffsetArray();
+        final int[] inSources = graph.inSourceArray();
+
+        for (int iteration = 0; iteration < maxIterations; ++iteration) {
+            final double[] current = rank;
+            final double[] updated = next;
+
+            // share[u] is what u passes to each user it follows; dangling
+            // users pass their rank to the teleport distribution instead
+            final double dangling = IntStream.range(0, blocks).parallel().mapToDouble(b -> {
+                double lost = 0;
+                for (int u = b * BLOCK, end = Math.min(n, u + BLOCK); u < end; ++u) {
+                    final int degree = graph.outDegree(u);
+                    if (degree == 0) {
+                        lost += current[u];
+                        share[u] = 0;
+                    } else {
+                        share[u] = damping * current[u] / degree;
+                    }
+                }
+                return lost;
+            }).sum();
+
+            final double jump = 1 - damping + damping * dangling;
+            final double distance = IntStream.range(0, blocks).parallel().mapToDouble(b -> {
+                double moved = 0;
+                for (int v = b * BLOCK, end = Math.min(n, v + BLOCK); v < end; ++v) {
+                    double sum = jump * teleport[v];
+                    for (int i = inOffsets[v], last = inOffsets[v + 1]; i < last; ++i) {
+                        sum += share[inSources[i]];
+                    }
+                    updated[v] = sum;
+                    moved += Math.abs(sum - current[v]);
+                }
+                return moved;
+            }).sum();
+
+            rank = updated;
+            next = current;
+            if (distance <= tolerance) {
+                break;
+            }
+        }
+        return rank;
+    }
+}
@@ -0,0 +1,257 @@
+package twitter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ShortestPaths answers "how is user A connected to user B" on a
+ * FollowsGraph: the shortest chain of users A, U1, ..., B in which every user
+ * follows the next one.
+ *
+ * The search is a bidirectional breadth-first search on user ids: it grows a
+ * ball of users reachable from A along follows edges and a ball of users
+ * reaching B along follower edges, always one whole level of the cheaper
+ * side, until they meet. On a graph where users follow d others, it visits
+ * about 2 * d^(h/2) users instead of d^h for h hops. The visited sets are
+ * bitsets that are kept between queries, and only the words a query touched
+ * are cleared after it, so a query costs nothing for the users it never
+ * reaches. A maximum number of hops bounds the work of a query.
+ *
+ * A ShortestPaths is mutable (it reuses its buffers) and not thread-safe;
+ * use one per thread.
+ */
+public class ShortestPaths {
+
+    /** maxHops that does not bound the search. */
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    private final FollowsGraph graph;
+    private final long[] reachedFrom;
+    private final long[] reaching;
+    private final int[] parentFrom;
+    private final int[] parentTo;
+    private final IntList touched = new IntList();
+    private IntList frontFrom = new IntList();
+    private IntList frontTo = new IntList();
+    private IntList next = new IntList();
+    // Rep invariant:
+    //   reachedFrom.length == reaching.length == (userCount + 63) / 64;
+    //   parentFrom.length == parentTo.length == userCount
+    //   between queries, reachedFrom and reaching are all zero; during a
+    //     query, every non-zero word of either is in touched
+    //
+    // Abstraction Function:
+    //   represents shortest path queries on graph; the other fields are
+    //   scratch space of the running query.
+    //
+    // Safety from rep exposure:
+    //   All fields are private; graph is immutable; queries return new
+    //   arrays and lists.
+
+    /**
+     * Make a query object for a graph.
+     *
+     * @param graph
+     *            a social network.
+     */
+    public ShortestPaths(final FollowsGraph graph) {
+        this.graph = graph;
+        final int n = graph.userCount();
+        this.reachedFrom = new long[(n + 63) >>> 6];
+        this.reaching = new long[(n + 63) >>> 6];
+        this.parentFrom = new int[n];
+        this.parentTo = new int[n];
+    }
+
+    /**
+     * @param from
+     *            a username, case-insensitive.
+     * @param to
+     *            a username, case-insensitive.
+     * @return lower case usernames of a shortest chain from from to to in
+     *         which every user follows the next, from and to included; the
+     *         number of hops is its size - 1. null if either user is not in
+     *         the graph or there is no such chain.
+     */
+    public List<String> path(final String from, final String to) {
+        return path(from, to, UNBOUNDED);
+    }
+
+    /**
+     * @param from
+     *            a username, case-insensitive.
+     * @param to
+     *            a username, case-insensitive.
+     * @param maxHops
+     *            maximum number of hops of the chain, >= 0.
+     * @return a shortest chain as path(from, to) returns it, or null if
+     *         there is none of at most maxHops hops.
+     */
+    public List<String> path(final String from, final String to, final int maxHops) {
+        final int source = graph.id(from);
+        final int target = graph.id(to);
+        if (source < 0 || target < 0) {
+            return null;
+        }
+        final int[] ids = path(source, target, maxHops);
+        if (ids == null) {
+            return null;
+        }
+        final List<String> names = new ArrayList<String>(ids.length);
+        for (int id : ids) {
+            names.add(graph.username(id));
+        }
+        return names;
+    }
+
+    /**
+     * @param from
+     *            a username, case-insensitive.
+     * @param to
+     *            a username, case-insensitive.
+     * @return number of hops of a shortest chain from from to to, or -1 if
+     *         there is none.
+     */
+    public int degreesOfSeparation(final String from, final String to) {
+        final List<String> path = path(from, to);
+        return path == null ? -1 : path.size() - 1;
+    }
+
+    /**
+     * @param from
+     *            a user id.
+     * @param to
+     *            a user id.
+     * @param maxHops
+     *            maximum number of hops of the chain, >= 0.
+     * @return ids of a shortest chain from from to to in which every user
+     *         follows the next, both included, or null if there is none of
+     *         at most maxHops hops.
+     */
+    public int[] path(final int from, final int to, final int maxHops) {
+        if (maxHops < 0) {
+            throw new IllegalArgumentException("maxHops is a negative number");
+        }
+        if (from == to) {
+            return new int[] {from};
+        }
+        try {
+            return search(from, to, maxHops);
+        } finally {
+            for (int i = 0; i < touched.size(); ++i) {
+                reachedFrom[touched.get(i)] = 0;
+                reaching[touched.get(i)] = 0;
+            }
+            touched.clear();
+            frontFrom.clear();
+            frontTo.clear();
+            next.clear();
+        }
+    }
+
+    private int[] search(final int from, final int to, final int maxHops) {
+        mark(reachedFrom, from);
+        mark(reaching, to);
+        parentFrom[from] = -1;
+        parentTo[to] = -1;
+        frontFrom.add(from);
+        frontTo.add(to);
+        int depthFrom = 0;
+        int depthTo = 0;
+
+        while (!frontFrom.isEmpty() && !frontTo.isEmpty() && depthFrom + depthTo < maxHops) {
+            final boolean forward = cost(frontFrom, true) <= cost(frontTo, false);
+            final IntList front = forward ? frontFrom : frontTo;
+            final long[] mine = forward ? reachedFrom : reaching;
+            final long[] theirs = forward ? reaching : reachedFrom;
+            final int[] parent = forward ? parentFrom : parentTo;
+            final int[] otherParent = forward ? parentTo : parentFrom;
+            final int depth = (forward ? depthFrom : depthTo) + 1;
+
+            // expand the whole level, and keep the shortest of the meetings
+            int meeting = -1;
+            int shortest = Integer.MAX_VALUE;
+            next.clear();
+            for (int f = 0; f < front.size(); ++f) {
+                final int u = front.get(f);
+                final int end = forward ? graph.outEnd(u) : graph.inEnd(u);
+                for (int i = forward ? graph.outStart(u) : graph.inStart(u); i < end; ++i) {
+                    final int v = forward ? graph.outTarget(i) : graph.inSource(i);
+                    if (isMarked(mine, v)) {
+                        continue;
+                    }
+                    mark(mine, v);
+                    parent[v] = u;
+                    next.add(v);
+                    if (isMarked(theirs, v)) {
+                        final int length = depth + hops(otherParent, v);
+                        if (length < shortest) {
+                            shortest = length;
+                            meeting = v;
+                        }
+                    }
+                }
+            }
+
+            final IntList done = front;
+            if (forward) {
+                frontFrom = next;
+                ++depthFrom;
+            } else {
+                frontTo = next;
+                ++depthTo;
+            }
+            next = done;
+            if (meeting >= 0) {
+                return chain(meeting, shortest);
+            }
+        }
+        return null;
+    }
+
+    // sum of the degrees the next expansion of a frontier would walk.
+    private long cost(final IntList front, final boolean forward) {
+        long cost = 0;
+        for (int f = 0; f < front.size(); ++f) {
+            final int u = front.get(f);
+            cost += forward ? graph.outDegree(u) : graph.inDegree(u);
+        }
+        return cost;
+    }
+
+    // number of parent links from v to the root of its search.
+    private static int hops(final int[] parent, int v) {
+        int hops = 0;
+        while (parent[v] >= 0) {
+            v = parent[v];
+            ++hops;
+        }
+        return hops;
+    }
+
+    // the chain of length hops through meeting, which both searches reached.
+    private int[] chain(final int meeting, final int hops) {
+        final int[] path = new int[hops + 1];
+        int i = hops(parentFrom, meeting);
+        for (int v = meeting; v >= 0; v = parentFrom[v]) {
+            path[i--] = v;
+        }
+        i = path.length - hops(parentTo, meeting) - 1;
+        for (int v = meeting; v >= 0; v = parentTo[v]) {
+            path[i++] = v;
+        }
+        return path;
+    }
+
+    private boolean isMarked(final long[] bits, final int id) {
+        return (bits[id >>> 6] & (1L << id)) != 0;
+    }
+
+    private void mark(final long[] bits, final int id) {
+        final int word = id >>> 6;
+        if (reachedFrom[word] == 0 && reaching[word] == 0) {
+            touched.add(word);
+        }
+        bits[word] |= 1L << id;
+    }
+}
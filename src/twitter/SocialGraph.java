@@ -0,0 +1,210 @@
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * SocialGraph is a social network (as defined in SocialNetwork) that is kept
+ * up to date as tweets arrive, instead of being rebuilt from the whole tweet
+ * list every time.
+ *
+ * Every tweet adds follows edges with the evidence rules of
+ * SocialNetwork.guessFollowsGraph(): the author follows every user the tweet
+ * @-mentions, except himself. A new edge costs O(1): it is looked up in a hash
+ * set of packed edges, and the followed user's follower count is incremented.
+ *
+ * Users are kept ordered by follower count in "bucketed" form: one array holds
+ * all users in descending order of count, and for every count d, the number
+ * of users with more than d followers is where the users with exactly d
+ * followers start. Incrementing a count swaps the user to the front of its
+ * bucket and moves the bucket boundary, so influencers() is always ready in
+ * O(1) per edge without any recount or sort.
+ *
+ * A SocialGraph is mutable and not thread-safe.
+ */
+public class SocialGraph {
+
+    private final Map<String, Integer> ids = new HashMap<String, Integer>();
+    private final List<String> names = new ArrayList<String>();
+    private final List<IntList> following = new ArrayList<IntList>();
+    private final LongHashSet edges = new LongHashSet();
+    private final MentionScanner scanner = new MentionScanner("");
+
+    private int[] followers = new int[16];
+    private int[] order = new int[16];
+    private int[] position = new int[16];
+    private int[] moreThan = new int[2];
+    // Rep invariant:
+    //   names are distinct lower case usernames, ids maps names.get(u) to u,
+    //     and n = names.size() == following.size()
+    //   edges holds (u << 32 | v) iff v is in following.get(u); u != v
+    //   followers[v] is the number of u with v in following.get(u)
+    //   order[0..n) is a permutation of 0..n-1 in non-increasing order of
+    //     followers, and position[order[i]] == i
+    //   moreThan[d] == number of users with followers > d, for
+    //     0 <= d < moreThan.length, and moreThan.length > max followers
+    //
+    // Abstraction Function:
+    //   represents the social network in which names.get(u) follows
+    //   names.get(v) iff v is in following.get(u), with every name a user
+    //   of the network.
+    //
+    // Safety from rep exposure:
+    //   All fields are private; observers return new collections of
+    //   immutable Strings.
+
+    /**
+     * Make an empty graph.
+     */
+    public SocialGraph() {
+    }
+
+    /**
+     * Add the evidence of one tweet.
+     *
+     * @param tweet
+     *            a tweet, not modified by this method.
+     * @return number of new follows edges the tweet added.
+     */
+    public int add(final Tweet tweet) {
+        final int author = user(tweet.getAuthor().toLowerCase());
+        int added = 0;
+        scanner.reset(tweet.getText());
+        while (scanner.find()) {
+            final int followed = user(scanner.mention());
+            if (followed != author && edges.add(((long) author << 32) | followed)) {
+                following.get(author).add(followed);
+                increment(followed);
+                ++added;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Add the evidence of a batch of tweets.
+     *
+     * @param tweets
+     *            a list of tweets, not modified by this method.
+     * @return number of new follows edges the tweets added.
+     */
+    public int addAll(final List<Tweet> tweets) {
+        int added = 0;
+        for (Tweet t : tweets) {
+            added += add(t);
+        }
+        return added;
+    }
+
+    // the id of a lower case username, adding the user if it is new.
+    private int user(final String name) {
+        final Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        final int u = names.size();
+        names.add(name);
+        ids.put(name, u);
+        following.add(new IntList(2));
+        if (u == order.length) {
+            followers = Arrays.copyOf(followers, u * 2);
+            order = Arrays.copyOf(order, u * 2);
+            position = Arrays.copyOf(position, u * 2);
+        }
+        // a new user has no followers, so it belongs at the very end
+        order[u] = u;
+        position[u] = u;
+        return u;
+    }
+
+    // followers[v]++, keeping order and moreThan consistent.
+    private void increment(final int v) {
+        final int d = followers[v];
+        final int first = moreThan[d];  // where the bucket of count d starts
+        final int other = order[first];
+        final int i = position[v];
+        order[i] = other;
+        position[other] = i;
+        order[first] = v;
+        position[v] = first;
+        ++moreThan[d];
+        followers[v] = d + 1;
+        if (d + 2 > moreThan.length) {
+            moreThan = Arrays.copyOf(moreThan, moreThan.length * 2);
+        }
+    }
+
+    /**
+     * @return number of users in the graph.
+     */
+    public int userCount() {
+        return names.size();
+    }
+
+    /**
+     * @return number of follows edges in the graph.
+     */
+    public int edgeCount() {
+        return edges.size();
+    }
+
+    /**
+     * @param username
+     *            a Twitter username, case-insensitive.
+     * @return number of users who follow username; 0 if unknown.
+     */
+    public int followerCount(final String username) {
+        final Integer id = ids.get(username.toLowerCase());
+        return id == null ? 0 : followers[id];
+    }
+
+    /**
+     * @return all users in descending order of follower count, lower case,
+     *         as SocialNetwork.influencers() returns for followsGraph().
+     *         Users with equal counts are in no particular order.
+     */
+    public List<String> influencers() {
+        return influencers(names.size());
+    }
+
+    /**
+     * @param k
+     *            maximum number of usernames to return, k >= 0.
+     * @return the first k users of influencers(); takes O(k).
+     */
+    public List<String> influencers(final int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k is a negative number");
+        }
+        final int size = Math.min(k, names.size());
+        final List<String> result = new ArrayList<String>(size);
+        for (int i = 0; i < size; ++i) {
+            result.add(names.get(order[i]));
+        }
+        return result;
+    }
+
+    /**
+     * @return a new social network (as defined in SocialNetwork) equal to
+     *         SocialNetwork.guessFollowsGraph() of every tweet added so far.
+     */
+    public Map<String, Set<String>> followsGraph() {
+        final Map<String, Set<String>> followsMap =
+                new TreeMap<String, Set<String>>(String.CASE_INSENSITIVE_ORDER);
+        for (int u = 0; u < names.size(); ++u) {
+            final Set<String> followList = new TreeSet<String>(String.CASE_INSENSITIVE_ORDER);
+            final IntList row = following.get(u);
+            for (int i = 0; i < row.size(); ++i) {
+                followList.add(names.get(row.get(i)));
+            }
+            followsMap.put(names.get(u), followList);
+        }
+        return followsMap;
+    }
+}
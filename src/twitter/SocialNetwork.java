@@ -65,11 +65,15 @@ public class SocialNetwork {
             validAuthor = twt.getAuthor();
             // System.out.print("Author: " + validAuthor + " follows: "); // test ***
 
-            for (String name : mentionedNames)
+            Iterator<String> names = mentionedNames.iterator();
+            while (names.hasNext())
             {
+                String name = names.next();
                 // do not allow one follows himself! 
+                // (remove through the iterator, removing from the set while
+                // looping over it throws ConcurrentModificationException)
                 if (name.compareToIgnoreCase(validAuthor) == 0) { // name is same as author
-                    mentionedNames.remove(name);
+                    names.remove();
                     // System.out.println("* Name removed: " + name); // test ***
                 }
                 else {
@@ -80,7 +84,7 @@ public class SocialNetwork {
                         followsMap.put(name.toLowerCase(), new TreeSet<>());
                     }
                 }
-            } // end of for (name : mentionedNames)
+            } // end of while (names)
 
             // System.out.println(); // test ***
           
@@ -208,6 +212,83 @@ public class SocialNetwork {
         return namesList;
     }
     
+    /**
+     * Find the k people in a social network who have the most followers,
+     * without sorting everybody.
+     * 
+     * Followers are counted in a primitive array indexed by a dense id per
+     * user, and the best k ids are kept in a bounded heap, so the cost is
+     * O(users + edges + users * log k) instead of a sort of all users.
+     * 
+     * @param followsGraph
+     *            a social network (as defined above)
+     * @param k
+     *            maximum number of usernames to return, k >= 0.
+     * @return the (at most) k distinct Twitter usernames in followsGraph with
+     *         the most followers, in lower case and in descending order of
+     *         follower count; usernames with the same count are in
+     *         alphabetical order.
+     */
+    public static List<String> influencers(final Map<String, Set<String>> followsGraph, final int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k is a negative number");
+        }
+        
+        // give every name a dense id, and count followers by id.
+        final Map<String, Integer> ids = new HashMap<String, Integer>();
+        final List<String> names = new ArrayList<String>();
+        int[] counts = new int[16];
+        for (Map.Entry<String, Set<String>> entry : followsGraph.entrySet()) {
+            idOf(entry.getKey(), ids, names);
+            for (String followed : entry.getValue()) {
+                final int id = idOf(followed, ids, names);
+                if (id >= counts.length) {
+                    counts = Arrays.copyOf(counts, Math.max(id + 1, counts.length * 2));
+                }
+                ++counts[id];
+            }
+        }
+        
+        // users who follow others but have no followers have no count yet
+        if (counts.length < names.size()) {
+            counts = Arrays.copyOf(counts, names.size());
+        }
+        final String[] nameArray = names.toArray(new String[names.size()]);
+        return TopK.names(TopK.select(nameArray.length, k, TopK.byCount(counts, nameArray)), nameArray);
+    }
+    
+    /**
+     * Find the k people in a FollowsGraph who have the most followers.
+     * 
+     * @param graph
+     *            a social network
+     * @param k
+     *            maximum number of usernames to return, k >= 0.
+     * @return the same list as influencers(graph.asMap(), k).
+     */
+    public static List<String> influencers(final FollowsGraph graph, final int k) {
+        final int n = graph.userCount();
+        final int[] counts = new int[n];
+        final String[] names = new String[n];
+        for (int u = 0; u < n; ++u) {
+            counts[u] = graph.inDegree(u);
+            names[u] = graph.username(u);
+        }
+        return TopK.names(TopK.select(n, k, TopK.byCount(counts, names)), names);
+    }
+    
+    // the id of the lower case form of name, assigning the next id if it is new.
+    private static int idOf(final String name, final Map<String, Integer> ids, final List<String> names) {
+        final String key = name.toLowerCase();
+        Integer id = ids.get(key);
+        if (id == null) {
+            id = names.size();
+            ids.put(key, id);
+            names.add(key);
+        }
+        return id;
+    }
+    
     /*
      * sortByValue will sort according to the value in * DESCENDING * order.
      * 
@@ -0,0 +1,181 @@
+package twitter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * TimeIndex answers Filter.inTimespan() queries over a fixed list of tweets by
+ * binary search instead of a full scan.
+ *
+ * The timestamps are kept sorted in a primitive long[] of epoch nanoseconds,
+ * next to a permutation back to the tweets' positions in the input list. A
+ * query seeks both ends of the timespan in O(log n), then sorts the O(k)
+ * matching positions so the result keeps the input order.
+ *
+ * Epoch nanoseconds cover the years 1677 to 2262. Tweets outside that range
+ * are clamped to it in the sorted array and re-checked against the exact
+ * timespan, so results stay exact for any timestamp.
+ *
+ * A TimeIndex is immutable and safe to share between threads.
+ */
+public class TimeIndex {
+
+    private final Tweet[] tweets;
+    private final long[] sortedNanos;
+    private final int[] positions;
+    // Rep invariant:
+    //   tweets.length == sortedNanos.length == positions.length
+    //   sortedNanos is sorted in ascending order
+    //   positions is a permutation of 0..tweets.length-1 and
+    //     sortedNanos[i] == nanos(tweets[positions[i]].getTimestamp())
+    //
+    // Abstraction Function:
+    //   represents the list of tweets tweets[0..n), sorted by timestamp
+    //   through positions.
+    //
+    // Safety from rep exposure:
+    //   All fields are private and final; arrays are never returned;
+    //   inTimespan() returns new lists of immutable Tweets.
+
+    /**
+     * Make an index of a list of tweets.
+     *
+     * @param tweets
+     *            a list of tweets with distinct ids, not modified by this method.
+     */
+    public TimeIndex(final List<Tweet> tweets) {
+        final int n = tweets.size();
+        this.tweets = tweets.toArray(new Tweet[n]);
+        this.sortedNanos = new long[n];
+        this.positions = new int[n];
+
+        // sort the positions by their timestamps with a primitive merge
+        // sort, which avoids boxing n Integers for a comparator sort.
+        final long[] keys = new long[n];
+        for (int i = 0; i < n; ++i) {
+            keys[i] = nanos(this.tweets[i].getTimestamp());
+        }
+        final int[] order = new int[n];
+        for (int i = 0; i < n; ++i) {
+            order[i] = i;
+        }
+        sortByKey(order, keys, new int[n], 0, n);
+        for (int i = 0; i < n; ++i) {
+            positions[i] = order[i];
+            sortedNanos[i] = keys[order[i]];
+        }
+    }
+
+    /**
+     * @return number of indexed tweets.
+     */
+    public int size() {
+        return tweets.length;
+    }
+
+    /**
+     * Find tweets that were sent during a particular timespan.
+     *
+     * @param timespan
+     *            timespan
+     * @return all and only the indexed tweets that were sent during the
+     *         timespan, in the same order as in the indexed list; the same
+     *         list as Filter.inTimespan(tweets, timespan).
+     */
+    public List<Tweet> inTimespan(final Timespan timespan) {
+        final Instant start = timespan.getStart();
+        final Instant end = timespan.getEnd();
+        final int from = lowerBound(nanos(start));
+        final int to = upperBound(nanos(end));
+
+        final int[] matched = new int[Math.max(to - from, 0)];
+        int count = 0;
+        for (int i = from; i < to; ++i) {
+            final Instant timestamp = tweets[positions[i]].getTimestamp();
+            // only clamped timestamps at the edges of the range can be wrong
+            if (!timestamp.isBefore(start) && !timestamp.isAfter(end)) {
+                matched[count++] = positions[i];
+            }
+        }
+        Arrays.sort(matched, 0, count);
+
+        final List<Tweet> matchedTweets = new ArrayList<Tweet>(count);
+        for (int i = 0; i < count; ++i) {
+            matchedTweets.add(tweets[matched[i]]);
+        }
+        return matchedTweets;
+    }
+
+    // first i such that sortedNanos[i] >= key
+    private int lowerBound(final long key) {
+        int low = 0;
+        int high = sortedNanos.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (sortedNanos[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // first i such that sortedNanos[i] > key
+    private int upperBound(final long key) {
+        int low = 0;
+        int high = sortedNanos.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (sortedNanos[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /*
+     * @return timestamp as nanoseconds since the epoch, clamped to the range
+     *         of a long.
+     */
+    static long nanos(final Instant timestamp) {
+        final long seconds = timestamp.getEpochSecond();
+        if (seconds >= Long.MAX_VALUE / 1000000000L) {
+            return Long.MAX_VALUE;
+        }
+        if (seconds <= Long.MIN_VALUE / 1000000000L) {
+            return Long.MIN_VALUE;
+        }
+        return seconds * 1000000000L + timestamp.getNano();
+    }
+
+    /*
+     * Stable merge sort of order[from..to) by keys[order[i]].
+     */
+    private static void sortByKey(final int[] order, final long[] keys, final int[] scratch,
+            final int from, final int to) {
+        if (to - from < 2) {
+            return;
+        }
+        final int mid = (from + to) >>> 1;
+        sortByKey(order, keys, scratch, from, mid);
+        sortByKey(order, keys, scratch, mid, to);
+        if (keys[order[mid - 1]] <= keys[order[mid]]) {
+            return; // already in order, common for feeds sorted by time
+        }
+        System.arraycopy(order, from, scratch, from, to - from);
+        int i = from;
+        int j = mid;
+        for (int k = from; k < to; ++k) {
+            if (j >= to || (i < mid && keys[scratch[i]] <= keys[scratch[j]])) {
+                order[k] = scratch[i++];
+            } else {
+                order[k] = scratch[j++];
+            }
+        }
+    }
+}
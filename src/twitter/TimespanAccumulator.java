@@ -0,0 +1,140 @@
+package twitter;
+
+import java.time.Instant;
+import java.util.stream.Collector;
+
+/**
+ * TimespanAccumulator computes the time period spanned by tweets one tweet at
+ * a time, so that a span can be taken over a Stream or a live feed without
+ * keeping the tweets.
+ *
+ * It keeps only the earliest and latest timestamp seen, as primitive epoch
+ * seconds and nanoseconds, so it needs O(1) memory however many tweets it sees.
+ * Accumulators filled on different partitions can be merged, and toTimespan()
+ * may be called at any moment to get the span of everything seen so far.
+ *
+ * A TimespanAccumulator is mutable and thread-safe: several threads may
+ * accept() tweets into the same accumulator while another reads the span.
+ */
+public class TimespanAccumulator {
+
+    private long count;
+    private long minSeconds;
+    private int minNanos;
+    private long maxSeconds;
+    private int maxNanos;
+    // Rep invariant:
+    //   count >= 0
+    //   if count > 0: (minSeconds, minNanos) <= (maxSeconds, maxNanos)
+    //     in lexicographic order, and 0 <= minNanos, maxNanos < 10^9
+    //
+    // Abstraction Function:
+    //   represents the timestamps of count tweets, of which the earliest is
+    //   Instant.ofEpochSecond(minSeconds, minNanos) and the latest is
+    //   Instant.ofEpochSecond(maxSeconds, maxNanos).
+    //
+    // Safety from rep exposure:
+    //   All fields are private primitives.
+    //
+    // Thread safety argument:
+    //   All fields are guarded by this object's lock; merge() reads the other
+    //   accumulator under its own lock before taking this one, so two
+    //   accumulators are never locked at the same time.
+
+    /**
+     * Make an accumulator that has seen no tweets.
+     */
+    public TimespanAccumulator() {
+    }
+
+    /**
+     * @return a Collector that reduces a stream of tweets, sequential or
+     *         parallel, to the same Timespan Extract.getTimespan() returns for
+     *         a list of them.
+     */
+    public static Collector<Tweet, TimespanAccumulator, Timespan> collector() {
+        return Collector.of(TimespanAccumulator::new,
+                TimespanAccumulator::accept,
+                TimespanAccumulator::merge,
+                TimespanAccumulator::toTimespan,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * Account for the timestamp of one tweet.
+     *
+     * @param tweet
+     *            a tweet, not modified by this method.
+     */
+    public void accept(final Tweet tweet) {
+        accept(tweet.getTimestamp());
+    }
+
+    /**
+     * Account for one timestamp.
+     *
+     * @param timestamp
+     *            date/time when a tweet was sent.
+     */
+    public void accept(final Instant timestamp) {
+        include(1, timestamp.getEpochSecond(), timestamp.getNano(),
+                timestamp.getEpochSecond(), timestamp.getNano());
+    }
+
+    /**
+     * Fold everything another accumulator has seen into this one.
+     *
+     * @param that
+     *            another accumulator, not modified by this method.
+     * @return this accumulator
+     */
+    public TimespanAccumulator merge(final TimespanAccumulator that) {
+        final long thatCount, thatMinSeconds, thatMaxSeconds;
+        final int thatMinNanos, thatMaxNanos;
+        synchronized (that) {
+            thatCount = that.count;
+            thatMinSeconds = that.minSeconds;
+            thatMinNanos = that.minNanos;
+            thatMaxSeconds = that.maxSeconds;
+            thatMaxNanos = that.maxNanos;
+        }
+        if (thatCount > 0) {
+            include(thatCount, thatMinSeconds, thatMinNanos, thatMaxSeconds, thatMaxNanos);
+        }
+        return this;
+    }
+
+    private synchronized void include(final long n,
+            final long lowSeconds, final int lowNanos,
+            final long highSeconds, final int highNanos) {
+        if (count == 0 || lowSeconds < minSeconds || (lowSeconds == minSeconds && lowNanos < minNanos)) {
+            minSeconds = lowSeconds;
+            minNanos = lowNanos;
+        }
+        if (count == 0 || highSeconds > maxSeconds || (highSeconds == maxSeconds && highNanos > maxNanos)) {
+            maxSeconds = highSeconds;
+            maxNanos = highNanos;
+        }
+        count += n;
+    }
+
+    /**
+     * @return the number of timestamps seen so far.
+     */
+    public synchronized long count() {
+        return count;
+    }
+
+    /**
+     * @return a minimum-length time interval that contains every timestamp
+     *         seen so far; like Extract.getTimespan(), the empty interval at
+     *         the epoch if none has been seen.
+     */
+    public synchronized Timespan toTimespan() {
+        if (count == 0) {
+            return new Timespan(Instant.EPOCH, Instant.EPOCH);
+        }
+        return new Timespan(Instant.ofEpochSecond(minSeconds, minNanos),
+                Instant.ofEpochSecond(maxSeconds, maxNanos));
+    }
+}
@@ -0,0 +1,139 @@
+package twitter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * TopK selects the k best of n ids with a bounded heap, in O(n log k) time and
+ * O(k) memory, instead of sorting all n of them.
+ */
+class TopK {
+
+    /*
+     * Ranking is a total order on ids: compare(a, b) < 0 iff a ranks before
+     * (is better than) b. It must never return 0 for distinct ids, so that
+     * results are deterministic.
+     */
+    interface Ranking {
+        int compare(int a, int b);
+    }
+
+    private TopK() {
+    }
+
+    /**
+     * @param n
+     *            number of candidate ids, 0..n-1.
+     * @param k
+     *            maximum number of ids to select, k >= 0.
+     * @param ranking
+     *            order of the ids.
+     * @return the min(k, n) best ids, best first.
+     */
+    static int[] select(final int n, final int k, final Ranking ranking) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k is a negative number");
+        }
+        final int size = Math.min(k, n);
+        if (size == 0) {
+            return new int[0];
+        }
+
+        // heap[0] is the worst of the best ids seen so far
+        final int[] heap = new int[size];
+        int count = 0;
+        for (int id = 0; id < n; ++id) {
+            if (count < size) {
+                heap[count] = id;
+                siftUp(heap, count++, ranking);
+            } else if (ranking.compare(id, heap[0]) < 0) {
+                heap[0] = id;
+                siftDown(heap, 0, size, ranking);
+            }
+        }
+
+        // pop the worst first and fill the result from the back
+        final int[] best = new int[size];
+        for (int last = size - 1; last >= 0; --last) {
+            best[last] = heap[0];
+            heap[0] = heap[last];
+            siftDown(heap, 0, last, ranking);
+        }
+        return best;
+    }
+
+    /**
+     * @param counts
+     *            a count per id.
+     * @param names
+     *            a distinct name per id, at least counts.length of them.
+     * @return ranking by descending count, then ascending name.
+     */
+    static Ranking byCount(final int[] counts, final String[] names) {
+        return (a, b) -> counts[a] != counts[b]
+                ? Integer.compare(counts[b], counts[a])
+                : names[a].compareTo(names[b]);
+    }
+
+    /**
+     * @param scores
+     *            a score per id.
+     * @param names
+     *            a distinct name per id, at least scores.length of them.
+     * @return ranking by descending score, then ascending name.
+     */
+    static Ranking byScore(final double[] scores, final String[] names) {
+        return (a, b) -> scores[a] != scores[b]
+                ? Double.compare(scores[b], scores[a])
+                : names[a].compareTo(names[b]);
+    }
+
+    // heap order: the worst id (greatest by ranking) at the root.
+    private static void siftUp(final int[] heap, int i, final Ranking ranking) {
+        while (i > 0) {
+            final int parent = (i - 1) / 2;
+            if (ranking.compare(heap[i], heap[parent]) <= 0) {
+                break;
+            }
+            swap(heap, i, parent);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(final int[] heap, int i, final int size, final Ranking ranking) {
+        while (true) {
+            final int left = 2 * i + 1;
+            if (left >= size) {
+                break;
+            }
+            final int right = left + 1;
+            final int child = (right < size && ranking.compare(heap[right], heap[left]) > 0) ? right : left;
+            if (ranking.compare(heap[i], heap[child]) >= 0) {
+                break;
+            }
+            swap(heap, i, child);
+            i = child;
+        }
+    }
+
+    private static void swap(final int[] heap, final int i, final int j) {
+        final int t = heap[i];
+        heap[i] = heap[j];
+        heap[j] = t;
+    }
+
+    /**
+     * @param ids
+     *            ids chosen by select().
+     * @param names
+     *            a name per id.
+     * @return the names of ids, in the same order.
+     */
+    static List<String> names(final int[] ids, final String[] names) {
+        final List<String> result = new ArrayList<String>(ids.length);
+        for (int id : ids) {
+            result.add(names[id]);
+        }
+        return result;
+    }
+}
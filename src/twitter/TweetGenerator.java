@@ -0,0 +1,390 @@
+package twitter;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * TweetGenerator produces a deterministic synthetic corpus of tweets for load
+ * tests of Extract, Filter and SocialNetwork.
+ *
+ * Authors, mention targets and words are drawn from Zipf distributions with
+ * configurable exponents, so a few users write and receive most of the
+ * traffic. Timestamps follow an arrival process with a daily cycle and
+ * occasional bursts, and are increasing with the tweet index. A configurable
+ * fraction of tweets carries the edge cases of the username-mention rules:
+ * email addresses, "@@name", names longer than 15 characters, "@name@mit"
+ * and upper case mentions.
+ *
+ * Tweet i depends only on the seed, the settings and i, so any range of the
+ * corpus can be generated on its own, in any order and in parallel, without
+ * materializing the rest:
+ *
+ *     TweetGenerator generator = new TweetGenerator(42).withUsers(1000000);
+ *     long n = generator.stream(0, 1000000000L).parallel()
+ *             .filter(t -> t.getText().contains("@")).count();
+ *
+ * Authors do not mention themselves. Tweet ids are index + 1.
+ *
+ * A TweetGenerator is immutable and safe to share between threads; the
+ * with...() methods return modified copies.
+ */
+public class TweetGenerator {
+
+    /** number of consecutive tweets that burst together. */
+    private static final int BURST_BLOCK = 1024;
+    private static final double DAY_SECONDS = 24 * 3600;
+
+    private final long seed;
+    private final int users;
+    private final double authorSkew;
+    private final double mentionSkew;
+    private final int vocabulary;
+    private final double wordSkew;
+    private final double mentionsPerTweet;
+    private final Instant start;
+    private final double tweetsPerSecond;
+    private final double diurnalAmplitude;
+    private final double burstProbability;
+    private final double burstFactor;
+    private final double edgeCaseRate;
+    private final ZipfSampler authorSampler;
+    private final ZipfSampler mentionSampler;
+    private final ZipfSampler wordSampler;
+    // Rep invariant:
+    //   users >= 2, vocabulary >= 1, skews >= 0, mentionsPerTweet >= 0,
+    //   tweetsPerSecond > 0, 0 <= diurnalAmplitude < 1,
+    //   0 <= burstProbability <= 1, burstFactor >= 1, 0 <= edgeCaseRate <= 1
+    //   the samplers match users/vocabulary and the skews
+    //
+    // Abstraction Function:
+    //   represents the infinite sequence of tweets tweet(0), tweet(1), ...
+    //   determined by seed and the settings.
+    //
+    // Safety from rep exposure:
+    //   All fields are private and final; the samplers are immutable and
+    //   shared only with other TweetGenerators.
+    //
+    // Thread safety argument:
+    //   All fields are final and refer to immutable objects, so a generator
+    //   is safely published however it is shared.
+
+    /**
+     * Make a generator with default settings: 100000 users, 50000 words,
+     * 100 tweets per second starting 2016-01-01, 0.8 mentions per tweet.
+     *
+     * @param seed
+     *            seed; equal seeds and settings give equal corpora.
+     */
+    public TweetGenerator(final long seed) {
+        this(seed, 100000, 1.0, 1.1, 50000, 1.0, 0.8, Instant.parse("2016-01-01T00:00:00Z"), 100, 0.5, 0.01, 20,
+                0.02, null);
+    }
+
+    // Creator: a generator with the given settings; reuses the samplers of
+    // like, if it has the same users, vocabulary and skews.
+    private TweetGenerator(final long seed, final int users, final double authorSkew, final double mentionSkew,
+            final int vocabulary, final double wordSkew, final double mentionsPerTweet, final Instant start,
+            final double tweetsPerSecond, final double diurnalAmplitude, final double burstProbability,
+            final double burstFactor, final double edgeCaseRate, final TweetGenerator like) {
+        this.seed = seed;
+        this.users = users;
+        this.authorSkew = authorSkew;
+        this.mentionSkew = mentionSkew;
+        this.vocabulary = vocabulary;
+        this.wordSkew = wordSkew;
+        this.mentionsPerTweet = mentionsPerTweet;
+        this.start = start;
+        this.tweetsPerSecond = tweetsPerSecond;
+        this.diurnalAmplitude = diurnalAmplitude;
+        this.burstProbability = burstProbability;
+        this.burstFactor = burstFactor;
+        this.edgeCaseRate = edgeCaseRate;
+        if (like != null && like.users == users && like.authorSkew == authorSkew
+                && like.mentionSkew == mentionSkew && like.vocabulary == vocabulary && like.wordSkew == wordSkew) {
+            this.authorSampler = like.authorSampler;
+            this.mentionSampler = like.mentionSampler;
+            this.wordSampler = like.wordSampler;
+        } else {
+            this.authorSampler = new ZipfSampler(users, authorSkew);
+            this.mentionSampler = new ZipfSampler(users, mentionSkew);
+            this.wordSampler = new ZipfSampler(vocabulary, wordSkew);
+        }
+    }
+
+    /**
+     * @param users
+     *            number of distinct usernames, at least 2.
+     * @return a copy of this generator with that many users.
+     */
+    public TweetGenerator withUsers(final int users) {
+        if (users < 2) {
+            throw new IllegalArgumentException("need at least 2 users");
+        }
+        return new TweetGenerator(seed, users, authorSkew, mentionSkew, vocabulary, wordSkew, mentionsPerTweet,
+                start, tweetsPerSecond, diurnalAmplitude, burstProbability, burstFactor, edgeCaseRate, this);
+    }
+
+    /**
+     * @param authorSkew
+     *            Zipf exponent of authors, >= 0 (0 is uniform).
+     * @param mentionSkew
+     *            Zipf exponent of mention targets, >= 0.
+     * @param wordSkew
+     *            Zipf exponent of words, >= 0.
+     * @return a copy of this generator with those exponents.
+     */
+    public TweetGenerator withSkew(final double authorSkew, final double mentionSkew, final double wordSkew) {
+        return new TweetGenerator(seed, users, authorSkew, mentionSkew, vocabulary, wordSkew, mentionsPerTweet,
+                start, tweetsPerSecond, diurnalAmplitude, burstProbability, burstFactor, edgeCaseRate, this);
+    }
+
+    /**
+     * @param vocabulary
+     *            number of distinct words, at least 1.
+     * @return a copy of this generator with that vocabulary size.
+     */
+    public TweetGenerator withVocabulary(final int vocabulary) {
+        return new TweetGenerator(seed, users, authorSkew, mentionSkew, vocabulary, wordSkew, mentionsPerTweet,
+                start, tweetsPerSecond, diurnalAmplitude, burstProbability, burstFactor, edgeCaseRate, this);
+    }
+
+    /**
+     * @param mentionsPerTweet
+     *            average number of @-mentions per tweet, >= 0.
+     * @return a copy of this generator with that mention density.
+     */
+    public TweetGenerator withMentionsPerTweet(final double mentionsPerTweet) {
+        if (!(mentionsPerTweet >= 0)) {
+            throw new IllegalArgumentException("mentionsPerTweet must not be negative");
+        }
+        return new TweetGenerator(seed, users, authorSkew, mentionSkew, vocabulary, wordSkew, mentionsPerTweet,
+                start, tweetsPerSecond, diurnalAmplitude, burstProbability, burstFactor, edgeCaseRate, this);
+    }
+
+    /**
+     * @param start
+     *            timestamp around which the first tweet is sent.
+     * @param tweetsPerSecond
+     *            average arrival rate, > 0.
+     * @param diurnalAmplitude
+     *            relative amplitude of the daily cycle of the arrival rate,
+     *            0 <= diurnalAmplitude < 1.
+     * @return a copy of this generator with that arrival process.
+     */
+    public TweetGenerator withArrivals(final Instant start, final double tweetsPerSecond,
+            final double diurnalAmplitude) {
+        if (!(tweetsPerSecond > 0) || !(diurnalAmplitude >= 0 && diurnalAmplitude < 1)) {
+            throw new IllegalArgumentException("requires tweetsPerSecond > 0 and 0 <= diurnalAmplitude < 1");
+        }
+        return new TweetGenerator(seed, users, authorSkew, mentionSkew, vocabulary, wordSkew, mentionsPerTweet,
+                start, tweetsPerSecond, diurnalAmplitude, burstProbability, burstFactor, edgeCaseRate, this);
+    }
+
+    /**
+     * @param burstProbability
+     *            probability that a block of 1024 consecutive tweets is a
+     *            burst, 0 <= burstProbability <= 1.
+     * @param burstFactor
+     *            how many times faster than usual a burst arrives, >= 1.
+     * @return a copy of this generator with those bursts.
+     */
+    public TweetGenerator withBursts(final double burstProbability, final double burstFactor) {
+        if (!(burstProbability >= 0 && burstProbability <= 1) || !(burstFactor >= 1)) {
+            throw new IllegalArgumentException("requires 0 <= burstProbability <= 1 and burstFactor >= 1");
+        }
+        return new TweetGenerator(seed, users, authorSkew, mentionSkew, vocabulary, wordSkew, mentionsPerTweet,
+                start, tweetsPerSecond, diurnalAmplitude, burstProbability, burstFactor, edgeCaseRate, this);
+    }
+
+    /**
+     * @param edgeCaseRate
+     *            fraction of tweets that carry a mention edge case, 0..1.
+     * @return a copy of this generator with that rate.
+     */
+    public TweetGenerator withEdgeCaseRate(final double edgeCaseRate) {
+        if (!(edgeCaseRate >= 0 && edgeCaseRate <= 1)) {
+            throw new IllegalArgumentException("requires 0 <= edgeCaseRate <= 1");
+        }
+        return new TweetGenerator(seed, users, authorSkew, mentionSkew, vocabulary, wordSkew, mentionsPerTweet,
+                start, tweetsPerSecond, diurnalAmplitude, burstProbability, burstFactor, edgeCaseRate, this);
+    }
+
+    /**
+     * @param rank
+     *            popularity rank of a user, 1 <= rank <= users.
+     * @return the username of that user, at most 15 characters.
+     */
+    public String username(final int rank) {
+        return "user" + rank;
+    }
+
+    /**
+     * @param rank
+     *            popularity rank of a word, 1 <= rank <= vocabulary.
+     * @return that word.
+     */
+    public String word(final int rank) {
+        return "w" + Integer.toString(rank, 36);
+    }
+
+    /**
+     * @param index
+     *            position of the tweet in the corpus, >= 0.
+     * @return the tweet at that position.
+     */
+    public Tweet tweet(final long index) {
+        if (index < 0) {
+            throw new IllegalArgumentException("index is a negative number");
+        }
+        final SplittableRandom random = new SplittableRandom(mix(seed ^ mix(index)));
+        final int author = authorSampler.sample(random);
+        final StringBuilder text = new StringBuilder(140);
+
+        // words, then mentions, then perhaps an edge case, while they fit
+        for (int words = 2 + random.nextInt(10); words > 0; --words) {
+            append(text, word(wordSampler.sample(random)));
+        }
+        for (int mentions = poisson(random, mentionsPerTweet); mentions > 0; --mentions) {
+            final int target = mentionSampler.sample(random);
+            if (target != author) {
+                append(text, "@" + username(target));
+            }
+        }
+        if (random.nextDouble() < edgeCaseRate) {
+            append(text, edgeCase(random, author));
+        }
+        return new Tweet(index + 1, username(author), text.toString(), timestamp(index));
+    }
+
+    /**
+     * @param from
+     *            index of the first tweet, >= 0.
+     * @param to
+     *            index past the last tweet, >= from.
+     * @return a sequential stream of tweets from..to-1; call parallel() on it
+     *         to generate on all cores.
+     */
+    public Stream<Tweet> stream(final long from, final long to) {
+        if (from < 0 || to < from) {
+            throw new IllegalArgumentException("requires 0 <= from <= to");
+        }
+        return LongStream.range(from, to).mapToObj(this::tweet);
+    }
+
+    /**
+     * @param size
+     *            number of tweets, >= 0.
+     * @return a new list of the first size tweets.
+     */
+    public List<Tweet> list(final int size) {
+        return stream(0, size).parallel().collect(Collectors.toList());
+    }
+
+    /*
+     * Tweet i arrives when the cumulative arrival intensity reaches i + 0.5.
+     * The intensity is r * (1 + a * sin(2 pi t / day)), whose integral
+     * r * (t + a * day / (2 pi) * (1 - cos(2 pi t / day))) is increasing and
+     * is inverted by Newton's method. Bursts compress a whole block of
+     * tweets towards the block's first arrival, which keeps the order.
+     */
+    private Instant timestamp(final long index) {
+        double seconds = arrival(index + 0.5);
+        final long block = index / BURST_BLOCK;
+        if (burstProbability > 0 && unit(mix(seed ^ ~mix(block))) < burstProbability) {
+            final double blockStart = arrival(block * (double) BURST_BLOCK + 0.5);
+            seconds = blockStart + (seconds - blockStart) / burstFactor;
+        }
+        final long whole = (long) Math.floor(seconds);
+        return start.plusSeconds(whole).plusNanos((long) ((seconds - whole) * 1e9));
+    }
+
+    private double arrival(final double count) {
+        final double omega = 2 * Math.PI / DAY_SECONDS;
+        final double a = diurnalAmplitude;
+        double low = count / (tweetsPerSecond * (1 + a));
+        double high = count / (tweetsPerSecond * (1 - a));
+        double t = count / tweetsPerSecond;
+        for (int iteration = 0; iteration < 50; ++iteration) {
+            final double value = tweetsPerSecond * (t + a / omega * (1 - Math.cos(omega * t))) - count;
+            if (Math.abs(value) < 1e-9 * Math.max(1, count)) {
+                break;
+            }
+            if (value > 0) {
+                high = t;
+            } else {
+                low = t;
+            }
+            final double slope = tweetsPerSecond * (1 + a * Math.sin(omega * t));
+            double next = t - value / slope;
+            if (!(next > low && next < high)) {
+                next = (low + high) / 2; // Newton left the bracket, bisect instead
+            }
+            t = next;
+        }
+        return t;
+    }
+
+    private String edgeCase(final SplittableRandom random, final int author) {
+        int target = mentionSampler.sample(random);
+        if (target == author) {
+            target = target == 1 ? 2 : 1;
+        }
+        final String name = username(target);
+        switch (random.nextInt(5)) {
+        case 0:
+            return name + "@mit.edu";                 // email, no mention
+        case 1:
+            return "@@" + name;                       // mention of name
+        case 2:
+            return "@" + name + "_with_a_long_tail";  // too long, no mention
+        case 3:
+            return "@" + name + "@mit?";              // mention of name
+        default:
+            return "@" + name.toUpperCase() + "!";    // mention of name
+        }
+    }
+
+    private static void append(final StringBuilder text, final String token) {
+        final int needed = text.length() == 0 ? token.length() : token.length() + 1;
+        if (text.length() + needed <= 140) {
+            if (text.length() > 0) {
+                text.append(' ');
+            }
+            text.append(token);
+        }
+    }
+
+    // Knuth's Poisson sampler; fine for the small means used here.
+    private static int poisson(final SplittableRandom random, final double mean) {
+        if (mean <= 0) {
+            return 0;
+        }
+        final double limit = Math.exp(-mean);
+        int k = 0;
+        double p = random.nextDouble();
+        while (p > limit) {
+            ++k;
+            p *= random.nextDouble();
+        }
+        return k;
+    }
+
+    // MurmurHash3 64 bit finalizer.
+    private static long mix(long z) {
+        z ^= z >>> 33;
+        z *= 0xff51afd7ed558ccdL;
+        z ^= z >>> 33;
+        z *= 0xc4ceb9fe1a85ec53L;
+        z ^= z >>> 33;
+        return z;
+    }
+
+    // uniform double in [0, 1) from a hash.
+    private static double unit(final long hash) {
+        return (hash >>> 11) * 0x1.0p-53;
+    }
+}
@@ -0,0 +1,127 @@
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TweetIndex is an inverted author index over a list of tweets: it maps every
+ * author (case-insensitive) to the positions of that author's tweets, so that
+ * writtenBy() only touches the matching tweets instead of the whole list.
+ *
+ * The index is built once from a list and can then be extended with append()
+ * as new tweets arrive; positions are assigned in arrival order, so results
+ * keep the order of the input, exactly like Filter.writtenBy().
+ *
+ * A TweetIndex is mutable. Any number of threads may call writtenBy()
+ * concurrently as long as no thread is appending at the same time.
+ */
+public class TweetIndex {
+
+    private final List<Tweet> tweets;
+    private final Map<String, IntList> postings;
+    // Rep invariant:
+    //   every position in every posting list is a valid index into tweets
+    //   every posting list is nonempty and strictly increasing
+    //   tweets.get(i) is in the posting list of key k iff
+    //     tweets.get(i).getAuthor().toLowerCase().equals(k)
+    //
+    // Abstraction Function:
+    //   represents the sequence of tweets, with postings.get(a) the positions
+    //   of the tweets written by a.
+    //
+    // Safety from rep exposure:
+    //   All fields are private; tweets is a private copy of the input;
+    //   writtenBy() returns new lists of immutable Tweets.
+
+    /**
+     * Make an empty index.
+     */
+    public TweetIndex() {
+        this.tweets = new ArrayList<Tweet>();
+        this.postings = new HashMap<String, IntList>();
+    }
+
+    /**
+     * Make an index of a list of tweets.
+     *
+     * @param tweets
+     *            a list of tweets with distinct ids, not modified by this method.
+     */
+    public TweetIndex(final List<Tweet> tweets) {
+        this.tweets = new ArrayList<Tweet>(tweets.size());
+        this.postings = new HashMap<String, IntList>();
+        appendAll(tweets);
+    }
+
+    /**
+     * Add a tweet after the last indexed tweet.
+     *
+     * @param tweet
+     *            a tweet whose id is distinct from every indexed tweet.
+     */
+    public void append(final Tweet tweet) {
+        if (tweet == null) {
+            throw new NullPointerException("tweet is null");
+        }
+        final String author = tweet.getAuthor().toLowerCase();
+        IntList positions = postings.get(author);
+        if (positions == null) {
+            positions = new IntList();
+            postings.put(author, positions);
+        }
+        positions.add(tweets.size());
+        tweets.add(tweet);
+    }
+
+    /**
+     * Add tweets after the last indexed tweet, in list order.
+     *
+     * @param tweets
+     *            a list of tweets with ids distinct from each other and from
+     *            every indexed tweet, not modified by this method.
+     */
+    public void appendAll(final List<Tweet> tweets) {
+        for (Tweet t : tweets) {
+            append(t);
+        }
+    }
+
+    /**
+     * @return number of indexed tweets.
+     */
+    public int size() {
+        return tweets.size();
+    }
+
+    /**
+     * @return the indexed tweets, in the order they were added.
+     */
+    public List<Tweet> tweets() {
+        return Collections.unmodifiableList(tweets);
+    }
+
+    /**
+     * Find tweets written by a particular user.
+     *
+     * @param username
+     *            Twitter username, required to be a valid Twitter username as
+     *            defined by Tweet.getAuthor()'s spec.
+     * @return all and only the indexed tweets whose author is username, in
+     *         the order they were added; the same list as
+     *         Filter.writtenBy(tweets(), username).
+     */
+    public List<Tweet> writtenBy(final String username) {
+        final IntList positions = postings.get(username.toLowerCase());
+        if (positions == null) {
+            return new ArrayList<Tweet>();
+        }
+        final List<Tweet> matchedTweets = new ArrayList<Tweet>(positions.size());
+        for (int i = 0; i < positions.size(); ++i) {
+            matchedTweets.add(tweets.get(positions.get(i)));
+        }
+        return matchedTweets;
+    }
+}
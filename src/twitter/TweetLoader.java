@@ -0,0 +1,599 @@
+package twitter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+/**
+ * TweetLoader reads tweets from newline-delimited JSON files, one tweet per
+ * line, in parallel:
+ *
+ *   {"id":1,"author":"alyssa","text":"hi @bob","timestamp":"2016-02-17T10:00:00Z"}
+ *
+ * The four fields may come in any order, other fields are skipped whatever
+ * their value, the timestamp is in the format of Instant.toString(), and
+ * blank lines are ignored. write() produces such files.
+ *
+ * The file is memory-mapped in windows of 1 GiB, which are cut into chunks of
+ * 4 MiB parsed by the tasks of a ForkJoinPool. A chunk owns the lines that
+ * start in it: its task skips the partial line at its start and reads past
+ * its end to finish its last line, so no chunk boundary needs to be found
+ * before the tasks start. A task copies its lines out of the mapping with one
+ * bulk get and parses them in place with a small JSON parser that only makes
+ * the author and text Strings (and the timestamp) of a tweet.
+ * The tweets of the chunks are put back together in file order, and at most a
+ * few chunks per thread are in memory at a time when they are consumed in
+ * batches.
+ *
+ * A line may be at most MAX_LINE_LENGTH bytes long (not counting its
+ * newline) wherever it is in the file; a longer line fails the load.
+ * TweetLoader has only static methods.
+ */
+public class TweetLoader {
+
+    /** longest line accepted, in bytes. */
+    public static final int MAX_LINE_LENGTH = 1 << 20;
+
+    private static final int DEFAULT_CHUNK = 1 << 22;
+    private static final long WINDOW = 1L << 30;
+
+    private TweetLoader() {
+        // not instantiable
+    }
+
+    /**
+     * Load a file of tweets, in parallel on the common ForkJoinPool.
+     *
+     * @param file
+     *            a newline-delimited JSON file of tweets.
+     * @return the tweets of the file, in file order.
+     * @throws IOException
+     *             if the file cannot be read or a line is not a valid tweet.
+     */
+    public static List<Tweet> load(final Path file) throws IOException {
+        return load(file, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Load a file of tweets, in parallel on a given pool.
+     *
+     * @param file
+     *            a newline-delimited JSON file of tweets.
+     * @param pool
+     *            the pool whose threads parse the file.
+     * @return the tweets of the file, in file order.
+     * @throws IOException
+     *             if the file cannot be read or a line is not a valid tweet.
+     */
+    public static List<Tweet> load(final Path file, final ForkJoinPool pool) throws IOException {
+        final List<Tweet> tweets = new ArrayList<Tweet>();
+        forEachBatch(file, pool, DEFAULT_CHUNK, tweets::addAll);
+        return tweets;
+    }
+
+    /**
+     * Load a file of tweets in batches, in parallel on a given pool, without
+     * holding the whole file in memory.
+     *
+     * @param file
+     *            a newline-delimited JSON file of tweets.
+     * @param pool
+     *            the pool whose threads parse the file.
+     * @param batches
+     *            called in the calling thread with consecutive batches of the
+     *            tweets of the file, in file order.
+     * @throws IOException
+     *             if the file cannot be read or a line is not a valid tweet;
+     *             the batches before the bad line may have been delivered.
+     */
+    public static void forEachBatch(final Path file, final ForkJoinPool pool, final Consumer<List<Tweet>> batches)
+            throws IOException {
+        forEachBatch(file, pool, DEFAULT_CHUNK, batches);
+    }
+
+    // Producer: forEachBatch with chunks of chunkSize bytes.
+    static void forEachBatch(final Path file, final ForkJoinPool pool, final int chunkSize,
+            final Consumer<List<Tweet>> batches) throws IOException {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            final int window = 2 * pool.getParallelism() + 1;
+            final Deque<ForkJoinTask<List<Tweet>>> inFlight = new ArrayDeque<ForkJoinTask<List<Tweet>>>();
+            try {
+                for (long windowStart = 0; windowStart < size; windowStart += WINDOW) {
+                    // one mapping per window, shared by the tasks of its
+                    // chunks; it starts a byte early and runs a line late
+                    final long base = Math.max(0, windowStart - 1);
+                    final long windowEnd = Math.min(size, windowStart + WINDOW);
+                    final ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, base,
+                            Math.min(size, windowEnd + MAX_LINE_LENGTH) - base);
+                    for (long start = windowStart; start < windowEnd; start += chunkSize) {
+                        final int from = (int) (start - base);
+                        final int to = (int) (Math.min(windowEnd, start + chunkSize) - base);
+                        inFlight.add(pool.submit(() -> parseChunk(bytes, base, size, from, to)));
+                        if (inFlight.size() >= window) {
+                            batches.accept(join(inFlight.poll()));
+                        }
+                    }
+                }
+                while (!inFlight.isEmpty()) {
+                    batches.accept(join(inFlight.poll()));
+                }
+            } finally {
+                for (ForkJoinTask<List<Tweet>> task : inFlight) {
+                    task.cancel(false);
+                }
+            }
+        }
+    }
+
+    private static List<Tweet> join(final ForkJoinTask<List<Tweet>> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while loading tweets", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw new IOException("failed to load tweets", e.getCause());
+        }
+    }
+
+    // parse the lines that start in [from, to) of bytes, which maps the file
+    // from position base on; reads the mapping only with absolute gets.
+    private static List<Tweet> parseChunk(final ByteBuffer bytes, final long base, final long size,
+            final int from, final int to) {
+        try {
+            int p = from;
+            if (base + p > 0 && bytes.get(p - 1) != '\n') {
+                while (p < to && bytes.get(p) != '\n') {
+                    ++p;
+                }
+                ++p; // the line started in an earlier chunk
+            }
+            final List<Tweet> tweets = new ArrayList<Tweet>();
+            if (p >= to) {
+                return tweets;
+            }
+            // the last line that starts before to ends at the first newline
+            // from to - 1 on
+            int stop = to - 1;
+            while (stop < bytes.limit() && bytes.get(stop) != '\n') {
+                ++stop;
+            }
+            if (stop == bytes.limit() && base + stop < size) {
+                // the mapping runs MAX_LINE_LENGTH bytes past the window, so
+                // the last line is too long; report it where it starts
+                int last = to - 1;
+                while (last > p && bytes.get(last - 1) != '\n') {
+                    --last;
+                }
+                throw tooLong(base + last);
+            }
+            // one bulk copy, then parse the copy
+            final byte[] lines = new byte[stop - p];
+            final ByteBuffer view = bytes.duplicate();
+            view.position(p);
+            view.get(lines);
+
+            final LineParser parser = new LineParser(lines, base + p);
+            int start = 0;
+            while (start < lines.length) {
+                int end = start;
+                while (end < lines.length && lines[end] != '\n') {
+                    ++end;
+                }
+                if (end - start > MAX_LINE_LENGTH) {
+                    throw tooLong(base + p + start);
+                }
+                final Tweet tweet = parser.parse(start, end);
+                if (tweet != null) {
+                    tweets.add(tweet);
+                }
+                start = end + 1;
+            }
+            return tweets;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static IOException tooLong(final long line) {
+        return new IOException("bad tweet at byte " + line + ": line longer than " + MAX_LINE_LENGTH + " bytes");
+    }
+
+    /*
+     * LineParser parses a line of a file as a JSON object with the fields of
+     * a tweet, reading the bytes in place.
+     */
+    private static class LineParser {
+        private final byte[] bytes;
+        private final long base;
+        private final StringBuilder chars = new StringBuilder();
+        private int position;
+        private int end;
+
+        LineParser(final byte[] bytes, final long base) {
+            this.bytes = bytes;
+            this.base = base;
+        }
+
+        // the tweet of bytes [from, to), or null if the line is blank.
+        Tweet parse(final int from, final int to) throws IOException {
+            position = from;
+            end = to;
+            skipSpace();
+            if (position == end) {
+                return null;
+            }
+            final int line = from;
+            expect('{', line);
+            long id = 0;
+            String author = null;
+            String text = null;
+            Instant timestamp = null;
+            boolean hasId = false;
+            skipSpace();
+            if (peek() == '}') {
+                ++position;
+            } else {
+                while (true) {
+                    skipSpace();
+                    final int keyStart = position + 1;
+                    skipString(line);
+                    final int keyEnd = position - 1;
+                    skipSpace();
+                    expect(':', line);
+                    skipSpace();
+                    if (isKey(keyStart, keyEnd, "id")) {
+                        id = number(line);
+                        hasId = true;
+                    } else if (isKey(keyStart, keyEnd, "author")) {
+                        author = string(line);
+                    } else if (isKey(keyStart, keyEnd, "text")) {
+                        text = string(line);
+                    } else if (isKey(keyStart, keyEnd, "timestamp")) {
+                        timestamp = timestamp(line);
+                    } else {
+                        skipValue(line);
+                    }
+                    skipSpace();
+                    final byte b = next(line);
+                    if (b == '}') {
+                        break;
+                    }
+                    if (b != ',') {
+                        throw error(line, "expected , or }");
+                    }
+                }
+            }
+            skipSpace();
+            if (position != end) {
+                throw error(line, "text after the object");
+            }
+            if (!hasId || author == null || text == null || timestamp == null) {
+                throw error(line, "missing id, author, text or timestamp");
+            }
+            if (author.isEmpty()) {
+                throw error(line, "empty author");
+            }
+            for (int i = 0; i < author.length(); ++i) {
+                if (!MentionScanner.isUsernameChar(author.charAt(i))) {
+                    throw error(line, "author is not a username: " + author);
+                }
+            }
+            return new Tweet(id, author, text, timestamp);
+        }
+
+        IOException error(final int line, final String message) {
+            return new IOException("bad tweet at byte " + (base + line) + ": " + message);
+        }
+
+        private int peek() {
+            return position < end ? bytes[position] : -1;
+        }
+
+        private byte next(final int line) throws IOException {
+            if (position >= end) {
+                throw error(line, "unexpected end of line");
+            }
+            return bytes[position++];
+        }
+
+        private void expect(final char c, final int line) throws IOException {
+            if (next(line) != c) {
+                throw error(line, "expected " + c);
+            }
+        }
+
+        private void skipSpace() {
+            while (position < end) {
+                final byte b = bytes[position];
+                if (b != ' ' && b != '\t' && b != '\r') {
+                    return;
+                }
+                ++position;
+            }
+        }
+
+        // true iff the key in bytes [from, to) is the ASCII name.
+        private boolean isKey(final int from, final int to, final String name) {
+            if (to - from != name.length()) {
+                return false;
+            }
+            for (int i = 0; i < name.length(); ++i) {
+                if (bytes[from + i] != name.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private long number(final int line) throws IOException {
+            final boolean negative = peek() == '-';
+            if (negative) {
+                ++position;
+            }
+            final int first = position;
+            long value = 0;
+            while (position < end && bytes[position] >= '0' && bytes[position] <= '9') {
+                final int digit = bytes[position++] - '0';
+                if (value < (Long.MIN_VALUE + digit) / 10) {
+                    throw error(line, "id out of range");
+                }
+                value = value * 10 - digit; // accumulate negatively to reach Long.MIN_VALUE
+            }
+            final int c = peek();
+            if (position == first || c == '.' || c == 'e' || c == 'E') {
+                throw error(line, "id is not an integer");
+            }
+            if (!negative && value == Long.MIN_VALUE) {
+                throw error(line, "id out of range");
+            }
+            return negative ? value : -value;
+        }
+
+        // a timestamp string; "yyyy-MM-ddTHH:mm:ss[.fraction]Z" is read
+        // straight from the bytes, any other form goes to Instant.parse().
+        private Instant timestamp(final int line) throws IOException {
+            final int start = position;
+            final Instant fast = utcTimestamp();
+            if (fast != null) {
+                return fast;
+            }
+            position = start;
+            final String value = string(line);
+            try {
+                return Instant.parse(value);
+            } catch (DateTimeParseException e) {
+                throw error(line, "bad timestamp " + value);
+            }
+        }
+
+        private Instant utcTimestamp() {
+            final int p = position;
+            if (p + 22 > end || bytes[p] != '"' || bytes[p + 5] != '-' || bytes[p + 8] != '-'
+                    || bytes[p + 11] != 'T' || bytes[p + 14] != ':' || bytes[p + 17] != ':') {
+                return null;
+            }
+            final int year = digits(p + 1, 4);
+            final int month = digits(p + 6, 2);
+            final int day = digits(p + 9, 2);
+            final int hour = digits(p + 12, 2);
+            final int minute = digits(p + 15, 2);
+            final int second = digits(p + 18, 2);
+            if (year < 0 || month < 1 || month > 12 || day < 1 || day > 28 && day > lengthOfMonth(year, month)
+                    || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+                return null;
+            }
+            int q = p + 20;
+            int nanos = 0;
+            if (bytes[q] == '.') {
+                int scale = 100000000;
+                ++q;
+                while (q < end && scale > 0 && bytes[q] >= '0' && bytes[q] <= '9') {
+                    nanos += (bytes[q++] - '0') * scale;
+                    scale /= 10;
+                }
+                if (q == p + 21) {
+                    return null;
+                }
+            }
+            if (q + 2 > end || bytes[q] != 'Z' || bytes[q + 1] != '"') {
+                return null;
+            }
+            position = q + 2;
+            final long days = LocalDate.of(year, month, day).toEpochDay();
+            return Instant.ofEpochSecond(days * 86400 + hour * 3600 + minute * 60 + second, nanos);
+        }
+
+        // the non-negative number of count decimal digits at i, or -1.
+        private int digits(final int i, final int count) {
+            int value = 0;
+            for (int k = i; k < i + count; ++k) {
+                final byte b = bytes[k];
+                if (b < '0' || b > '9') {
+                    return -1;
+                }
+                value = value * 10 + (b - '0');
+            }
+            return value;
+        }
+
+        private static int lengthOfMonth(final int year, final int month) {
+            return LocalDate.of(year, month, 1).lengthOfMonth();
+        }
+
+        private String string(final int line) throws IOException {
+            expect('"', line);
+            // runs of bytes between escapes are decoded straight from the line
+            int run = position;
+            boolean escaped = false;
+            while (true) {
+                final byte b = next(line);
+                if (b == '"') {
+                    break;
+                }
+                if (b == '\\') {
+                    if (!escaped) {
+                        chars.setLength(0);
+                        escaped = true;
+                    }
+                    chars.append(new String(bytes, run, position - 1 - run, StandardCharsets.UTF_8));
+                    chars.append(escape(line));
+                    run = position;
+                } else if (b >= 0 && b < 0x20) {
+                    throw error(line, "control character in string");
+                }
+            }
+            final String last = new String(bytes, run, position - 1 - run, StandardCharsets.UTF_8);
+            return escaped ? chars.append(last).toString() : last;
+        }
+
+        private char escape(final int line) throws IOException {
+            final byte b = next(line);
+            switch (b) {
+            case '"': return '"';
+            case '\\': return '\\';
+            case '/': return '/';
+            case 'b': return '\b';
+            case 'f': return '\f';
+            case 'n': return '\n';
+            case 'r': return '\r';
+            case 't': return '\t';
+            case 'u':
+                int c = 0;
+                for (int i = 0; i < 4; ++i) {
+                    final int digit = Character.digit(next(line), 16);
+                    if (digit < 0) {
+                        throw error(line, "bad \\u escape");
+                    }
+                    c = c * 16 + digit;
+                }
+                return (char) c;
+            default:
+                throw error(line, "bad escape");
+            }
+        }
+
+        private void skipString(final int line) throws IOException {
+            expect('"', line);
+            while (true) {
+                final byte b = next(line);
+                if (b == '"') {
+                    return;
+                }
+                if (b == '\\') {
+                    next(line);
+                }
+            }
+        }
+
+        // skip a value of a field this parser does not read.
+        private void skipValue(final int line) throws IOException {
+            final int c = peek();
+            if (c == '"') {
+                skipString(line);
+            } else if (c == '{' || c == '[') {
+                int depth = 0;
+                do {
+                    final int d = peek();
+                    if (d == '"') {
+                        skipString(line);
+                        continue;
+                    }
+                    next(line);
+                    if (d == '{' || d == '[') {
+                        ++depth;
+                    } else if (d == '}' || d == ']') {
+                        --depth;
+                    }
+                } while (depth > 0);
+            } else {
+                final int first = position;
+                while (position < end) {
+                    final byte b = bytes[position];
+                    if (b == ',' || b == '}' || b == ']' || b == ' ' || b == '\t' || b == '\r') {
+                        break;
+                    }
+                    ++position;
+                }
+                if (position == first) {
+                    throw error(line, "missing value");
+                }
+            }
+        }
+    }
+
+    /**
+     * Write tweets to a newline-delimited JSON file that load() reads back.
+     *
+     * @param tweets
+     *            tweets to write, not modified by this method.
+     * @param file
+     *            file to create or replace.
+     * @throws IOException
+     *             if the file cannot be written.
+     */
+    public static void write(final List<Tweet> tweets, final Path file) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            final StringBuilder line = new StringBuilder();
+            for (Tweet t : tweets) {
+                line.setLength(0);
+                line.append("{\"id\":").append(t.getId()).append(",\"author\":");
+                quote(t.getAuthor(), line);
+                line.append(",\"text\":");
+                quote(t.getText(), line);
+                line.append(",\"timestamp\":\"").append(t.getTimestamp()).append("\"}\n");
+                out.append(line);
+            }
+        }
+    }
+
+    // append s as a JSON string.
+    private static void quote(final String s, final StringBuilder out) {
+        out.append('"');
+        for (int i = 0; i < s.length(); ++i) {
+            final char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c == '\n') {
+                out.append("\\n");
+            } else if (c < 0x20 || Character.isSurrogate(c) && !validSurrogate(s, i)) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('"');
+    }
+
+    // true iff the surrogate at i is half of a pair, which UTF-8 can encode.
+    private static boolean validSurrogate(final String s, final int i) {
+        final char c = s.charAt(i);
+        return Character.isHighSurrogate(c)
+                ? i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))
+                : i > 0 && Character.isHighSurrogate(s.charAt(i - 1));
+    }
+}
@@ -0,0 +1,757 @@
+package twitter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * TweetSegment is a compact binary file of tweets, cut into blocks of a few
+ * thousand tweets that a reader can skip without reading them.
+ *
+ * Every block stores its tweets in four columns:
+ *
+ *   ids: the first id, then the difference of each id from the previous one
+ *   timestamps: nanoseconds since the epoch, as the first value, the first
+ *       difference, then the difference of each difference from the
+ *       previous one (delta-of-delta), which is 0 or small for tweets
+ *       arriving at a steady rate
+ *   authors: ids into the author dictionary of the segment
+ *   texts: each text as its length and its UTF-8 bytes
+ *
+ * Numbers are zig-zag varints. The file starts with a magic number and a
+ * version, which its trailer repeats. A footer at the end of the file holds the
+ * author dictionary and, for every block, its position, a CRC-32 and a zone
+ * map: the smallest and largest timestamp of the block, and a Bloom filter
+ * of its authors (ignoring case). open() reads only the footer;
+ * inTimespan() reads only the blocks whose timestamps overlap the timespan,
+ * and writtenBy() only the blocks whose filter may hold the author, after
+ * checking the dictionary. Tweets written in time order make the zone maps
+ * narrow; write() keeps the order it is given.
+ *
+ * Timestamps must lie between the years 1677 and 2262.
+ *
+ * A TweetSegment is immutable (but for the count of bytes read) and safe to
+ * share between threads.
+ */
+public class TweetSegment implements Closeable {
+
+    /** number of tweets per block written by write(). */
+    public static final int DEFAULT_BLOCK_SIZE = 4096;
+
+    private static final int MAGIC = 0x47535754; // "TWSG" in little-endian
+    private static final int VERSION = 1;
+    private static final int HEADER = 8;
+    private static final int TRAILER = 24;
+    private static final int BLOOM_BITS_PER_AUTHOR = 10;
+    private static final int BLOOM_PROBES = 6;
+
+    private final FileChannel channel;
+    private final String[] authors;
+    private final Map<String, IntList> foldedAuthors = new HashMap<String, IntList>();
+    private final Block[] blocks;
+    private final int size;
+    private final AtomicLong bytesRead = new AtomicLong();
+    // Rep invariant:
+    //   blocks are in file order; size is the sum of their counts
+    //   every author id in a block is < authors.length; foldedAuthors maps
+    //     a folded name to the ids of the author names with that fold
+    //   the zone map of every block holds its timestamps and authors
+    //
+    // Abstraction Function:
+    //   represents the tweets of the blocks of the file of channel, in
+    //   order.
+    //
+    // Safety from rep exposure:
+    //   All fields are private; queries return new lists of new Tweets.
+    //
+    // Thread safety argument:
+    //   The fields are not mutated after construction, except bytesRead,
+    //   which is atomic; blocks are read with positional reads, which
+    //   FileChannel allows from several threads at once.
+
+    /*
+     * Block is the footer entry of a block: where it is, and its zone map.
+     */
+    private static class Block {
+        private long offset;
+        private int length;
+        private int count;
+        private int crc;
+        private long minNanos;
+        private long maxNanos;
+        private long[] bloom;
+    }
+
+    // Creator: reads the footer of an open segment file.
+    private TweetSegment(final FileChannel channel) throws IOException {
+        this.channel = channel;
+        final long fileSize = channel.size();
+        if (fileSize < HEADER + TRAILER) {
+            throw new IOException("not a tweet segment");
+        }
+        final byte[] headerBytes = new byte[HEADER];
+        read(channel, headerBytes, 0);
+        final Decoder header = new Decoder(headerBytes);
+        if (header.getInt() != MAGIC) {
+            throw new IOException("not a tweet segment");
+        }
+        final int headerVersion = header.getInt();
+        if (headerVersion != VERSION) {
+            throw new IOException("unsupported tweet segment version " + headerVersion);
+        }
+        final byte[] trailerBytes = new byte[TRAILER];
+        read(channel, trailerBytes, fileSize - TRAILER);
+        final Decoder trailer = new Decoder(trailerBytes);
+        final long footerOffset = trailer.getLong();
+        final int footerLength = trailer.getInt();
+        final int footerCrc = trailer.getInt();
+        final int version = trailer.getInt();
+        if (trailer.getInt() != MAGIC) {
+            throw new IOException("not a tweet segment");
+        }
+        if (version != VERSION) {
+            throw new IOException("unsupported tweet segment version " + version);
+        }
+        if (footerOffset < HEADER || footerLength < 0 || footerOffset + footerLength != fileSize - TRAILER) {
+            throw new IOException("corrupt tweet segment trailer");
+        }
+        final byte[] footerBytes = new byte[footerLength];
+        read(channel, footerBytes, footerOffset);
+        if (crc(footerBytes, 0, footerLength) != footerCrc) {
+            throw new IOException("corrupt tweet segment footer");
+        }
+
+        final Decoder footer = new Decoder(footerBytes);
+        authors = new String[footer.getVarInt()];
+        for (int a = 0; a < authors.length; ++a) {
+            authors[a] = footer.getString();
+            foldedAuthors.computeIfAbsent(fold(authors[a]), key -> new IntList(1)).add(a);
+        }
+        blocks = new Block[footer.getVarInt()];
+        long total = 0;
+        for (int b = 0; b < blocks.length; ++b) {
+            final Block block = new Block();
+            block.offset = footer.getLong();
+            block.length = footer.getInt();
+            block.count = footer.getInt();
+            block.crc = footer.getInt();
+            block.minNanos = footer.getLong();
+            block.maxNanos = footer.getLong();
+            block.bloom = new long[footer.getInt()];
+            for (int w = 0; w < block.bloom.length; ++w) {
+                block.bloom[w] = footer.getLong();
+            }
+            if (block.offset < HEADER || block.length < 0 || block.offset + block.length > footerOffset
+                    || block.count < 0 || Integer.bitCount(block.bloom.length) != 1) {
+                throw new IOException("corrupt tweet segment footer");
+            }
+            blocks[b] = block;
+            total += block.count;
+        }
+        if (total > Integer.MAX_VALUE) {
+            throw new IOException("segment has more than 2^31 - 1 tweets");
+        }
+        size = (int) total;
+    }
+
+    /**
+     * Open a segment file, reading only its footer.
+     *
+     * @param path
+     *            a file written by write().
+     * @return the segment; close it when done.
+     * @throws IOException
+     *             if the file cannot be read or is not a valid segment.
+     */
+    public static TweetSegment open(final Path path) throws IOException {
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new TweetSegment(channel);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return number of tweets in the segment.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return number of blocks in the segment.
+     */
+    public int blockCount() {
+        return blocks.length;
+    }
+
+    /**
+     * @return number of block bytes read by queries so far.
+     */
+    public long bytesRead() {
+        return bytesRead.get();
+    }
+
+    /**
+     * @return the smallest timespan containing every tweet, from the zone maps
+     *         alone; requires size() > 0.
+     */
+    public Timespan timespan() {
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (Block block : blocks) {
+            if (block.count > 0) {
+                min = Math.min(min, block.minNanos);
+                max = Math.max(max, block.maxNanos);
+            }
+        }
+        if (min > max) {
+            throw new IllegalArgumentException("segment is empty");
+        }
+        return new Timespan(instant(min), instant(max));
+    }
+
+    /**
+     * @return all tweets of the segment, in file order.
+     * @throws IOException
+     *             if the file cannot be read or a block is corrupt.
+     */
+    public List<Tweet> tweets() throws IOException {
+        final List<Tweet> tweets = new ArrayList<Tweet>(size);
+        for (Block block : blocks) {
+            decode(block, null, Long.MIN_VALUE, Long.MAX_VALUE, tweets);
+        }
+        return tweets;
+    }
+
+    /**
+     * Find tweets written by a particular user, as Filter.writtenBy() does,
+     * reading only the blocks whose Bloom filter may hold the user.
+     *
+     * @param username
+     *            Twitter username.
+     * @return all and only the tweets of the segment whose author is
+     *         username, ignoring case, in file order.
+     * @throws IOException
+     *             if the file cannot be read or a block is corrupt.
+     */
+    public List<Tweet> writtenBy(final String username) throws IOException {
+        final List<Tweet> found = new ArrayList<Tweet>();
+        final String folded = fold(username);
+        final IntList candidates = foldedAuthors.get(folded);
+        if (candidates == null) {
+            return found;
+        }
+        final boolean[] wanted = new boolean[authors.length];
+        boolean any = false;
+        for (int c = 0; c < candidates.size(); ++c) {
+            final int a = candidates.get(c);
+            wanted[a] = authors[a].equalsIgnoreCase(username);
+            any |= wanted[a];
+        }
+        if (!any) {
+            return found;
+        }
+        final long hash = hash(folded);
+        for (Block block : blocks) {
+            if (mightContain(block.bloom, hash)) {
+                decode(block, wanted, Long.MIN_VALUE, Long.MAX_VALUE, found);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Find tweets that were sent during a particular timespan, as
+     * Filter.inTimespan() does, reading only the blocks whose timestamps
+     * overlap it.
+     *
+     * @param timespan
+     *            timespan
+     * @return all and only the tweets of the segment sent during the
+     *         timespan, in file order.
+     * @throws IOException
+     *             if the file cannot be read or a block is corrupt.
+     */
+    public List<Tweet> inTimespan(final Timespan timespan) throws IOException {
+        final long start = TimeIndex.nanos(timespan.getStart());
+        final long end = TimeIndex.nanos(timespan.getEnd());
+        final List<Tweet> found = new ArrayList<Tweet>();
+        for (Block block : blocks) {
+            if (block.count > 0 && block.maxNanos >= start && block.minNanos <= end) {
+                decode(block, null, start, end, found);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Release the file.
+     *
+     * @throws IOException
+     *             if the file cannot be closed.
+     */
+    @Override public void close() throws IOException {
+        channel.close();
+    }
+
+    // read a block and add its tweets with an author in wanted (any if null)
+    // and a timestamp in [start, end] to out.
+    private void decode(final Block block, final boolean[] wanted, final long start, final long end,
+            final List<Tweet> out) throws IOException {
+        final byte[] bytes = new byte[block.length];
+        read(channel, bytes, block.offset);
+        bytesRead.addAndGet(bytes.length);
+        if (crc(bytes, 0, bytes.length) != block.crc) {
+            throw new IOException("corrupt tweet segment block at " + block.offset);
+        }
+        final int n = block.count;
+        final Decoder in = new Decoder(bytes);
+        final int idsLength = in.getVarInt();
+        final int timesLength = in.getVarInt();
+        final int authorsLength = in.getVarInt();
+        final Decoder ids = in.slice(idsLength);
+        final Decoder times = in.slice(timesLength);
+        final Decoder authorIds = in.slice(authorsLength);
+        final Decoder texts = in;
+
+        final int[] authorOf = new int[n];
+        boolean any = wanted == null;
+        for (int i = 0; i < n; ++i) {
+            authorOf[i] = authorIds.getVarInt();
+            if (authorOf[i] < 0 || authorOf[i] >= authors.length) {
+                throw new IOException("corrupt tweet segment block at " + block.offset);
+            }
+            any |= wanted != null && wanted[authorOf[i]];
+        }
+        if (!any) {
+            return; // a false positive of the Bloom filter
+        }
+
+        long id = 0;
+        long time = 0;
+        long delta = 0;
+        for (int i = 0; i < n; ++i) {
+            id += ids.getZigZag();
+            if (i == 0) {
+                time = times.getZigZag();
+            } else {
+                // wrapping arithmetic undoes the wrapping of the writer
+                delta = i == 1 ? times.getZigZag() : delta + times.getZigZag();
+                time += delta;
+            }
+            final int length = texts.getVarInt();
+            if ((wanted == null || wanted[authorOf[i]]) && time >= start && time <= end) {
+                out.add(new Tweet(id, authors[authorOf[i]], texts.getUtf8(length), instant(time)));
+            } else {
+                texts.skip(length);
+            }
+        }
+    }
+
+    private static void read(final FileChannel channel, final byte[] bytes, final long position)
+            throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("truncated tweet segment");
+            }
+        }
+    }
+
+    private static int crc(final byte[] bytes, final int from, final int length) {
+        final CRC32 crc = new CRC32();
+        crc.update(bytes, from, length);
+        return (int) crc.getValue();
+    }
+
+    private static Instant instant(final long nanos) {
+        return Instant.ofEpochSecond(Math.floorDiv(nanos, 1000000000L), Math.floorMod(nanos, 1000000000L));
+    }
+
+    // author folded so that two names are equal iff equalsIgnoreCase.
+    private static String fold(final String name) {
+        final char[] chars = new char[name.length()];
+        for (int i = 0; i < chars.length; ++i) {
+            chars[i] = WordMatcher.fold(name.charAt(i));
+        }
+        return new String(chars);
+    }
+
+    // 64-bit hash of a folded name, for the Bloom filters.
+    private static long hash(final String folded) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < folded.length(); ++i) {
+            h = (h ^ folded.charAt(i)) * 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static boolean mightContain(final long[] bloom, final long hash) {
+        final int mask = bloom.length * 64 - 1;
+        final int h1 = (int) hash;
+        final int h2 = (int) (hash >>> 32) | 1;
+        for (int k = 0; k < BLOOM_PROBES; ++k) {
+            final int bit = (h1 + k * h2) & mask;
+            if ((bloom[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void addToBloom(final long[] bloom, final long hash) {
+        final int mask = bloom.length * 64 - 1;
+        final int h1 = (int) hash;
+        final int h2 = (int) (hash >>> 32) | 1;
+        for (int k = 0; k < BLOOM_PROBES; ++k) {
+            final int bit = (h1 + k * h2) & mask;
+            bloom[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    /**
+     * Write tweets to a segment file, in blocks of DEFAULT_BLOCK_SIZE tweets.
+     *
+     * @param tweets
+     *            tweets to write, in the order they are to be stored; their
+     *            timestamps must be between the years 1677 and 2262. Not
+     *            modified by this method.
+     * @param path
+     *            file to create or replace, atomically.
+     * @throws IOException
+     *             if the file cannot be written.
+     */
+    public static void write(final List<Tweet> tweets, final Path path) throws IOException {
+        write(tweets, path, DEFAULT_BLOCK_SIZE);
+    }
+
+    // Producer: write with blocks of blockSize tweets.
+    static void write(final List<Tweet> tweets, final Path path, final int blockSize) throws IOException {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("blockSize must be positive");
+        }
+        final long[] nanos = new long[tweets.size()];
+        for (int i = 0; i < nanos.length; ++i) {
+            nanos[i] = TimeIndex.nanos(tweets.get(i).getTimestamp());
+            if (nanos[i] == Long.MIN_VALUE || nanos[i] == Long.MAX_VALUE) {
+                throw new IllegalArgumentException("timestamp out of range: " + tweets.get(i).getTimestamp());
+            }
+        }
+        final Map<String, Integer> authorIds = new HashMap<String, Integer>();
+        final List<String> authorNames = new ArrayList<String>();
+        final Encoder footer = new Encoder();
+        final Encoder ids = new Encoder();
+        final Encoder times = new Encoder();
+        final Encoder authorColumn = new Encoder();
+        final Encoder texts = new Encoder();
+        final Encoder block = new Encoder();
+        final Encoder index = new Encoder();
+        int blockCount = 0;
+
+        final Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                final Encoder header = new Encoder();
+                header.putInt(MAGIC);
+                header.putInt(VERSION);
+                long offset = header.writeTo(channel, 0);
+
+                for (int from = 0; from < tweets.size(); from += blockSize) {
+                    final int to = Math.min(tweets.size(), from + blockSize);
+                    ids.clear();
+                    times.clear();
+                    authorColumn.clear();
+                    texts.clear();
+                    long min = Long.MAX_VALUE;
+                    long max = Long.MIN_VALUE;
+                    long previousId = 0;
+                    long previousDelta = 0;
+                    final List<String> blockAuthors = new ArrayList<String>();
+                    final LongHashSet distinct = new LongHashSet();
+                    for (int i = from; i < to; ++i) {
+                        final Tweet t = tweets.get(i);
+                        ids.putZigZag(t.getId() - previousId);
+                        previousId = t.getId();
+                        if (i == from) {
+                            times.putZigZag(nanos[i]);
+                        } else {
+                            final long delta = nanos[i] - nanos[i - 1];
+                            times.putZigZag(i == from + 1 ? delta : delta - previousDelta);
+                            previousDelta = delta;
+                        }
+                        min = Math.min(min, nanos[i]);
+                        max = Math.max(max, nanos[i]);
+
+                        Integer author = authorIds.get(t.getAuthor());
+                        if (author == null) {
+                            author = authorNames.size();
+                            authorIds.put(t.getAuthor(), author);
+                            authorNames.add(t.getAuthor());
+                        }
+                        authorColumn.putVarInt(author);
+                        if (distinct.add(author)) {
+                            blockAuthors.add(fold(t.getAuthor()));
+                        }
+                        final byte[] text = t.getText().getBytes(StandardCharsets.UTF_8);
+                        texts.putVarInt(text.length);
+                        texts.putBytes(text, 0, text.length);
+                    }
+
+                    final long[] bloom = new long[bloomWords(blockAuthors.size())];
+                    for (String author : blockAuthors) {
+                        addToBloom(bloom, hash(author));
+                    }
+                    block.clear();
+                    block.putVarInt(ids.size());
+                    block.putVarInt(times.size());
+                    block.putVarInt(authorColumn.size());
+                    block.putEncoder(ids);
+                    block.putEncoder(times);
+                    block.putEncoder(authorColumn);
+                    block.putEncoder(texts);
+
+                    index.putLong(offset);
+                    index.putInt(block.size());
+                    index.putInt(to - from);
+                    index.putInt(block.crc());
+                    index.putLong(min);
+                    index.putLong(max);
+                    index.putInt(bloom.length);
+                    for (long word : bloom) {
+                        index.putLong(word);
+                    }
+                    offset += block.writeTo(channel, offset);
+                    ++blockCount;
+                }
+
+                footer.putVarInt(authorNames.size());
+                for (String author : authorNames) {
+                    footer.putString(author);
+                }
+                footer.putVarInt(blockCount);
+                footer.putEncoder(index);
+                final long footerOffset = offset;
+                offset += footer.writeTo(channel, offset);
+
+                final Encoder trailer = new Encoder();
+                trailer.putLong(footerOffset);
+                trailer.putInt(footer.size());
+                trailer.putInt(footer.crc());
+                trailer.putInt(VERSION);
+                trailer.putInt(MAGIC);
+                trailer.writeTo(channel, offset);
+                channel.force(true);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    // words of a Bloom filter for n keys: a power of two, at least one.
+    private static int bloomWords(final int n) {
+        final int bits = Math.max(64, n * BLOOM_BITS_PER_AUTHOR);
+        return Integer.highestOneBit(bits - 1) * 2 / 64;
+    }
+
+    /*
+     * Encoder is a growable byte array with little-endian and varint puts.
+     */
+    private static class Encoder {
+        private byte[] bytes = new byte[1024];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        private void ensure(final int more) {
+            if (size + more > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + more));
+            }
+        }
+
+        void putInt(final int value) {
+            ensure(4);
+            for (int i = 0; i < 4; ++i) {
+                bytes[size++] = (byte) (value >>> (8 * i));
+            }
+        }
+
+        void putLong(final long value) {
+            ensure(8);
+            for (int i = 0; i < 8; ++i) {
+                bytes[size++] = (byte) (value >>> (8 * i));
+            }
+        }
+
+        void putVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7fL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void putVarInt(final int value) {
+            putVarLong(value & 0xffffffffL);
+        }
+
+        void putZigZag(final long value) {
+            putVarLong((value << 1) ^ (value >> 63));
+        }
+
+        void putBytes(final byte[] from, final int offset, final int length) {
+            ensure(length);
+            System.arraycopy(from, offset, bytes, size, length);
+            size += length;
+        }
+
+        void putString(final String s) {
+            final byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+            putVarInt(utf8.length);
+            putBytes(utf8, 0, utf8.length);
+        }
+
+        void putEncoder(final Encoder other) {
+            putBytes(other.bytes, 0, other.size);
+        }
+
+        int crc() {
+            return TweetSegment.crc(bytes, 0, size);
+        }
+
+        // write the bytes at position; returns how many.
+        int writeTo(final FileChannel channel, final long position) throws IOException {
+            final ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, size);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, position + buffer.position());
+            }
+            return size;
+        }
+    }
+
+    /*
+     * Decoder reads what an Encoder wrote, from a range of a byte array.
+     */
+    private static class Decoder {
+        private final byte[] bytes;
+        private int position;
+        private final int end;
+
+        Decoder(final byte[] bytes) {
+            this(bytes, 0, bytes.length);
+        }
+
+        private Decoder(final byte[] bytes, final int from, final int to) {
+            this.bytes = bytes;
+            this.position = from;
+            this.end = to;
+        }
+
+        // a decoder of the next length bytes, which this one skips.
+        Decoder slice(final int length) throws IOException {
+            check(length);
+            final Decoder slice = new Decoder(bytes, position, position + length);
+            position += length;
+            return slice;
+        }
+
+        private void check(final int length) throws IOException {
+            if (length < 0 || length > end - position) {
+                throw new IOException("corrupt tweet segment");
+            }
+        }
+
+        int getInt() throws IOException {
+            check(4);
+            int value = 0;
+            for (int i = 0; i < 4; ++i) {
+                value |= (bytes[position++] & 0xff) << (8 * i);
+            }
+            return value;
+        }
+
+        long getLong() throws IOException {
+            check(8);
+            long value = 0;
+            for (int i = 0; i < 8; ++i) {
+                value |= (bytes[position++] & 0xffL) << (8 * i);
+            }
+            return value;
+        }
+
+        long getVarLong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                check(1);
+                final byte b = bytes[position++];
+                value |= (long) (b & 0x7f) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IOException("corrupt tweet segment");
+        }
+
+        int getVarInt() throws IOException {
+            final long value = getVarLong();
+            if (value < 0 || value > Integer.MAX_VALUE) {
+                throw new IOException("corrupt tweet segment");
+            }
+            return (int) value;
+        }
+
+        long getZigZag() throws IOException {
+            final long value = getVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        String getUtf8(final int length) throws IOException {
+            check(length);
+            final String s = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return s;
+        }
+
+        void skip(final int length) throws IOException {
+            check(length);
+            position += length;
+        }
+
+        String getString() throws IOException {
+            return getUtf8(getVarInt());
+        }
+    }
+}
@@ -0,0 +1,401 @@
+package twitter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * TweetStore holds a corpus of tweets in columns of primitives instead of one
+ * object graph per tweet: ids and timestamps (nanoseconds since the epoch) in
+ * long arrays, authors as int ids into a dictionary of distinct author
+ * strings, and texts as UTF-8 bytes in a shared arena of large pages, found
+ * through a reference and a length per tweet. A tweet costs about 32 bytes
+ * plus its text, against the several objects of a Tweet.
+ *
+ * tweets() shows the store as a List<Tweet>, so Extract, Filter and
+ * SocialNetwork work on it unchanged. Its elements are flyweights created on
+ * demand: they hold only the store and an index, and decode the text or build
+ * the timestamp only when asked. writtenBy(), inTimespan() and containing()
+ * are the Filter operations done directly on the columns: an int compare per
+ * tweet, a long compare per tweet, and a word scan over the raw bytes of
+ * ASCII texts.
+ *
+ * Timestamps must lie between the years 1677 and 2262, the range of a long
+ * count of nanoseconds.
+ *
+ * A TweetStore is mutable (tweets can be appended) and not thread-safe.
+ */
+public class TweetStore {
+
+    private static final int DEFAULT_PAGE = 1 << 24;
+
+    private final int pageSize;
+    private int size;
+    private long[] ids = new long[16];
+    private long[] nanos = new long[16];
+    private int[] authors = new int[16];
+    private long[] textRefs = new long[16];
+    private int[] textLengths = new int[16];
+    private final BitSet nonAscii = new BitSet();
+
+    private final List<byte[]> pages = new ArrayList<byte[]>();
+    private int pageUsed;
+
+    private final Map<String, Integer> authorIds = new HashMap<String, Integer>();
+    private final List<String> authorNames = new ArrayList<String>();
+    private final Map<String, IntList> foldedAuthors = new HashMap<String, IntList>();
+    // Rep invariant:
+    //   0 <= size <= length of every column array
+    //   authorNames are distinct; authorIds maps authorNames.get(a) to a;
+    //     foldedAuthors maps fold(s) to the ids of all author names s with
+    //     that fold; 0 <= authors[i] < authorNames.size() for i < size
+    //   the text of tweet i is the textLengths[i] bytes at offset
+    //     (int) textRefs[i] of page textRefs[i] >>> 32; nonAscii.get(i) iff
+    //     one of them is >= 0x80
+    //   pageUsed bytes of the last page are taken
+    //
+    // Abstraction Function:
+    //   represents the sequence of tweets i = 0..size-1 with id ids[i],
+    //   author authorNames.get(authors[i]), the UTF-8 text of tweet i and
+    //   the timestamp nanos[i] nanoseconds after the epoch.
+    //
+    // Safety from rep exposure:
+    //   All fields are private; arrays are never returned; views and
+    //   flyweights only read through the store.
+
+    /**
+     * Make an empty store.
+     */
+    public TweetStore() {
+        this(DEFAULT_PAGE);
+    }
+
+    // Creator: a store with text pages of pageSize bytes.
+    TweetStore(final int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("pageSize must be positive");
+        }
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Make a store of a list of tweets.
+     *
+     * @param tweets
+     *            tweets to store, not modified by this method.
+     */
+    public TweetStore(final List<Tweet> tweets) {
+        this();
+        appendAll(tweets);
+    }
+
+    /**
+     * Append a tweet to the end of the store.
+     *
+     * @param tweet
+     *            tweet to add; its timestamp must be between the years 1677
+     *            and 2262.
+     */
+    public void append(final Tweet tweet) {
+        final long time = TimeIndex.nanos(tweet.getTimestamp());
+        if (time == Long.MIN_VALUE || time == Long.MAX_VALUE) {
+            throw new IllegalArgumentException("timestamp out of range: " + tweet.getTimestamp());
+        }
+        final byte[] text = tweet.getText().getBytes(StandardCharsets.UTF_8);
+        if (size == ids.length) {
+            final int capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            nanos = Arrays.copyOf(nanos, capacity);
+            authors = Arrays.copyOf(authors, capacity);
+            textRefs = Arrays.copyOf(textRefs, capacity);
+            textLengths = Arrays.copyOf(textLengths, capacity);
+        }
+        ids[size] = tweet.getId();
+        nanos[size] = time;
+        authors[size] = authorId(tweet.getAuthor());
+        textRefs[size] = store(text);
+        textLengths[size] = text.length;
+        for (byte b : text) {
+            if (b < 0) {
+                nonAscii.set(size);
+                break;
+            }
+        }
+        ++size;
+    }
+
+    /**
+     * Append tweets to the end of the store, in order.
+     *
+     * @param tweets
+     *            tweets to add, not modified by this method.
+     */
+    public void appendAll(final List<Tweet> tweets) {
+        for (Tweet t : tweets) {
+            append(t);
+        }
+    }
+
+    // copy text into the arena; returns page << 32 | offset.
+    private long store(final byte[] text) {
+        if (pages.isEmpty() || pageUsed + text.length > pages.get(pages.size() - 1).length) {
+            // a text never spans pages; a text longer than a page gets its own
+            pages.add(new byte[Math.max(pageSize, text.length)]);
+            pageUsed = 0;
+        }
+        final long ref = ((long) (pages.size() - 1) << 32) | pageUsed;
+        System.arraycopy(text, 0, pages.get(pages.size() - 1), pageUsed, text.length);
+        pageUsed += text.length;
+        return ref;
+    }
+
+    private int authorId(final String author) {
+        Integer id = authorIds.get(author);
+        if (id == null) {
+            id = authorNames.size();
+            authorNames.add(author);
+            authorIds.put(author, id);
+            foldedAuthors.computeIfAbsent(fold(author), key -> new IntList(1)).add(id);
+        }
+        return id;
+    }
+
+    // author folded so that two names are equal iff equalsIgnoreCase.
+    private static String fold(final String name) {
+        final char[] chars = new char[name.length()];
+        for (int i = 0; i < chars.length; ++i) {
+            chars[i] = WordMatcher.fold(name.charAt(i));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * @return number of tweets in the store.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return number of distinct author strings in the store.
+     */
+    public int authorCount() {
+        return authorNames.size();
+    }
+
+    /**
+     * @return estimated heap bytes of the columns and text pages, not counting
+     *         the author dictionary.
+     */
+    public long footprint() {
+        long bytes = (8L + 8 + 4 + 8 + 4) * ids.length + nonAscii.size() / 8;
+        for (byte[] page : pages) {
+            bytes += page.length;
+        }
+        return bytes;
+    }
+
+    /**
+     * @return a read-only view of the store as a list, which grows as tweets
+     *         are appended. Its elements are flyweights that read the store.
+     */
+    public List<Tweet> tweets() {
+        return new View(null);
+    }
+
+    /**
+     * Find tweets written by a particular user, as Filter.writtenBy() does.
+     *
+     * @param username
+     *            Twitter username.
+     * @return all and only the stored tweets whose author is username, ignoring
+     *         case, in store order.
+     */
+    public List<Tweet> writtenBy(final String username) {
+        final IntList candidates = foldedAuthors.get(fold(username));
+        final IntList found = new IntList();
+        if (candidates == null) {
+            return new View(found);
+        }
+        final boolean[] wanted = new boolean[authorNames.size()];
+        for (int i = 0; i < candidates.size(); ++i) {
+            final int a = candidates.get(i);
+            wanted[a] = authorNames.get(a).equalsIgnoreCase(username);
+        }
+        for (int i = 0; i < size; ++i) {
+            if (wanted[authors[i]]) {
+                found.add(i);
+            }
+        }
+        return new View(found);
+    }
+
+    /**
+     * Find tweets that were sent during a particular timespan, as
+     * Filter.inTimespan() does.
+     *
+     * @param timespan
+     *            timespan
+     * @return all and only the stored tweets sent during the timespan, in
+     *         store order.
+     */
+    public List<Tweet> inTimespan(final Timespan timespan) {
+        final long start = TimeIndex.nanos(timespan.getStart());
+        final long end = TimeIndex.nanos(timespan.getEnd());
+        final IntList found = new IntList();
+        for (int i = 0; i < size; ++i) {
+            final long time = nanos[i];
+            if (time >= start && time <= end) {
+                found.add(i);
+            }
+        }
+        return new View(found);
+    }
+
+    /**
+     * Find tweets that contain certain words, as Filter.containing() does.
+     *
+     * @param words
+     *            a list of words to search for in the tweets.
+     * @return all and only the stored tweets whose text includes at least one
+     *         of the words, compared without regard to case, in store order;
+     *         of several stored tweets with the same id, only the first.
+     */
+    public List<Tweet> containing(final List<String> words) {
+        final WordMatcher matcher = new WordMatcher(words);
+        final IntList found = new IntList();
+        if (matcher.size() == 0) {
+            return new View(found);
+        }
+        final LongHashSet seen = new LongHashSet();
+        for (int i = 0; i < size; ++i) {
+            final boolean match = nonAscii.get(i)
+                    ? matcher.matches(text(i))
+                    : matcher.matchesAscii(page(i), offset(i), offset(i) + textLengths[i]);
+            if (match && seen.add(ids[i])) {
+                found.add(i);
+            }
+        }
+        return new View(found);
+    }
+
+    /**
+     * Get usernames mentioned in the stored tweets, as
+     * Extract.getMentionedUsers() does, scanning the UTF-8 texts in place.
+     *
+     * @return the set of lower case usernames mentioned in the texts of the
+     *         stored tweets, compared without regard to case.
+     */
+    public Set<String> mentionedUsers() {
+        final UsernameDictionary mentioned = new UsernameDictionary();
+        final Utf8MentionScanner scanner = new Utf8MentionScanner();
+        for (int i = 0; i < size; ++i) {
+            scanner.reset(page(i), offset(i), offset(i) + textLengths[i]);
+            while (scanner.find()) {
+                scanner.mentionId(mentioned);
+            }
+        }
+        return names(mentioned);
+    }
+
+    // the names of a dictionary as Extract.getMentionedUsers() returns them.
+    static Set<String> names(final UsernameDictionary dictionary) {
+        final Set<String> names = new TreeSet<String>(String.CASE_INSENSITIVE_ORDER);
+        for (int id = 0; id < dictionary.size(); ++id) {
+            names.add(dictionary.username(id));
+        }
+        return names;
+    }
+
+    /**
+     * @return the smallest timespan containing every stored tweet, as
+     *         Extract.getTimespan() returns it; requires size() > 0.
+     */
+    public Timespan timespan() {
+        if (size == 0) {
+            throw new IllegalArgumentException("store is empty");
+        }
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < size; ++i) {
+            min = Math.min(min, nanos[i]);
+            max = Math.max(max, nanos[i]);
+        }
+        return new Timespan(instant(min), instant(max));
+    }
+
+    private byte[] page(final int i) {
+        return pages.get((int) (textRefs[i] >>> 32));
+    }
+
+    private int offset(final int i) {
+        return (int) textRefs[i];
+    }
+
+    private String text(final int i) {
+        return new String(page(i), offset(i), textLengths[i], StandardCharsets.UTF_8);
+    }
+
+    private static Instant instant(final long nanos) {
+        return Instant.ofEpochSecond(Math.floorDiv(nanos, 1000000000L), Math.floorMod(nanos, 1000000000L));
+    }
+
+    /*
+     * View is a read-only list of stored tweets: all of them if positions is
+     * null, else the ones at positions.
+     */
+    private class View extends AbstractList<Tweet> implements RandomAccess {
+        private final IntList positions;
+
+        View(final IntList positions) {
+            this.positions = positions;
+        }
+
+        @Override public int size() {
+            return positions == null ? TweetStore.this.size : positions.size();
+        }
+
+        @Override public Tweet get(final int index) {
+            if (positions != null) {
+                return new StoredTweet(TweetStore.this, positions.get(index));
+            }
+            if (index < 0 || index >= TweetStore.this.size) {
+                throw new IndexOutOfBoundsException("index " + index + " of " + TweetStore.this.size);
+            }
+            return new StoredTweet(TweetStore.this, index);
+        }
+    }
+
+    /*
+     * StoredTweet is a flyweight Tweet: it keeps the id (for equals and
+     * hashCode) and the shared author string, and reads the text and the
+     * timestamp from the store when asked.
+     */
+    private static class StoredTweet extends Tweet {
+        private final TweetStore store;
+        private final int index;
+
+        StoredTweet(final TweetStore store, final int index) {
+            super(store.ids[index], store.authorNames.get(store.authors[index]), null, null);
+            this.store = store;
+            this.index = index;
+        }
+
+        @Override public String getText() {
+            return store.text(index);
+        }
+
+        @Override public Instant getTimestamp() {
+            return instant(store.nanos[index]);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package twitter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * UsernameDictionary gives every distinct username a dense int id (0, 1, 2,
+ * ... in order of first appearance), ignoring case. Names are kept as lower
+ * case ASCII bytes in one arena and looked up by their bytes, so
+ * Utf8MentionScanner can turn a mention into an id without allocating a
+ * String; a String is made once per distinct name.
+ *
+ * A UsernameDictionary is mutable and not thread-safe.
+ */
+public class UsernameDictionary {
+
+    private int size;
+    private String[] names = new String[16];
+    private int[] starts = new int[16];
+    private int[] hashes = new int[16];
+    private byte[] arena = new byte[256];
+    private int arenaUsed;
+    private int[] slots = new int[32];
+    // Rep invariant:
+    //   names[0..size) are distinct lower case usernames; the bytes of
+    //     names[id] are arena[starts[id]..starts[id] + names[id].length())
+    //     and hashes[id] is their hash
+    //   slots.length is a power of two, more than twice size; slots holds
+    //     id + 1 for every id, reachable by linear probing from
+    //     hashes[id] before any 0 slot
+    //
+    // Abstraction Function:
+    //   represents the map from names[id] to id, for 0 <= id < size.
+    //
+    // Safety from rep exposure:
+    //   All fields are private; arrays are never returned; the byte arrays
+    //   passed in are only read.
+
+    /**
+     * @return number of usernames in the dictionary.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param id
+     *            a username id, 0 <= id < size().
+     * @return the lower case username of that id.
+     */
+    public String username(final int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("id " + id + " of " + size);
+        }
+        return names[id];
+    }
+
+    /**
+     * @param username
+     *            a Twitter username, case-insensitive.
+     * @return the id of username, or -1 if it is not in the dictionary.
+     */
+    public int id(final String username) {
+        final byte[] folded = fold(username);
+        return folded == null ? -1 : find(folded, 0, folded.length, hash(folded, 0, folded.length));
+    }
+
+    /**
+     * Add a username to the dictionary unless it is already there.
+     *
+     * @param username
+     *            a Twitter username of 1 to MentionScanner.MAX_USERNAME_LENGTH
+     *            username characters, case-insensitive.
+     * @return the id of username.
+     */
+    public int intern(final String username) {
+        final byte[] folded = fold(username);
+        if (folded == null || folded.length == 0 || folded.length > MentionScanner.MAX_USERNAME_LENGTH) {
+            throw new IllegalArgumentException("not a username: " + username);
+        }
+        return intern(folded, 0, folded.length);
+    }
+
+    // Mutator: the id of the lower case username in bytes[from..to), added
+    // if absent.
+    int intern(final byte[] bytes, final int from, final int to) {
+        final int hash = hash(bytes, from, to);
+        final int id = find(bytes, from, to, hash);
+        if (id >= 0) {
+            return id;
+        }
+        return add(bytes, from, to, hash);
+    }
+
+    // the username folded to lower case bytes, or null if it has a
+    // character that is not a username character.
+    private static byte[] fold(final String username) {
+        final byte[] folded = new byte[username.length()];
+        for (int i = 0; i < folded.length; ++i) {
+            final char c = username.charAt(i);
+            if (!MentionScanner.isUsernameChar(c)) {
+                return null;
+            }
+            folded[i] = (byte) MentionScanner.foldChar(c);
+        }
+        return folded;
+    }
+
+    private static int hash(final byte[] bytes, final int from, final int to) {
+        int hash = 0;
+        for (int i = from; i < to; ++i) {
+            hash = 31 * hash + bytes[i];
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private int find(final byte[] bytes, final int from, final int to, final int hash) {
+        final int length = to - from;
+        int slot = hash & (slots.length - 1);
+        while (slots[slot] != 0) {
+            final int id = slots[slot] - 1;
+            if (hashes[id] == hash && names[id].length() == length) {
+                final int start = starts[id];
+                int i = 0;
+                while (i < length && arena[start + i] == bytes[from + i]) {
+                    ++i;
+                }
+                if (i == length) {
+                    return id;
+                }
+            }
+            slot = (slot + 1) & (slots.length - 1);
+        }
+        return -1;
+    }
+
+    private int add(final byte[] bytes, final int from, final int to, final int hash) {
+        final int length = to - from;
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+            starts = Arrays.copyOf(starts, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        if (arenaUsed + length > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaUsed + length));
+        }
+        System.arraycopy(bytes, from, arena, arenaUsed, length);
+        final int id = size++;
+        names[id] = new String(bytes, from, length, StandardCharsets.US_ASCII);
+        starts[id] = arenaUsed;
+        hashes[id] = hash;
+        arenaUsed += length;
+        if (2 * size >= slots.length) {
+            rehash();
+        } else {
+            insert(id);
+        }
+        return id;
+    }
+
+    private void insert(final int id) {
+        int slot = hashes[id] & (slots.length - 1);
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & (slots.length - 1);
+        }
+        slots[slot] = id + 1;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        for (int id = 0; id < size; ++id) {
+            insert(id);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package twitter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Utf8MentionScanner finds the username-mentions in UTF-8 encoded tweet text,
+ * a slice of a byte[] or a ByteBuffer, without decoding it to a String.
+ *
+ * It applies exactly the rules of MentionScanner. Username characters are
+ * ASCII, and every byte of a multi-byte UTF-8 sequence is >= 0x80, so a byte
+ * is a username character iff the character it belongs to is one; the rules
+ * can therefore be checked byte by byte. Nothing is allocated while scanning:
+ * mention() makes a String for a found mention, and mentionId() looks the
+ * mention up in a UsernameDictionary, which allocates only for a name it has
+ * not seen before.
+ *
+ * A scanner is used like MentionScanner: reset() it onto text, call find()
+ * until it returns false, and read start()/end(), mention() or mentionId()
+ * after every successful find(). Positions are byte indexes.
+ *
+ * A Utf8MentionScanner is mutable and must not be shared between threads.
+ */
+public class Utf8MentionScanner {
+
+    private byte[] array;
+    private ByteBuffer buffer;
+    private int from;
+    private int to;
+    private int position;
+    private int start = -1;
+    private int end = -1;
+    private final byte[] folded = new byte[MentionScanner.MAX_USERNAME_LENGTH];
+    // Rep invariant:
+    //   exactly one of array and buffer is non-null, and [from, to) lies
+    //     within it
+    //   from <= position <= to
+    //   after a successful find(): from < start < end <= position, the byte
+    //     before start is '@' and 1 <= end - start <= MAX_USERNAME_LENGTH
+    //   otherwise start == end == -1
+    //
+    // Abstraction Function:
+    //   represents a cursor over the UTF-8 text in bytes [from, to) of array
+    //   or buffer; every mention before position has already been reported,
+    //   and bytes [start, end) are the username of the last reported mention
+    //   (if any).
+    //
+    // Safety from rep exposure:
+    //   All fields are private; the text is only read (buffer with absolute
+    //   gets, so its position is untouched), and folded is never returned.
+
+    // Creator:
+    public Utf8MentionScanner() {
+        this.array = new byte[0];
+    }
+
+    /**
+     * Point this scanner at UTF-8 text in an array and rewind it.
+     *
+     * @param bytes
+     *            array holding the text, not modified by this scanner.
+     * @param from
+     *            index of the first byte of the text.
+     * @param to
+     *            index just past the last byte of the text.
+     * @return this scanner
+     */
+    public Utf8MentionScanner reset(final byte[] bytes, final int from, final int to) {
+        if (from < 0 || from > to || to > bytes.length) {
+            throw new IndexOutOfBoundsException("slice " + from + ".." + to + " of " + bytes.length);
+        }
+        this.array = bytes;
+        this.buffer = null;
+        return rewind(from, to);
+    }
+
+    /**
+     * Point this scanner at UTF-8 text in a buffer and rewind it.
+     *
+     * @param bytes
+     *            buffer holding the text at absolute indexes, not modified
+     *            by this scanner (not even its position).
+     * @param from
+     *            index of the first byte of the text.
+     * @param to
+     *            index just past the last byte of the text.
+     * @return this scanner
+     */
+    public Utf8MentionScanner reset(final ByteBuffer bytes, final int from, final int to) {
+        if (from < 0 || from > to || to > bytes.limit()) {
+            throw new IndexOutOfBoundsException("slice " + from + ".." + to + " of " + bytes.limit());
+        }
+        this.array = null;
+        this.buffer = bytes;
+        return rewind(from, to);
+    }
+
+    private Utf8MentionScanner rewind(final int from, final int to) {
+        this.from = from;
+        this.to = to;
+        this.position = from;
+        this.start = -1;
+        this.end = -1;
+        return this;
+    }
+
+    private byte at(final int i) {
+        return array != null ? array[i] : buffer.get(i);
+    }
+
+    /**
+     * Advance to the next username-mention in the text.
+     *
+     * @return true if another username-mention was found, in which case
+     *         start(), end(), mention() and mentionId() describe it; false if
+     *         the text is exhausted.
+     */
+    public boolean find() {
+        int i = position;
+
+        while (i < to) {
+            if (at(i) != '@') {
+                ++i;
+                continue;
+            }
+            // the "@" must not be glued to a previous username character
+            if (i > from && MentionScanner.isUsernameChar(at(i - 1))) {
+                ++i;
+                continue;
+            }
+            // as in MentionScanner: take the whole run of username
+            // characters, and continue after it if it is too long
+            int j = i + 1;
+            while (j < to && MentionScanner.isUsernameChar(at(j))) {
+                ++j;
+            }
+            final int nameLength = j - (i + 1);
+            if (nameLength >= 1 && nameLength <= MentionScanner.MAX_USERNAME_LENGTH) {
+                start = i + 1;
+                end = j;
+                position = j;
+                return true;
+            }
+            i = Math.max(j, i + 1);
+        }
+
+        position = to;
+        start = end = -1;
+        return false;
+    }
+
+    /**
+     * @return byte index of the first username character of the last mention
+     *         found.
+     */
+    public int start() {
+        checkFound();
+        return start;
+    }
+
+    /**
+     * @return byte index just past the last username character of the last
+     *         mention found.
+     */
+    public int end() {
+        checkFound();
+        return end;
+    }
+
+    /**
+     * @return the username of the last mention found, folded to lower case.
+     */
+    public String mention() {
+        return new String(folded, 0, fold(), StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * @param dictionary
+     *            dictionary of usernames; the username of the last mention
+     *            found is added to it if absent.
+     * @return the id in dictionary of the username of the last mention found.
+     */
+    public int mentionId(final UsernameDictionary dictionary) {
+        return dictionary.intern(folded, 0, fold());
+    }
+
+    // copy the last mention folded to lower case into folded; returns its length.
+    private int fold() {
+        checkFound();
+        for (int i = start; i < end; ++i) {
+            folded[i - start] = (byte) MentionScanner.foldChar((char) at(i));
+        }
+        return end - start;
+    }
+
+    private void checkFound() {
+        if (start < 0) {
+            throw new IllegalStateException("no mention found");
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package twitter;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * WeightedMentionGraph is a follows graph, with the evidence rules of
+ * SocialNetwork.guessFollowsGraph(), whose edges also remember how strong the
+ * evidence is: for every edge from u to v, the number of tweets by u that
+ * @-mention v, and the timestamps of the first and the last of them.
+ *
+ * The graph is stored in compressed sparse row form like FollowsGraph, with
+ * the edge weights in arrays parallel to the edge targets, so edge i of user
+ * u (outStart(u) <= i < outEnd(u)) has target outTarget(i), mentionCount(i),
+ * firstSeen(i) and lastSeen(i). fromTweets() builds it in one pass over the
+ * tweets.
+ *
+ * A WeightedMentionGraph is immutable and safe to share between threads.
+ */
+public class WeightedMentionGraph {
+
+    private final String[] names;
+    private final Map<String, Integer> ids;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] counts;
+    private final long[] firstSeen;
+    private final long[] lastSeen;
+    // Rep invariant:
+    //   names are distinct lower case usernames, ids maps names[i] to i
+    //   offsets.length == names.length + 1, offsets[0] == 0, offsets is
+    //     non-decreasing, offsets[n] == targets.length
+    //   every row targets[offsets[u]..offsets[u+1]) is strictly increasing,
+    //     holds valid ids and does not hold u
+    //   counts, firstSeen and lastSeen have the length of targets;
+    //     counts[i] >= 1 and firstSeen[i] <= lastSeen[i]
+    //
+    // Abstraction Function:
+    //   represents the follows graph in which names[u] follows names[v] iff
+    //   v is in row u of targets, at index i; counts[i] tweets by names[u]
+    //   mention names[v], the first at firstSeen[i] and the last at
+    //   lastSeen[i], in nanoseconds since the epoch.
+    //
+    // Safety from rep exposure:
+    //   All fields are private; arrays are never returned, and the arrays
+    //   shared with toFollowsGraph() are never mutated by either graph.
+
+    // Creator: takes ownership of the arrays.
+    private WeightedMentionGraph(final String[] names, final Map<String, Integer> ids,
+            final int[] offsets, final int[] targets, final int[] counts,
+            final long[] firstSeen, final long[] lastSeen) {
+        this.names = names;
+        this.ids = ids;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.counts = counts;
+        this.firstSeen = firstSeen;
+        this.lastSeen = lastSeen;
+    }
+
+    /**
+     * Build the weighted graph of the evidence in a list of tweets, in one
+     * pass over the tweets.
+     *
+     * @param tweets
+     *            a list of tweets providing the evidence, not modified by this
+     *            method.
+     * @return a graph whose users are all the authors and @-mentioned users
+     *         of the tweets, with the same edges as
+     *         SocialNetwork.guessFollowsGraph(tweets); a tweet that mentions a
+     *         user several times counts once.
+     */
+    public static WeightedMentionGraph fromTweets(final List<Tweet> tweets) {
+        final Map<String, Integer> ids = new HashMap<String, Integer>();
+        String[] names = new String[16];
+        final LongIntHashMap index = new LongIntHashMap();
+        long[] keys = new long[16];
+        int[] counts = new int[16];
+        long[] first = new long[16];
+        long[] last = new long[16];
+        int m = 0;
+
+        final MentionScanner scanner = new MentionScanner("");
+        final IntList mentioned = new IntList();
+        for (Tweet t : tweets) {
+            final String author = t.getAuthor().toLowerCase();
+            Integer id = ids.get(author);
+            if (id == null) {
+                id = ids.size();
+                if (id == names.length) {
+                    names = Arrays.copyOf(names, id * 2);
+                }
+                names[id] = author;
+                ids.put(author, id);
+            }
+            final int from = id;
+            final long time = TimeIndex.nanos(t.getTimestamp());
+
+            scanner.reset(t.getText());
+            while (scanner.find()) {
+                final String name = scanner.mention();
+                Integer to = ids.get(name);
+                if (to == null) {
+                    to = ids.size();
+                    if (to == names.length) {
+                        names = Arrays.copyOf(names, to * 2);
+                    }
+                    names[to] = name;
+                    ids.put(name, to);
+                }
+                if (to == from) {
+                    continue;
+                }
+                final long key = ((long) from << 32) | to;
+                final int edge = index.putIfAbsent(key, m);
+                if (edge == m) {
+                    if (m == keys.length) {
+                        keys = Arrays.copyOf(keys, m * 2);
+                        counts = Arrays.copyOf(counts, m * 2);
+                        first = Arrays.copyOf(first, m * 2);
+                        last = Arrays.copyOf(last, m * 2);
+                    }
+                    keys[m] = key;
+                    counts[m] = 1;
+                    first[m] = time;
+                    last[m] = time;
+                    ++m;
+                } else if (!seenInTweet(mentioned, edge)) {
+                    ++counts[edge];
+                    first[edge] = Math.min(first[edge], time);
+                    last[edge] = Math.max(last[edge], time);
+                } else {
+                    continue; // mentioned again in the same tweet
+                }
+                mentioned.add(edge);
+            }
+            mentioned.clear();
+        }
+        return fromEdges(Arrays.copyOf(names, ids.size()), ids, index, keys, counts, first, last, m);
+    }
+
+    // true iff edge is among the few edges already counted for this tweet.
+    private static boolean seenInTweet(final IntList mentioned, final int edge) {
+        for (int i = 0; i < mentioned.size(); ++i) {
+            if (mentioned.get(i) == edge) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // sort the m unordered edges into CSR form.
+    private static WeightedMentionGraph fromEdges(final String[] names, final Map<String, Integer> ids,
+            final LongIntHashMap index, final long[] keys, final int[] counts,
+            final long[] first, final long[] last, final int m) {
+        final int n = names.length;
+        // keys are distinct: sort them, and find each one's weights again
+        // through the index instead of sorting boxed edge numbers
+        final long[] sorted = Arrays.copyOf(keys, m);
+        Arrays.sort(sorted);
+
+        final int[] offsets = new int[n + 1];
+        final int[] targets = new int[m];
+        final int[] sortedCounts = new int[m];
+        final long[] sortedFirst = new long[m];
+        final long[] sortedLast = new long[m];
+        for (int i = 0; i < m; ++i) {
+            final int edge = index.get(sorted[i]);
+            ++offsets[(int) (sorted[i] >>> 32) + 1];
+            targets[i] = (int) sorted[i];
+            sortedCounts[i] = counts[edge];
+            sortedFirst[i] = first[edge];
+            sortedLast[i] = last[edge];
+        }
+        for (int u = 0; u < n; ++u) {
+            offsets[u + 1] += offsets[u];
+        }
+        return new WeightedMentionGraph(names, ids, offsets, targets, sortedCounts, sortedFirst, sortedLast);
+    }
+
+    /**
+     * @return number of users in the graph.
+     */
+    public int userCount() {
+        return names.length;
+    }
+
+    /**
+     * @return number of edges in the graph.
+     */
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * @param username
+     *            a Twitter username, case-insensitive.
+     * @return the id of username, or -1 if it is not in the graph.
+     */
+    public int id(final String username) {
+        final Integer id = ids.get(username.toLowerCase());
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @param id
+     *            a user id, 0 <= id < userCount().
+     * @return the lower case username of that user.
+     */
+    public String username(final int id) {
+        return names[id];
+    }
+
+    /**
+     * @param id
+     *            a user id.
+     * @return index of the first edge of id.
+     */
+    public int outStart(final int id) {
+        return offsets[id];
+    }
+
+    /**
+     * @param id
+     *            a user id.
+     * @return index just past the last edge of id.
+     */
+    public int outEnd(final int id) {
+        return offsets[id + 1];
+    }
+
+    /**
+     * @param id
+     *            a user id.
+     * @return number of users that id mentions.
+     */
+    public int outDegree(final int id) {
+        return offsets[id + 1] - offsets[id];
+    }
+
+    /**
+     * @param index
+     *            an edge index, between outStart(u) and outEnd(u) of some
+     *            user u.
+     * @return id of the user that u mentions; ids of one row are increasing.
+     */
+    public int outTarget(final int index) {
+        return targets[index];
+    }
+
+    /**
+     * @param index
+     *            an edge index.
+     * @return number of tweets giving the evidence of that edge, >= 1.
+     */
+    public int mentionCount(final int index) {
+        return counts[index];
+    }
+
+    /**
+     * @param index
+     *            an edge index.
+     * @return timestamp of the earliest tweet giving the evidence of that
+     *         edge, in nanoseconds since the epoch.
+     */
+    public long firstSeenNanos(final int index) {
+        return firstSeen[index];
+    }
+
+    /**
+     * @param index
+     *            an edge index.
+     * @return timestamp of the latest tweet giving the evidence of that
+     *         edge, in nanoseconds since the epoch.
+     */
+    public long lastSeenNanos(final int index) {
+        return lastSeen[index];
+    }
+
+    /**
+     * @param index
+     *            an edge index.
+     * @return timestamp of the earliest tweet giving the evidence of that
+     *         edge (timestamps outside the years 1677..2262 are clamped).
+     */
+    public Instant firstSeen(final int index) {
+        return instant(firstSeen[index]);
+    }
+
+    /**
+     * @param index
+     *            an edge index.
+     * @return timestamp of the latest tweet giving the evidence of that edge
+     *         (timestamps outside the years 1677..2262 are clamped).
+     */
+    public Instant lastSeen(final int index) {
+        return instant(lastSeen[index]);
+    }
+
+    private static Instant instant(final long nanos) {
+        return Instant.ofEpochSecond(Math.floorDiv(nanos, 1000000000L), Math.floorMod(nanos, 1000000000L));
+    }
+
+    /**
+     * @param follower
+     *            a user id.
+     * @param followed
+     *            a user id.
+     * @return index of the edge from follower to followed, or -1 if there is
+     *         none; O(log outDegree(follower)).
+     */
+    public int edge(final int follower, final int followed) {
+        final int i = Arrays.binarySearch(targets, offsets[follower], offsets[follower + 1], followed);
+        return i >= 0 ? i : -1;
+    }
+
+    /**
+     * @return number of tweets mentioning each user, summed over its
+     *         in-edges, indexed by user id.
+     */
+    public long[] mentionsReceived() {
+        final long[] received = new long[names.length];
+        for (int i = 0; i < targets.length; ++i) {
+            received[targets[i]] += counts[i];
+        }
+        return received;
+    }
+
+    /**
+     * Find the k users mentioned by the most tweets, counting every tweet of
+     * a user's followers rather than every follower once.
+     *
+     * @param k
+     *            maximum number of usernames to return, k >= 0.
+     * @return the min(k, userCount()) lower case usernames with the highest
+     *         mentionsReceived(), highest first; ties are in ascending order
+     *         of username.
+     */
+    public List<String> influencers(final int k) {
+        final long[] received = mentionsReceived();
+        final double[] scores = new double[received.length];
+        for (int v = 0; v < scores.length; ++v) {
+            scores[v] = received[v];
+        }
+        return TopK.names(TopK.select(names.length, k, TopK.byScore(scores, names)), names);
+    }
+
+    /**
+     * @return the same graph without weights, sharing this graph's arrays.
+     */
+    public FollowsGraph toFollowsGraph() {
+        return new FollowsGraph(names, ids, offsets, targets);
+    }
+}
@@ -0,0 +1,376 @@
+package twitter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * WindowedSocialGraph is a social network (as defined in SocialNetwork) built
+ * only from the evidence of recent tweets, so that its influencers are the
+ * users who are being followed now.
+ *
+ * Time is cut into buckets of window / buckets each, and the window is the
+ * latest bucket any tweet (or advance()) has reached together with the
+ * buckets - 1 before it. Each bucket keeps its batch of follows evidence
+ * (edges, with the rules of SocialNetwork.guessFollowsGraph()) in a ring. When
+ * time moves past a bucket, its whole batch is expired at once, so expiry
+ * costs O(1) per edge no matter how often time moves; a tweet older than the
+ * window is ignored.
+ *
+ * influencers() ranks users by their number of followers in the window. If a
+ * half-life is given, it ranks them by a decayed score instead: every edge
+ * counts once per bucket it was seen in, weighted by 2^(-age / halfLife),
+ * where age is the time between its bucket and the latest bucket.
+ *
+ * A WindowedSocialGraph is mutable and not thread-safe.
+ */
+public class WindowedSocialGraph {
+
+    // rescale the decay weights when they grow past 2^RESCALE
+    private static final double RESCALE = 256;
+
+    private final long width;
+    private final long[] bucketOf;
+    private final Batch[] ring;
+    private final double bucketsPerHalfLife;
+    private long head = Long.MIN_VALUE;
+    private long landmark;
+
+    private final Map<String, Integer> ids = new HashMap<String, Integer>();
+    private final List<String> names = new ArrayList<String>();
+    private final LongIntHashMap edges = new LongIntHashMap();
+    private final MentionScanner scanner = new MentionScanner("");
+    private int[] followers = new int[16];
+    private double[] weights = new double[16];
+    // Rep invariant:
+    //   width > 0; ring.length == bucketOf.length >= 1
+    //   head is the latest bucket number, or Long.MIN_VALUE before the first
+    //     tweet; ring[i] is the batch of bucket bucketOf[i], and every
+    //     bucket with a non-empty batch is in (head - ring.length, head] with
+    //     Math.floorMod(bucket, ring.length) == i
+    //   every batch holds distinct edges (u << 32 | v), u != v, valid ids
+    //   edges.get(e) == number of batches holding e
+    //   followers[v] == number of distinct u with (u << 32 | v) in edges
+    //   bucketsPerHalfLife is 0 without decay; otherwise weights[v] == sum,
+    //     over the batch entries (u << 32 | v) in bucket b, of
+    //     2^((b - landmark) / bucketsPerHalfLife)
+    //
+    // Abstraction Function:
+    //   represents the social network in which names.get(u) follows
+    //   names.get(v) iff (u << 32 | v) is in edges, together with the
+    //   current window of buckets (head - ring.length, head]; every name is
+    //   a user, including users whose evidence has expired.
+    //
+    // Safety from rep exposure:
+    //   All fields are private; observers return new collections of
+    //   immutable Strings.
+
+    /*
+     * Batch is the distinct edges seen in one bucket, in the order seen.
+     */
+    private static class Batch {
+        private long[] edges = new long[4];
+        private int size;
+        private LongHashSet seen = new LongHashSet();
+
+        // Mutator: true iff edge is new to this batch.
+        boolean add(final long edge) {
+            if (!seen.add(edge)) {
+                return false;
+            }
+            if (size == edges.length) {
+                edges = Arrays.copyOf(edges, size * 2);
+            }
+            edges[size++] = edge;
+            return true;
+        }
+
+        void clear() {
+            edges = new long[4];
+            size = 0;
+            seen = new LongHashSet();
+        }
+    }
+
+    /**
+     * Make an empty graph whose influencers are ranked by follower count.
+     *
+     * @param window
+     *            length of the window, positive.
+     * @param buckets
+     *            number of buckets the window is cut into, >= 1; the window
+     *            moves in steps of window / buckets.
+     */
+    public WindowedSocialGraph(final Duration window, final int buckets) {
+        this(window, buckets, null);
+    }
+
+    /**
+     * Make an empty graph whose influencers are ranked by exponentially
+     * decayed evidence.
+     *
+     * @param window
+     *            length of the window, positive.
+     * @param buckets
+     *            number of buckets the window is cut into, >= 1.
+     * @param halfLife
+     *            age at which evidence counts half, positive; null for no
+     *            decay.
+     */
+    public WindowedSocialGraph(final Duration window, final int buckets, final Duration halfLife) {
+        if (window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("window must be positive");
+        }
+        if (buckets < 1) {
+            throw new IllegalArgumentException("buckets must be positive");
+        }
+        if (halfLife != null && (halfLife.isNegative() || halfLife.isZero())) {
+            throw new IllegalArgumentException("halfLife must be positive");
+        }
+        final long nanos = TimeIndex.nanos(Instant.EPOCH.plus(window));
+        this.width = Math.max(1, nanos / buckets);
+        this.ring = new Batch[buckets];
+        this.bucketOf = new long[buckets];
+        for (int i = 0; i < buckets; ++i) {
+            ring[i] = new Batch();
+        }
+        this.bucketsPerHalfLife = halfLife == null ? 0
+                : (double) TimeIndex.nanos(Instant.EPOCH.plus(halfLife)) / width;
+    }
+
+    /**
+     * Add the evidence of one tweet, moving the window forward to the tweet's
+     * timestamp if it is later than the window.
+     *
+     * @param tweet
+     *            a tweet, not modified by this method.
+     * @return number of edges the tweet added to its bucket; 0 if the tweet
+     *         is older than the window.
+     */
+    public int add(final Tweet tweet) {
+        final long bucket = Math.floorDiv(TimeIndex.nanos(tweet.getTimestamp()), width);
+        moveTo(bucket);
+        if (bucket <= head - ring.length) {
+            return 0; // already expired
+        }
+        final int slot = (int) Math.floorMod(bucket, (long) ring.length);
+        final Batch batch = ring[slot];
+        bucketOf[slot] = bucket;
+
+        final int author = user(tweet.getAuthor().toLowerCase());
+        int added = 0;
+        scanner.reset(tweet.getText());
+        while (scanner.find()) {
+            final int followed = user(scanner.mention());
+            final long edge = ((long) author << 32) | followed;
+            if (followed != author && batch.add(edge)) {
+                if (edges.increment(edge) == 1) {
+                    ++followers[followed];
+                }
+                if (bucketsPerHalfLife > 0) {
+                    weights[followed] += weight(bucket);
+                }
+                ++added;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Add the evidence of a batch of tweets, as add() does one by one.
+     *
+     * @param tweets
+     *            a list of tweets, not modified by this method.
+     * @return number of edges the tweets added to their buckets.
+     */
+    public int addAll(final List<Tweet> tweets) {
+        int added = 0;
+        for (Tweet t : tweets) {
+            added += add(t);
+        }
+        return added;
+    }
+
+    /**
+     * Move the window forward so that it ends at now, expiring the evidence
+     * that falls out of it. Does nothing if the window is already there or
+     * later.
+     *
+     * @param now
+     *            the current time.
+     */
+    public void advance(final Instant now) {
+        moveTo(Math.floorDiv(TimeIndex.nanos(now), width));
+    }
+
+    // make bucket the latest one if it is later than head.
+    private void moveTo(final long bucket) {
+        if (head == Long.MIN_VALUE) {
+            head = bucket;
+            landmark = bucket;
+            return;
+        }
+        if (bucket <= head) {
+            return;
+        }
+        // the buckets in (head - n, bucket - n] fall out; at most n of them
+        final long steps = Math.min(bucket - head, ring.length);
+        for (long b = bucket - ring.length - steps + 1; b <= bucket - ring.length; ++b) {
+            final int slot = (int) Math.floorMod(b, (long) ring.length);
+            if (ring[slot].size > 0) {
+                expire(slot);
+            }
+        }
+        head = bucket;
+        if (bucketsPerHalfLife > 0 && (head - landmark) / bucketsPerHalfLife > RESCALE) {
+            rescale();
+        }
+    }
+
+    private void expire(final int slot) {
+        final Batch batch = ring[slot];
+        final double weight = bucketsPerHalfLife > 0 ? weight(bucketOf[slot]) : 0;
+        for (int i = 0; i < batch.size; ++i) {
+            final long edge = batch.edges[i];
+            final int followed = (int) edge;
+            if (edges.decrement(edge) == 0 && --followers[followed] == 0) {
+                weights[followed] = 0; // no evidence left; drop rounding error
+            } else if (weight > 0) {
+                weights[followed] = Math.max(0, weights[followed] - weight);
+            }
+        }
+        batch.clear();
+    }
+
+    // 2^((bucket - landmark) / bucketsPerHalfLife); forward decay, so that old
+    // weights never have to be touched as time goes by.
+    private double weight(final long bucket) {
+        return Math.pow(2, (bucket - landmark) / bucketsPerHalfLife);
+    }
+
+    // move the landmark to head, so weights stay far from overflow.
+    private void rescale() {
+        final double factor = Math.pow(2, -(head - landmark) / bucketsPerHalfLife);
+        for (int v = 0; v < names.size(); ++v) {
+            weights[v] *= factor;
+        }
+        landmark = head;
+    }
+
+    // the id of a lower case username, adding the user if it is new.
+    private int user(final String name) {
+        final Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        final int u = names.size();
+        names.add(name);
+        ids.put(name, u);
+        if (u == followers.length) {
+            followers = Arrays.copyOf(followers, u * 2);
+            weights = Arrays.copyOf(weights, u * 2);
+        }
+        return u;
+    }
+
+    /**
+     * @return the start of the window, inclusive; null if no tweet has been
+     *         added and advance() was never called.
+     */
+    public Instant windowStart() {
+        if (head == Long.MIN_VALUE) {
+            return null;
+        }
+        final long nanos = (head - ring.length + 1) * width;
+        return Instant.ofEpochSecond(Math.floorDiv(nanos, 1000000000L), Math.floorMod(nanos, 1000000000L));
+    }
+
+    /**
+     * @return number of follows edges in the window.
+     */
+    public int edgeCount() {
+        return edges.size();
+    }
+
+    /**
+     * @param username
+     *            a Twitter username, case-insensitive.
+     * @return number of users who follow username in the window.
+     */
+    public int followerCount(final String username) {
+        final Integer id = ids.get(username.toLowerCase());
+        return id == null ? 0 : followers[id];
+    }
+
+    /**
+     * @param username
+     *            a Twitter username, case-insensitive.
+     * @return the score influencers() ranks username by: its decayed evidence
+     *         if this graph has a half-life, its follower count otherwise.
+     */
+    public double score(final String username) {
+        final Integer id = ids.get(username.toLowerCase());
+        return id == null ? 0 : score(id, scale());
+    }
+
+    private double scale() {
+        return bucketsPerHalfLife > 0 ? Math.pow(2, -(head - landmark) / bucketsPerHalfLife) : 0;
+    }
+
+    private double score(final int id, final double scale) {
+        return bucketsPerHalfLife > 0 ? weights[id] * scale : followers[id];
+    }
+
+    /**
+     * @param k
+     *            maximum number of usernames to return, k >= 0.
+     * @return the lower case usernames of the (at most) k users with the
+     *         highest score() that have any evidence in the window, highest
+     *         first; equal scores are in ascending order of username.
+     */
+    public List<String> influencers(final int k) {
+        final int n = names.size();
+        final double scale = scale();
+        final double[] scores = new double[n];
+        final String[] nameArray = names.toArray(new String[n]);
+        int withEvidence = 0;
+        for (int v = 0; v < n; ++v) {
+            scores[v] = score(v, scale);
+            withEvidence += followers[v] > 0 ? 1 : 0;
+        }
+        return TopK.names(TopK.select(n, Math.min(k, withEvidence), TopK.byScore(scores, nameArray)), nameArray);
+    }
+
+    /**
+     * @return a new social network (as defined in SocialNetwork) equal to
+     *         SocialNetwork.guessFollowsGraph() of the tweets in the window,
+     *         without the users who neither follow nor are followed by
+     *         anyone in the window.
+     */
+    public Map<String, Set<String>> followsGraph() {
+        final Map<String, Set<String>> followsMap =
+                new TreeMap<String, Set<String>>(String.CASE_INSENSITIVE_ORDER);
+        for (long edge : edges.keys()) {
+            final String followed = names.get((int) edge);
+            followList(followsMap, names.get((int) (edge >>> 32))).add(followed);
+            followList(followsMap, followed);
+        }
+        return followsMap;
+    }
+
+    private static Set<String> followList(final Map<String, Set<String>> followsMap, final String name) {
+        Set<String> followList = followsMap.get(name);
+        if (followList == null) {
+            followList = new TreeSet<String>(String.CASE_INSENSITIVE_ORDER);
+            followsMap.put(name, followList);
+        }
+        return followList;
+    }
+}
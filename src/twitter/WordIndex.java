@@ -0,0 +1,278 @@
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * WordIndex is an in-memory inverted index from words to the tweets that
+ * contain them, so that Filter.containing() queries only read the posting
+ * lists of the query words instead of every tweet text.
+ *
+ * Words have the semantics of Filter.containing(): nonempty sequences of
+ * nonspace characters bounded by whitespace and the ends of the text,
+ * compared without regard to case. Every posting list holds the increasing
+ * positions of the tweets containing its word, stored as variable-length
+ * deltas (7 bits per byte), which takes one or two bytes per posting for
+ * common words.
+ *
+ * Tweets can be appended at any time; footprint() estimates the heap used by
+ * the index so its cost per million tweets can be tracked.
+ *
+ * A WordIndex is mutable. Any number of threads may call containing()
+ * concurrently as long as no thread is appending at the same time.
+ */
+public class WordIndex {
+
+    private final List<Tweet> tweets;
+    private final Map<String, Postings> postings;
+    // Rep invariant:
+    //   every posting list is nonempty, strictly increasing and only holds
+    //     valid indexes into tweets
+    //   position i is in the posting list of key w iff w is the case-folded
+    //     form of a word of tweets.get(i).getText()
+    //
+    // Abstraction Function:
+    //   represents the sequence of tweets, with postings.get(w) the positions
+    //   of the tweets whose text contains the word w, ignoring case.
+    //
+    // Safety from rep exposure:
+    //   All fields are private; tweets is a private copy of the input;
+    //   containing() returns new lists of immutable Tweets.
+
+    /**
+     * Make an empty index.
+     */
+    public WordIndex() {
+        this.tweets = new ArrayList<Tweet>();
+        this.postings = new HashMap<String, Postings>();
+    }
+
+    /**
+     * Make an index of a list of tweets.
+     *
+     * @param tweets
+     *            a list of tweets, not modified by this method.
+     */
+    public WordIndex(final List<Tweet> tweets) {
+        this();
+        appendAll(tweets);
+    }
+
+    /**
+     * Add a tweet after the last indexed tweet.
+     *
+     * @param tweet
+     *            a tweet.
+     */
+    public void append(final Tweet tweet) {
+        if (tweet == null) {
+            throw new NullPointerException("tweet is null");
+        }
+        final int position = tweets.size();
+        final String text = tweet.getText();
+        final int length = text.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && Character.isWhitespace(text.charAt(i))) {
+                ++i;
+            }
+            final int start = i;
+            while (i < length && !Character.isWhitespace(text.charAt(i))) {
+                ++i;
+            }
+            if (i > start) {
+                final String word = fold(text, start, i);
+                Postings list = postings.get(word);
+                if (list == null) {
+                    list = new Postings();
+                    postings.put(word, list);
+                }
+                list.add(position);
+            }
+        }
+        tweets.add(tweet);
+    }
+
+    /**
+     * Add tweets after the last indexed tweet, in list order.
+     *
+     * @param tweets
+     *            a list of tweets, not modified by this method.
+     */
+    public void appendAll(final List<Tweet> tweets) {
+        for (Tweet t : tweets) {
+            append(t);
+        }
+    }
+
+    /**
+     * @return number of indexed tweets.
+     */
+    public int size() {
+        return tweets.size();
+    }
+
+    /**
+     * @return number of distinct words (ignoring case) in the indexed tweets.
+     */
+    public int terms() {
+        return postings.size();
+    }
+
+    /**
+     * @return the indexed tweets, in the order they were added.
+     */
+    public List<Tweet> tweets() {
+        return Collections.unmodifiableList(tweets);
+    }
+
+    /**
+     * Find tweets that contain certain words.
+     *
+     * @param words
+     *            a list of words to search for in the tweets.
+     *            A word is a nonempty sequence of nonspace characters.
+     * @return the same list as Filter.containing(tweets(), words): all and
+     *         only the indexed tweets whose text includes at least one of the
+     *         words, ignoring case, in the order they were added.
+     */
+    public List<Tweet> containing(final List<String> words) {
+
+        // one cursor per distinct query word that occurs at all
+        final PriorityQueue<Cursor> cursors = new PriorityQueue<Cursor>();
+        final Set<Postings> seen = new HashSet<Postings>();
+        for (String word : words) {
+            final Postings list = postings.get(fold(word, 0, word.length()));
+            if (list != null && seen.add(list)) {
+                final Cursor cursor = new Cursor(list);
+                cursor.next();
+                cursors.add(cursor);
+            }
+        }
+
+        // k-way union: repeatedly take the smallest position, skip repeats
+        final List<Tweet> matchedTweets = new ArrayList<Tweet>();
+        final Set<Tweet> matchedSet = new HashSet<Tweet>();
+        int last = -1;
+        while (!cursors.isEmpty()) {
+            final Cursor cursor = cursors.poll();
+            if (cursor.position != last) {
+                last = cursor.position;
+                // a tweet listed twice is only returned once, as in Filter.
+                final Tweet t = tweets.get(last);
+                if (matchedSet.add(t)) {
+                    matchedTweets.add(t);
+                }
+            }
+            if (cursor.next()) {
+                cursors.add(cursor);
+            }
+        }
+        return matchedTweets;
+    }
+
+    /**
+     * @return estimated number of heap bytes held by the index itself (not
+     *         counting the Tweet objects), assuming compressed references.
+     */
+    public long footprint() {
+        long bytes = 16 + 4L * tweets.size(); // list of references
+        for (Map.Entry<String, Postings> entry : postings.entrySet()) {
+            bytes += 32;                                  // hash map entry
+            bytes += 24 + 16 + 2L * entry.getKey().length(); // String and its array
+            bytes += entry.getValue().footprint();
+        }
+        bytes += 4L * postings.size() * 2;                // hash table slots
+        return bytes;
+    }
+
+    /*
+     * @return text[start..end) folded to lower case, the key of its posting list.
+     */
+    private static String fold(final CharSequence text, final int start, final int end) {
+        final char[] folded = new char[end - start];
+        for (int i = start; i < end; ++i) {
+            folded[i - start] = WordMatcher.fold(text.charAt(i));
+        }
+        return new String(folded);
+    }
+
+    /*
+     * Postings is a growable posting list of increasing tweet positions,
+     * encoded as varint deltas.
+     */
+    private static class Postings {
+        private byte[] bytes = new byte[4];
+        private int length;
+        private int last = -1;
+        // Rep invariant:
+        //   bytes[0..length) is a sequence of varints d1, d2, ... with
+        //     d1 - 1 + d2 + ... == last, every di >= 1
+        //
+        // Abstraction Function:
+        //   represents the positions d1 - 1, d1 - 1 + d2, ...
+
+        // Mutator: append position if it is not already the last one.
+        void add(final int position) {
+            if (position == last) {
+                return; // word repeated in the same tweet
+            }
+            int delta = position - last;
+            last = position;
+            if (length + 5 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            while (delta >= 0x80) {
+                bytes[length++] = (byte) (delta | 0x80);
+                delta >>>= 7;
+            }
+            bytes[length++] = (byte) delta;
+        }
+
+        // Observer:
+        long footprint() {
+            return 24 + 16 + bytes.length;
+        }
+    }
+
+    /*
+     * Cursor decodes one posting list in order.
+     */
+    private static class Cursor implements Comparable<Cursor> {
+        private final Postings list;
+        private int offset;
+        int position = -1;
+
+        Cursor(final Postings list) {
+            this.list = list;
+        }
+
+        // Mutator: move to the next position; false if there is none.
+        boolean next() {
+            if (offset >= list.length) {
+                return false;
+            }
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = list.bytes[offset++];
+                delta |= (b & 0x7f) << shift;
+                shift += 7;
+            } while (b < 0);
+            position += delta;
+            return true;
+        }
+
+        public int compareTo(final Cursor that) {
+            return Integer.compare(position, that.position);
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package twitter;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * WordMatcher decides whether a text contains at least one of a fixed list of
+ * words, with the word semantics of Filter.containing(): the text is a
+ * sequence of nonempty words bounded by whitespace and the ends of the string,
+ * and words are compared without regard to case.
+ *
+ * The words are kept in an open-addressing hash table of case-folded hashes,
+ * and matches() probes it once per word of the text, straight from the text's
+ * characters. A scan therefore takes time linear in the length of the text,
+ * whatever the number of words and whatever characters they contain; no regex
+ * is built, so words like "c++" or "(hi" need no escaping and cannot cause
+ * backtracking.
+ *
+ * A WordMatcher is immutable and safe to share between threads.
+ */
+public class WordMatcher {
+
+    private final String[] table;
+    private final int[] hashes;
+    private final int mask;
+    private final int size;
+    // Rep invariant:
+    //   table.length == hashes.length is a power of two, and more than
+    //     twice size
+    //   every non-null table[i] is a nonempty word without whitespace, with
+    //     hashes[i] == hash(table[i]), stored at the first free slot of the
+    //     linear probe sequence starting at hashes[i] & mask
+    //   no two words in table are equal ignoring case
+    //
+    // Abstraction Function:
+    //   represents the set of the non-null words in table, compared without
+    //   regard to case.
+    //
+    // Safety from rep exposure:
+    //   All fields are private and final; arrays are never returned.
+
+    /**
+     * Make a matcher for a list of words.
+     *
+     * @param words
+     *            words to search for, not modified by this method. A word is a
+     *            nonempty sequence of nonspace characters; any other string
+     *            can never match and is ignored.
+     */
+    public WordMatcher(final List<String> words) {
+        int capacity = 4;
+        while (capacity < words.size() * 2 + 1) {
+            capacity *= 2;
+        }
+        this.table = new String[capacity];
+        this.hashes = new int[capacity];
+        this.mask = capacity - 1;
+
+        int count = 0;
+        for (String word : words) {
+            if (word.isEmpty() || hasWhitespace(word)) {
+                continue;
+            }
+            final int hash = hash(word, 0, word.length());
+            int slot = hash & mask;
+            while (table[slot] != null && !sameWord(table[slot], hashes[slot], word, 0, word.length(), hash)) {
+                slot = (slot + 1) & mask;
+            }
+            if (table[slot] == null) {
+                table[slot] = word;
+                hashes[slot] = hash;
+                ++count;
+            }
+        }
+        this.size = count;
+    }
+
+    /**
+     * @return number of distinct (ignoring case) words this matcher looks for.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param text
+     *            text to search, e.g. the text of a tweet.
+     * @return true iff text, as a sequence of nonempty words bounded by
+     *         whitespace and the ends of the string, includes at least one of
+     *         this matcher's words, ignoring case.
+     */
+    public boolean matches(final CharSequence text) {
+        if (size == 0) {
+            return false;
+        }
+        final int length = text.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && Character.isWhitespace(text.charAt(i))) {
+                ++i;
+            }
+            final int start = i;
+            while (i < length && !Character.isWhitespace(text.charAt(i))) {
+                ++i;
+            }
+            if (i > start && contains(text, start, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param text
+     *            characters holding a candidate word
+     * @param start
+     *            index of the first character of the word
+     * @param end
+     *            index just past the last character of the word
+     * @return true iff text[start..end) is one of this matcher's words,
+     *         ignoring case.
+     */
+    public boolean contains(final CharSequence text, final int start, final int end) {
+        final int hash = hash(text, start, end);
+        int slot = hash & mask;
+        while (table[slot] != null) {
+            if (sameWord(table[slot], hashes[slot], text, start, end, hash)) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /*
+     * matches() for a text of ASCII bytes, bytes[from..to), read in place
+     * without decoding it into characters.
+     */
+    boolean matchesAscii(final byte[] bytes, final int from, final int to) {
+        if (size == 0) {
+            return false;
+        }
+        int i = from;
+        while (i < to) {
+            while (i < to && Character.isWhitespace(bytes[i])) {
+                ++i;
+            }
+            final int start = i;
+            int h = 0;
+            while (i < to && !Character.isWhitespace(bytes[i])) {
+                h = 31 * h + fold((char) bytes[i]);
+                ++i;
+            }
+            if (i > start && containsAscii(bytes, start, i, h ^ (h >>> 16))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean containsAscii(final byte[] bytes, final int start, final int end, final int hash) {
+        int slot = hash & mask;
+        while (table[slot] != null) {
+            final String word = table[slot];
+            if (hashes[slot] == hash && word.length() == end - start) {
+                int i = 0;
+                while (i < word.length() && fold(word.charAt(i)) == fold((char) bytes[start + i])) {
+                    ++i;
+                }
+                if (i == word.length()) {
+                    return true;
+                }
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /*
+     * matchesAscii() for ASCII bytes in a buffer, such as a memory-mapped
+     * file, read with absolute gets.
+     */
+    boolean matchesAscii(final ByteBuffer bytes, final int from, final int to) {
+        if (size == 0) {
+            return false;
+        }
+        int i = from;
+        while (i < to) {
+            while (i < to && Character.isWhitespace(bytes.get(i))) {
+                ++i;
+            }
+            final int start = i;
+            int h = 0;
+            while (i < to && !Character.isWhitespace(bytes.get(i))) {
+                h = 31 * h + fold((char) bytes.get(i));
+                ++i;
+            }
+            if (i > start && containsAscii(bytes, start, i, h ^ (h >>> 16))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean containsAscii(final ByteBuffer bytes, final int start, final int end, final int hash) {
+        int slot = hash & mask;
+        while (table[slot] != null) {
+            final String word = table[slot];
+            if (hashes[slot] == hash && word.length() == end - start) {
+                int i = 0;
+                while (i < word.length() && fold(word.charAt(i)) == fold((char) bytes.get(start + i))) {
+                    ++i;
+                }
+                if (i == word.length()) {
+                    return true;
+                }
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    private static boolean sameWord(final String word, final int wordHash,
+            final CharSequence text, final int start, final int end, final int hash) {
+        if (wordHash != hash || word.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); ++i) {
+            if (fold(word.charAt(i)) != fold(text.charAt(start + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasWhitespace(final String word) {
+        for (int i = 0; i < word.length(); ++i) {
+            if (Character.isWhitespace(word.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * @return a hash of text[start..end) that is the same for any two strings
+     *         equal ignoring case.
+     */
+    static int hash(final CharSequence text, final int start, final int end) {
+        int h = 0;
+        for (int i = start; i < end; ++i) {
+            h = 31 * h + fold(text.charAt(i));
+        }
+        // spread the high bits into the low bits used as slot index
+        return h ^ (h >>> 16);
+    }
+
+    /*
+     * @return c folded the way String.equalsIgnoreCase() compares characters.
+     */
+    static char fold(final char c) {
+        if (c < 128) {
+            return (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+}
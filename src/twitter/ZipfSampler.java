@@ -0,0 +1,102 @@
+package twitter;
+
+import java.util.SplittableRandom;
+
+/**
+ * ZipfSampler draws ranks 1..n with probability proportional to 1 / rank^s,
+ * in O(1) time and memory per sample whatever n is, by rejection-inversion
+ * (Hoermann and Derflinger, "Rejection-inversion to generate variates from
+ * monotone discrete distributions", 1996). An exponent of 0 gives the
+ * uniform distribution.
+ *
+ * A ZipfSampler is immutable and safe to share between threads; the
+ * randomness comes from the generator passed to sample().
+ */
+class ZipfSampler {
+
+    private final int n;
+    private final double exponent;
+    private final double hIntegralX1;
+    private final double hIntegralN;
+    private final double s;
+    // Rep invariant:
+    //   n >= 1, exponent >= 0
+    //
+    // Abstraction Function:
+    //   represents the Zipf distribution over 1..n with the given exponent;
+    //   hIntegralX1, hIntegralN and s are precomputed constants of the
+    //   rejection-inversion method.
+
+    // Creator:
+    ZipfSampler(final int n, final double exponent) {
+        if (n < 1) {
+            throw new IllegalArgumentException("n must be positive");
+        }
+        if (exponent < 0 || Double.isNaN(exponent)) {
+            throw new IllegalArgumentException("exponent must not be negative");
+        }
+        this.n = n;
+        this.exponent = exponent;
+        this.hIntegralX1 = hIntegral(1.5) - 1.0;
+        this.hIntegralN = hIntegral(n + 0.5);
+        this.s = 2.0 - hIntegralInverse(hIntegral(2.5) - h(2.0));
+    }
+
+    /**
+     * @param random
+     *            source of randomness.
+     * @return a rank between 1 and n.
+     */
+    int sample(final SplittableRandom random) {
+        if (exponent == 0) {
+            return 1 + random.nextInt(n);
+        }
+        while (true) {
+            final double u = hIntegralN + random.nextDouble() * (hIntegralX1 - hIntegralN);
+            final double x = hIntegralInverse(u);
+            int k = (int) (x + 0.5);
+            if (k < 1) {
+                k = 1;
+            } else if (k > n) {
+                k = n;
+            }
+            if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+                return k;
+            }
+        }
+    }
+
+    // integral of h from 1 to x, up to a constant.
+    private double hIntegral(final double x) {
+        final double logX = Math.log(x);
+        return helper2((1.0 - exponent) * logX) * logX;
+    }
+
+    private double h(final double x) {
+        return Math.exp(-exponent * Math.log(x));
+    }
+
+    private double hIntegralInverse(final double x) {
+        double t = x * (1.0 - exponent);
+        if (t < -1.0) {
+            t = -1.0; // only reached through rounding
+        }
+        return Math.exp(helper1(t) * x);
+    }
+
+    // log(1 + x) / x, accurate near 0.
+    private static double helper1(final double x) {
+        if (Math.abs(x) > 1e-8) {
+            return Math.log1p(x) / x;
+        }
+        return 1.0 - x * (0.5 - x * (1.0 / 3.0 - 0.25 * x));
+    }
+
+    // (exp(x) - 1) / x, accurate near 0.
+    private static double helper2(final double x) {
+        if (Math.abs(x) > 1e-8) {
+            return Math.expm1(x) / x;
+        }
+        return 1.0 + x * 0.5 * (1.0 + x * (1.0 / 3.0) * (1.0 + 0.25 * x));
+    }
+}
@@ -0,0 +1,90 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class ConcurrentFollowsGraphBuilderTest {
+
+    /*
+     * Testing strategy for ConcurrentFollowsGraphBuilder
+     *
+     * Partition the inputs as follows:
+     * producer threads = 1, > 1
+     * tweets = 0, 1, > 1; self mention; same user in different case
+     * snapshot: of an empty builder, while producers are running, at the end,
+     *   after an earlier snapshot
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        assertTrue(new ConcurrentFollowsGraphBuilder().snapshot().isEmpty());
+    }
+
+    @Test
+    public void testOneThread() {
+        List<Tweet> tweets = Arrays.asList(
+                new Tweet(1, "Bob", "@bob @Carol", d1),
+                new Tweet(2, "carol", "@BOB", d1),
+                new Tweet(3, "dave", "no mentions", d1));
+        ConcurrentFollowsGraphBuilder builder = new ConcurrentFollowsGraphBuilder();
+        builder.addAll(tweets);
+
+        assertEquals(SocialNetwork.guessFollowsGraph(tweets), builder.snapshot());
+    }
+
+    @Test
+    public void testSnapshotsAccumulate() {
+        List<Tweet> first = Arrays.asList(new Tweet(1, "alyssa", "@bob", d1));
+        List<Tweet> both = Arrays.asList(first.get(0),
+                new Tweet(2, "Alyssa", "@carol", d1), new Tweet(3, "bob", "@alyssa", d1));
+        ConcurrentFollowsGraphBuilder builder = new ConcurrentFollowsGraphBuilder();
+        builder.addAll(first);
+        assertEquals(SocialNetwork.guessFollowsGraph(first), builder.snapshot());
+        builder.addAll(both.subList(1, 3));
+        assertEquals(SocialNetwork.guessFollowsGraph(both), builder.snapshot());
+        assertEquals(SocialNetwork.guessFollowsGraph(both), builder.snapshot());
+    }
+
+    @Test
+    public void testManyThreads() throws InterruptedException {
+        final List<Tweet> tweets = new TweetGenerator(17).withUsers(300).list(20000);
+        final ConcurrentFollowsGraphBuilder builder = new ConcurrentFollowsGraphBuilder();
+        final Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; ++i) {
+            final int first = i;
+            threads[i] = new Thread(() -> {
+                for (int j = first; j < tweets.size(); j += threads.length) {
+                    builder.add(tweets.get(j));
+                }
+            });
+            threads[i].start();
+        }
+
+        // snapshots taken while producers run must be internally consistent
+        Map<String, Set<String>> partial = builder.snapshot();
+        for (Set<String> followList : partial.values()) {
+            for (String name : followList) {
+                assertTrue("followed user must be a key", partial.containsKey(name));
+            }
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(SocialNetwork.guessFollowsGraph(tweets), builder.snapshot());
+    }
+}
@@ -0,0 +1,102 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+public class ExtractParallelTest {
+
+    /*
+     * Testing strategy for getMentionedUsersParallel()
+     *
+     * Partition the inputs as follows:
+     * tweetList null ptr tested.
+     * tweetList.size() = 0, 1, > chunk size (so the list is really split)
+     * list kind: random access (ArrayList), sequential (LinkedList)
+     * pool parallelism = 1, > 1
+     *
+     * The result must equal getMentionedUsers() on the same list.
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static final String[] WORDS = {
+        "hello", "@alice", "@Alice", "@BOB,", "bob@mit.edu", "@@carol", "@a1234567890123456789", "!"
+    };
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testNullList() {
+        Extract.getMentionedUsersParallel(null);
+    }
+
+    @Test
+    public void testEmptyList() {
+        assertTrue("expected empty set", Extract.getMentionedUsersParallel(new ArrayList<Tweet>()).isEmpty());
+    }
+
+    @Test
+    public void testOneTweet() {
+        List<Tweet> tweets = Arrays.asList(new Tweet(1, "dave", "fyi: @johnsmith @JohnSmith are the same name", d1));
+        Set<String> mentionedUsers = Extract.getMentionedUsersParallel(tweets);
+
+        assertEquals(Extract.getMentionedUsers(tweets), mentionedUsers);
+        assertTrue("expected case-insensitive set", mentionedUsers.contains("JOHNSMITH"));
+    }
+
+    @Test
+    public void testLargeArrayList() {
+        List<Tweet> tweets = corpus(50000);
+
+        assertEquals(Extract.getMentionedUsers(tweets), Extract.getMentionedUsersParallel(tweets));
+    }
+
+    @Test
+    public void testLargeLinkedList() {
+        List<Tweet> tweets = new LinkedList<Tweet>(corpus(20000));
+
+        assertEquals(Extract.getMentionedUsers(tweets), Extract.getMentionedUsersParallel(tweets));
+    }
+
+    @Test
+    public void testPoolSizes() {
+        List<Tweet> tweets = corpus(20000);
+        Set<String> expected = Extract.getMentionedUsers(tweets);
+
+        for (int parallelism : new int[] {1, 4}) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                assertEquals(expected, Extract.getMentionedUsersParallel(tweets, pool));
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /*
+     * @return size tweets, each with a few words and numbered mentions.
+     */
+    private static List<Tweet> corpus(final int size) {
+        final Random random = new Random(size);
+        final List<Tweet> tweets = new ArrayList<Tweet>();
+        for (int i = 0; i < size; ++i) {
+            String text = WORDS[random.nextInt(WORDS.length)] + " @user" + random.nextInt(size / 10)
+                    + " " + WORDS[random.nextInt(WORDS.length)];
+            tweets.add(new Tweet(i, "author" + (i % 100), text, d1));
+        }
+        return tweets;
+    }
+}
@@ -0,0 +1,107 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class FollowsGraphTest {
+
+    /*
+     * Testing strategy for FollowsGraph
+     *
+     * Partition the inputs as follows:
+     * tweets = 0, 1, > 1
+     * mentions per tweet = 0, 1, > 1; self mention; repeated evidence
+     * username case differs between tweets
+     * built from tweets, from a map
+     * in-edges: user with 0, 1, > 1 followers
+     * map view: get with any case, unknown user, equality with guessFollowsGraph
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "HelloKitty", "@peter and @Mary, where is paul?", d1);
+    private static final Tweet tweet3 = new Tweet(3, "hellokitty", "@PETER again", d1);
+    private static final Tweet tweet4 = new Tweet(4, "a_lyssp_", "RT @a_lyssp_: @evalu_ no friends :(", d1);
+    private static final Tweet tweet5 = new Tweet(5, "mary", "@hellokitty @a_lyssp_", d1);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        FollowsGraph graph = FollowsGraph.fromTweets(new ArrayList<Tweet>());
+
+        assertEquals(0, graph.userCount());
+        assertEquals(0, graph.edgeCount());
+        assertTrue(graph.asMap().isEmpty());
+    }
+
+    @Test
+    public void testEdges() {
+        FollowsGraph graph = FollowsGraph.fromTweets(Arrays.asList(tweet1, tweet2, tweet3, tweet4, tweet5));
+        int kitty = graph.id("HELLOKITTY");
+        int peter = graph.id("peter");
+        int mary = graph.id("Mary");
+        int lyssp = graph.id("a_lyssp_");
+
+        assertEquals(6, graph.userCount());
+        assertEquals(5, graph.edgeCount());
+        assertEquals(-1, graph.id("paul"));
+        assertEquals("hellokitty", graph.username(kitty));
+        assertEquals(2, graph.outDegree(kitty));
+        assertTrue(graph.follows(kitty, peter));
+        assertFalse(graph.follows(peter, kitty));
+        assertFalse("no self loops", graph.follows(lyssp, lyssp));
+        assertEquals(0, graph.outDegree(graph.id("alyssa")));
+
+        assertEquals(2, graph.inDegree(lyssp) + graph.inDegree(mary));
+        assertEquals(0, graph.inDegree(graph.id("alyssa")));
+        assertEquals(mary, graph.inSource(graph.inStart(kitty)));
+    }
+
+    @Test
+    public void testRowsSorted() {
+        FollowsGraph graph = FollowsGraph.fromTweets(new TweetGenerator(7).withUsers(200).list(3000));
+
+        for (int u = 0; u < graph.userCount(); ++u) {
+            for (int i = graph.outStart(u) + 1; i < graph.outEnd(u); ++i) {
+                assertTrue(graph.outTarget(i - 1) < graph.outTarget(i));
+            }
+            for (int i = graph.inStart(u); i < graph.inEnd(u); ++i) {
+                assertTrue(graph.follows(graph.inSource(i), u));
+            }
+        }
+    }
+
+    @Test
+    public void testSameAsGuessFollowsGraph() {
+        List<Tweet> tweets = new ArrayList<Tweet>(Arrays.asList(tweet1, tweet2, tweet3, tweet4, tweet5));
+        tweets.addAll(new TweetGenerator(3).withUsers(300).withEdgeCaseRate(0.2).list(5000));
+        Map<String, Set<String>> expected = SocialNetwork.guessFollowsGraph(tweets);
+        Map<String, Set<String>> actual = FollowsGraph.fromTweets(tweets).asMap();
+
+        assertEquals(expected, actual);
+        assertEquals(actual, expected);
+    }
+
+    @Test
+    public void testFromMap() {
+        Map<String, Set<String>> expected = SocialNetwork.guessFollowsGraph(Arrays.asList(tweet2, tweet5));
+        FollowsGraph graph = FollowsGraph.fromMap(expected);
+
+        assertEquals(expected, graph.asMap());
+        assertTrue(graph.asMap().get("MARY").contains("HelloKitty"));
+        assertNull(graph.asMap().get("nobody"));
+    }
+}
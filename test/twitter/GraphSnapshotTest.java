@@ -0,0 +1,176 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class GraphSnapshotTest {
+
+    /*
+     * Testing strategy for GraphSnapshot
+     *
+     * Partition the inputs as follows:
+     * users = 0, 1, > 1; non-ASCII usernames
+     * graph given as a Map, as a FollowsGraph
+     * file: valid, overwritten, not a snapshot, truncated, corrupt header,
+     *   corrupt edges; write fails
+     * lookups: present, absent, different case
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    private static Path tempFile() throws IOException {
+        final Path path = Files.createTempFile("snapshot", ".twfg");
+        path.toFile().deleteOnExit();
+        return path;
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        Path path = tempFile();
+        GraphSnapshot.write(Collections.<String, Set<String>>emptyMap(), path);
+        GraphSnapshot snapshot = GraphSnapshot.open(path);
+        assertTrue(snapshot.verify());
+        assertEquals(0, snapshot.userCount());
+        assertEquals(-1, snapshot.id("alice"));
+        assertEquals(Collections.emptyList(), snapshot.influencers(3));
+    }
+
+    @Test
+    public void testSmallGraph() throws IOException {
+        Map<String, Set<String>> graph = new HashMap<String, Set<String>>();
+        graph.put("Zed", new HashSet<String>(Arrays.asList("alice", "\u00e9mile")));
+        graph.put("alice", new HashSet<String>(Arrays.asList("zed")));
+        graph.put("bob", new HashSet<String>());
+        Path path = tempFile();
+        GraphSnapshot.write(graph, path);
+
+        GraphSnapshot snapshot = GraphSnapshot.open(path);
+        assertTrue(snapshot.verify());
+        assertEquals(4, snapshot.userCount());
+        assertEquals(3, snapshot.edgeCount());
+        int zed = snapshot.id("ZED");
+        int alice = snapshot.id("alice");
+        int emile = snapshot.id("\u00c9mile");
+        assertEquals("zed", snapshot.username(zed));
+        assertEquals("\u00e9mile", snapshot.username(emile));
+        assertEquals(-1, snapshot.id("carol"));
+        assertTrue(snapshot.follows(zed, alice));
+        assertTrue(snapshot.follows(alice, zed));
+        assertFalse(snapshot.follows(alice, emile));
+        assertEquals(2, snapshot.outDegree(zed));
+        assertEquals(1, snapshot.inDegree(emile));
+        assertEquals(0, snapshot.outDegree(snapshot.id("bob")));
+        assertEquals(zed, snapshot.inSource(snapshot.inStart(emile)));
+        assertEquals(FollowsGraph.fromMap(graph).asMap(), snapshot.toFollowsGraph().asMap());
+    }
+
+    @Test
+    public void testMatchesGraph() throws IOException {
+        List<Tweet> tweets = new TweetGenerator(19).withUsers(2000).list(30000);
+        FollowsGraph graph = FollowsGraph.fromTweets(tweets);
+        Path path = tempFile();
+        GraphSnapshot.write(graph, path);
+        // overwrite with the same graph: the rename replaces the file
+        GraphSnapshot.write(graph, path);
+
+        GraphSnapshot snapshot = GraphSnapshot.open(path);
+        assertTrue(snapshot.verify());
+        assertEquals(graph.userCount(), snapshot.userCount());
+        assertEquals(graph.edgeCount(), snapshot.edgeCount());
+        assertEquals(graph.asMap(), snapshot.toFollowsGraph().asMap());
+        assertEquals(SocialNetwork.influencers(graph, 25), snapshot.influencers(25));
+        for (int u = 0; u < graph.userCount(); u += 97) {
+            int id = snapshot.id(graph.username(u));
+            assertEquals(graph.inDegree(u), snapshot.inDegree(id));
+            assertEquals(graph.outDegree(u), snapshot.outDegree(id));
+        }
+    }
+
+    @Test
+    public void testCorruptEdges() throws IOException {
+        Map<String, Set<String>> graph = new HashMap<String, Set<String>>();
+        graph.put("alice", new HashSet<String>(Arrays.asList("bob")));
+        Path path = tempFile();
+        GraphSnapshot.write(graph, path);
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(path, bytes);
+        assertFalse(GraphSnapshot.open(path).verify());
+    }
+
+    @Test
+    public void testCorruptHeader() throws IOException {
+        Path path = tempFile();
+        GraphSnapshot.write(Collections.<String, Set<String>>emptyMap(), path);
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[8] ^= 1;
+        Files.write(path, bytes);
+        try {
+            GraphSnapshot.open(path);
+            fail("expected IOException");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("corrupt"));
+        }
+    }
+
+    @Test
+    public void testNotASnapshot() throws IOException {
+        Path path = tempFile();
+        Files.write(path, "alice follows bob".getBytes("UTF-8"));
+        try {
+            GraphSnapshot.open(path);
+            fail("expected IOException");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("not a follows graph snapshot"));
+        }
+    }
+
+    @Test
+    public void testFailedWriteRemovesTemporaryFile() throws IOException {
+        // a non-empty directory cannot be replaced by the written file
+        Path directory = Files.createTempDirectory("snapshot");
+        directory.toFile().deleteOnExit();
+        Path path = directory.resolve("graph.twfg");
+        Files.createDirectory(path);
+        path.toFile().deleteOnExit();
+        Path inside = Files.createFile(path.resolve("file"));
+        inside.toFile().deleteOnExit();
+        Map<String, Set<String>> graph = new HashMap<String, Set<String>>();
+        graph.put("alice", new HashSet<String>(Arrays.asList("bob")));
+        try {
+            GraphSnapshot.write(graph, path);
+            fail("expected IOException");
+        } catch (IOException e) {
+            assertFalse(Files.exists(directory.resolve("graph.twfg.tmp")));
+        }
+    }
+
+    @Test(expected=IOException.class)
+    public void testTruncated() throws IOException {
+        Map<String, Set<String>> graph = new HashMap<String, Set<String>>();
+        graph.put("alice", new HashSet<String>(Arrays.asList("bob")));
+        Path path = tempFile();
+        GraphSnapshot.write(graph, path);
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 4));
+        GraphSnapshot.open(path);
+    }
+}
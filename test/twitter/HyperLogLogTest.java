@@ -0,0 +1,102 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class HyperLogLogTest {
+
+    /*
+     * Testing strategy for HyperLogLog
+     *
+     * Partition the inputs as follows:
+     * precision: below MIN_PRECISION, MIN_PRECISION, typical, above MAX_PRECISION
+     * distinct usernames = 0, small (linear counting range), large
+     * same username with different case
+     * merge: same precision, different precision, overlapping partitions
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testPrecisionTooSmall() {
+        new HyperLogLog(HyperLogLog.MIN_PRECISION - 1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testPrecisionTooLarge() {
+        new HyperLogLog(HyperLogLog.MAX_PRECISION + 1);
+    }
+
+    @Test
+    public void testEmpty() {
+        assertEquals(0, new HyperLogLog(HyperLogLog.MIN_PRECISION).estimate());
+    }
+
+    @Test
+    public void testCaseInsensitive() {
+        HyperLogLog sketch = new HyperLogLog(12);
+        sketch.add("ernie");
+        sketch.add("ERNie");
+        sketch.add("bert");
+
+        assertEquals(2, sketch.estimate());
+    }
+
+    @Test
+    public void testMentionsFollowExtractRules() {
+        List<Tweet> tweets = Arrays.asList(
+                new Tweet(1, "alyssa", "fyi: @johnsmith @JohnSmith are the same name", d1),
+                new Tweet(2, "bbitdiddle", "my email address: batman@gmail.com @@dupatsign", d1));
+        HyperLogLog sketch = new HyperLogLog(12);
+        sketch.addMentions(tweets);
+
+        assertEquals(Extract.getMentionedUsers(tweets).size(), sketch.estimate());
+    }
+
+    @Test
+    public void testLargeCardinality() {
+        HyperLogLog sketch = new HyperLogLog(14);
+        for (int i = 0; i < 200000; ++i) {
+            sketch.add("user" + i);
+        }
+
+        assertEquals(200000, sketch.estimate(), 200000 * 0.03);
+    }
+
+    @Test
+    public void testMergePartitions() {
+        HyperLogLog mentioned = new HyperLogLog(14);
+        HyperLogLog authors = new HyperLogLog(14);
+        List<Tweet> tweets = new ArrayList<Tweet>();
+        for (int i = 0; i < 50000; ++i) {
+            // authors 0..24999 mention users 20000..69999: 70000 distinct users in all
+            tweets.add(new Tweet(i, "user" + (i / 2), "hi @USER" + (i + 20000), d1));
+        }
+        mentioned.addMentions(tweets);
+        authors.addAuthors(tweets);
+        HyperLogLog union = mentioned.union(authors);
+
+        assertEquals(50000, mentioned.estimate(), 50000 * 0.03);
+        assertEquals(25000, authors.estimate(), 25000 * 0.03);
+        assertEquals(70000, union.estimate(), 70000 * 0.03);
+
+        mentioned.merge(authors);
+        assertEquals(union.estimate(), mentioned.estimate());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testMergeDifferentPrecision() {
+        new HyperLogLog(10).merge(new HyperLogLog(11));
+    }
+}
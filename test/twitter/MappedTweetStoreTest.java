@@ -0,0 +1,240 @@
+package twitter;
+
+import static org.junit.Assert.*;
+import static twitter.TweetAssert.assertSameTweets;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Test;
+
+public class MappedTweetStoreTest {
+
+    /*
+     * Testing strategy for MappedTweetStore
+     *
+     * Partition the inputs as follows:
+     * tweets = 0, 1, > 1; texts: empty, ASCII, non-ASCII; empty text right
+     *   after a full chunk
+     * chunks: one, many (records and texts crossing chunk boundaries)
+     * writers: one, several appending in turn; tweets not committed
+     * files: valid, not a store, truncated, corrupt author dictionary;
+     *   opened by open(), by a Writer
+     * filters: no match, some; compared with Filter on the same tweets
+     * timestamps: with nanoseconds, out of range
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00.000000123Z");
+    private static final Instant d3 = Instant.parse("2016-02-17T12:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d2);
+    private static final Tweet tweet3 = new Tweet(3, "Alyssa", "caf\u00e9 au lait with @BBitDiddle", d3);
+    private static final Tweet tweet4 = new Tweet(4, "bbitdiddle", "", d1);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    private static Path tempDirectory() throws IOException {
+        final Path directory = Files.createTempDirectory("tweets");
+        directory.toFile().deleteOnExit();
+        for (String file : Arrays.asList(MappedTweetStore.RECORDS, MappedTweetStore.TEXTS, MappedTweetStore.AUTHORS)) {
+            directory.resolve(file).toFile().deleteOnExit();
+        }
+        return directory;
+    }
+
+    private static MappedTweetStore write(final List<Tweet> tweets, final int chunkBits) throws IOException {
+        final Path directory = tempDirectory();
+        try (MappedTweetStore.Writer writer = new MappedTweetStore.Writer(directory, chunkBits)) {
+            writer.appendAll(tweets);
+        }
+        return MappedTweetStore.open(directory);
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        MappedTweetStore store = write(Collections.<Tweet>emptyList(), 30);
+        assertEquals(0, store.size());
+        assertEquals(0, store.authorCount());
+        assertTrue(store.tweets().isEmpty());
+        assertTrue(store.writtenBy("alyssa").isEmpty());
+        assertTrue(store.containing(Arrays.asList("talk")).isEmpty());
+        assertTrue(store.mentionedUsers().isEmpty());
+    }
+
+    @Test
+    public void testRoundTripAndFilters() throws IOException {
+        List<Tweet> tweets = Arrays.asList(tweet1, tweet2, tweet3, tweet4);
+        MappedTweetStore store = write(tweets, 30);
+        assertEquals(4, store.size());
+        assertEquals(3, store.authorCount());
+        assertSameTweets(tweets, store.tweets());
+
+        assertSameTweets(Arrays.asList(tweet1, tweet3), store.writtenBy("ALYSSA"));
+        assertSameTweets(Collections.<Tweet>emptyList(), store.writtenBy("nobody"));
+        assertSameTweets(Arrays.asList(tweet2, tweet3), store.inTimespan(new Timespan(d2, d3)));
+        assertSameTweets(Arrays.asList(tweet1, tweet2), store.containing(Arrays.asList("TALK")));
+        assertSameTweets(Arrays.asList(tweet3), store.containing(Arrays.asList("CAF\u00c9")));
+        assertEquals(d1, store.timespan().getStart());
+        assertEquals(d3, store.timespan().getEnd());
+    }
+
+    @Test
+    public void testSmallChunks() throws IOException {
+        // 1 KiB chunks: records and texts of 2000 tweets span many of them
+        List<Tweet> tweets = new TweetGenerator(22).withUsers(200).withEdgeCaseRate(0.2).list(2000);
+        MappedTweetStore store = write(tweets, 10);
+        assertSameTweets(tweets, store.tweets());
+        assertEquals(SocialNetwork.guessFollowsGraph(tweets), SocialNetwork.guessFollowsGraph(store.tweets()));
+
+        String author = tweets.get(17).getAuthor().toUpperCase();
+        assertSameTweets(Filter.writtenBy(tweets, author), store.writtenBy(author));
+        Timespan span = new Timespan(tweets.get(500).getTimestamp(), tweets.get(1500).getTimestamp());
+        assertSameTweets(Filter.inTimespan(tweets, span), store.inTimespan(span));
+        List<String> words = Arrays.asList(new TweetGenerator(22).word(1), new TweetGenerator(22).word(40));
+        assertSameTweets(Filter.containing(tweets, words), store.containing(words));
+        assertEquals(Extract.getMentionedUsers(tweets), store.mentionedUsers());
+    }
+
+    @Test
+    public void testAppendAcrossWriters() throws IOException {
+        Path directory = tempDirectory();
+        try (MappedTweetStore.Writer writer = new MappedTweetStore.Writer(directory)) {
+            writer.append(tweet1);
+            writer.append(tweet2);
+        }
+        MappedTweetStore before = MappedTweetStore.open(directory);
+        try (MappedTweetStore.Writer writer = new MappedTweetStore.Writer(directory)) {
+            writer.append(tweet3);
+            writer.flush();
+            writer.append(tweet4);
+        }
+        assertSameTweets(Arrays.asList(tweet1, tweet2), before.tweets());
+        MappedTweetStore after = MappedTweetStore.open(directory);
+        assertEquals(3, after.authorCount());
+        assertSameTweets(Arrays.asList(tweet1, tweet2, tweet3, tweet4), after.tweets());
+    }
+
+    @Test
+    public void testUncommittedTweetsDropped() throws IOException {
+        Path directory = tempDirectory();
+        try (MappedTweetStore.Writer writer = new MappedTweetStore.Writer(directory)) {
+            writer.append(tweet1);
+        }
+        // a crashed writer left bytes past the committed lengths
+        for (String file : Arrays.asList(MappedTweetStore.RECORDS, MappedTweetStore.TEXTS, MappedTweetStore.AUTHORS)) {
+            Files.write(directory.resolve(file), new byte[] {1, 2, 3, 4, 5, 6, 7}, StandardOpenOption.APPEND);
+        }
+        assertSameTweets(Arrays.asList(tweet1), MappedTweetStore.open(directory).tweets());
+        try (MappedTweetStore.Writer writer = new MappedTweetStore.Writer(directory)) {
+            writer.append(tweet3);
+        }
+        assertSameTweets(Arrays.asList(tweet1, tweet3), MappedTweetStore.open(directory).tweets());
+    }
+
+    @Test
+    public void testManyFlushes() throws IOException {
+        Path directory = tempDirectory();
+        List<Tweet> expected = new ArrayList<Tweet>();
+        try (MappedTweetStore.Writer writer = new MappedTweetStore.Writer(directory, 10)) {
+            for (int i = 0; i < 300; ++i) {
+                Tweet t = new Tweet(i, "user" + (i % 7), "hello #" + i, d1.plusSeconds(i));
+                writer.append(t);
+                expected.add(t);
+                if (i % 50 == 0) {
+                    writer.flush();
+                    assertEquals(i + 1, MappedTweetStore.open(directory).size());
+                }
+            }
+        }
+        assertSameTweets(expected, MappedTweetStore.open(directory).tweets());
+    }
+
+    @Test
+    public void testEmptyTextAtEndOfFullChunk() throws IOException {
+        List<Tweet> tweets = new ArrayList<Tweet>();
+        StringBuilder text = new StringBuilder("@bob ");
+        while (text.length() < 128) {
+            text.append('x');
+        }
+        for (int i = 0; i < 8; ++i) {
+            tweets.add(new Tweet(i, "alyssa", text.toString(), d1));
+        }
+        // eight texts fill the 1 KiB chunk; the empty one starts past it
+        tweets.add(new Tweet(8, "bob", "", d1));
+        MappedTweetStore store = write(tweets, 10);
+        assertSameTweets(tweets, store.tweets());
+        assertEquals("", store.tweets().get(8).getText());
+        assertEquals(8, store.containing(Arrays.asList("@BOB")).size());
+        assertEquals(new HashSet<String>(Arrays.asList("bob")), store.mentionedUsers());
+    }
+
+    @Test(expected=IOException.class)
+    public void testNotAStore() throws IOException {
+        Path directory = tempDirectory();
+        for (String file : Arrays.asList(MappedTweetStore.RECORDS, MappedTweetStore.TEXTS, MappedTweetStore.AUTHORS)) {
+            Files.write(directory.resolve(file), new byte[100]);
+        }
+        MappedTweetStore.open(directory);
+    }
+
+    private static void assertBadStore(final Path directory, final String message) throws IOException {
+        final byte[] authors = Files.readAllBytes(directory.resolve(MappedTweetStore.AUTHORS));
+        try {
+            MappedTweetStore.open(directory);
+            fail("expected IOException from open");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(message));
+        }
+        try {
+            new MappedTweetStore.Writer(directory).close();
+            fail("expected IOException from Writer");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(message));
+        }
+        // the Writer left the store as it was
+        assertArrayEquals(authors, Files.readAllBytes(directory.resolve(MappedTweetStore.AUTHORS)));
+    }
+
+    @Test
+    public void testCorruptAuthors() throws IOException {
+        Path directory = tempDirectory();
+        try (MappedTweetStore.Writer writer = new MappedTweetStore.Writer(directory)) {
+            writer.appendAll(Arrays.asList(tweet1, tweet2, tweet3, tweet4));
+        }
+        Path authors = directory.resolve(MappedTweetStore.AUTHORS);
+        byte[] bytes = Files.readAllBytes(authors);
+
+        Files.write(authors, Arrays.copyOf(bytes, 3));
+        assertBadStore(directory, "truncated");
+
+        byte[] negative = bytes.clone();
+        negative[3] = (byte) 0x80;
+        Files.write(authors, negative);
+        assertBadStore(directory, "corrupt author dictionary");
+
+        byte[] tooLong = bytes.clone();
+        tooLong[0] = (byte) 0x7f;
+        Files.write(authors, tooLong);
+        assertBadStore(directory, "corrupt author dictionary");
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testTimestampOutOfRange() throws IOException {
+        try (MappedTweetStore.Writer writer = new MappedTweetStore.Writer(tempDirectory())) {
+            writer.append(new Tweet(1, "alyssa", "old", Instant.parse("1000-01-01T00:00:00Z")));
+        }
+    }
+}
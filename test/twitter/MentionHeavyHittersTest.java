@@ -0,0 +1,107 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class MentionHeavyHittersTest {
+
+    /*
+     * Testing strategy for Extract.getMentionCounts(), Extract.getMostMentionedUsers()
+     * and MentionHeavyHitters
+     *
+     * Partition the inputs as follows:
+     * tweetList.size() = 0, 1, > 1
+     * same user mentioned twice in one tweet, in two tweets, with different case
+     * k = 0, < number of users, > number of users
+     * sketch capacity: larger than number of users (exact), smaller (approximate)
+     * ties in count
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "fyi: @johnsmith @JohnSmith are the same name", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "@JOHNSMITH, @mary and bob@mit.edu", d1);
+    private static final Tweet tweet3 = new Tweet(3, "mary", "@alyssa @zed", d1);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testMentionCountsEmpty() {
+        assertTrue("expected empty map", Extract.getMentionCounts(new ArrayList<Tweet>()).isEmpty());
+    }
+
+    @Test
+    public void testMentionCountsOncePerTweet() {
+        Map<String, Integer> counts = Extract.getMentionCounts(Arrays.asList(tweet1, tweet2, tweet3));
+
+        assertEquals(Extract.getMentionedUsers(Arrays.asList(tweet1, tweet2, tweet3)), counts.keySet());
+        assertEquals(Integer.valueOf(2), counts.get("JohnSmith"));
+        assertEquals(Integer.valueOf(1), counts.get("mary"));
+    }
+
+    @Test
+    public void testMostMentionedUsers() {
+        List<Tweet> tweets = Arrays.asList(tweet1, tweet2, tweet3);
+
+        assertEquals(Arrays.asList(), Extract.getMostMentionedUsers(tweets, 0));
+        assertEquals(Arrays.asList("johnsmith", "alyssa"), Extract.getMostMentionedUsers(tweets, 2));
+        assertEquals(Arrays.asList("johnsmith", "alyssa", "mary", "zed"), Extract.getMostMentionedUsers(tweets, 10));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testZeroCapacity() {
+        new MentionHeavyHitters(0);
+    }
+
+    @Test
+    public void testExactWhenCapacityLarge() {
+        MentionHeavyHitters sketch = new MentionHeavyHitters(10);
+        sketch.addAll(Arrays.asList(tweet1, tweet2, tweet3));
+
+        assertEquals(5, sketch.total());
+        assertEquals(2, sketch.count("JOHNSMITH"));
+        assertEquals(0, sketch.count("nobody"));
+
+        List<String> names = new ArrayList<String>();
+        for (MentionHeavyHitters.Counter counter : sketch.top(10)) {
+            assertEquals(0, counter.getError());
+            names.add(counter.getUserName());
+        }
+        assertEquals(Extract.getMostMentionedUsers(Arrays.asList(tweet1, tweet2, tweet3), 10), names);
+    }
+
+    @Test
+    public void testHeavyHittersSurvive() {
+        // 3 heavy users among many rare ones, so the rare ones keep evicting each other
+        final Random random = new Random(6005);
+        final List<Tweet> tweets = new ArrayList<Tweet>();
+        for (int i = 0; i < 20000; ++i) {
+            String text = (i % 4 == 0) ? "@heavy" + (i % 3) : "@rare" + random.nextInt(5000);
+            tweets.add(new Tweet(i, "author", text, d1));
+        }
+
+        MentionHeavyHitters sketch = new MentionHeavyHitters(50);
+        sketch.addAll(tweets);
+        Map<String, Integer> exact = Extract.getMentionCounts(tweets);
+
+        List<String> top = new ArrayList<String>();
+        for (MentionHeavyHitters.Counter counter : sketch.top(3)) {
+            top.add(counter.getUserName());
+            long truth = exact.get(counter.getUserName());
+            assertTrue("count is an upper bound", counter.getCount() >= truth);
+            assertTrue("error bounds the overestimate", counter.getCount() - counter.getError() <= truth);
+        }
+        assertTrue(top.containsAll(Arrays.asList("heavy0", "heavy1", "heavy2")));
+    }
+}
@@ -0,0 +1,158 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+public class MentionScannerTest {
+
+    /*
+     * Testing strategy for MentionScanner
+     *
+     * Partition the inputs as follows:
+     * text length = 0, 1, > 1
+     * number of mentions = 0, 1, > 1
+     * mention position: beginning, middle, end of text
+     * character before "@": none, username character, "@", other
+     * character after the name: none, username character, "@", other
+     * name length = 0, 1, 15, 16
+     * name case: lower, upper, mixed
+     *
+     * The scanner must agree with the regex Extract used to apply, so besides
+     * the hand-picked partitions above we compare both on random text drawn
+     * from an alphabet that is dense in "@" and boundary characters.
+     */
+
+    private static final Pattern REFERENCE =
+            Pattern.compile("(?<![\\w\\-])@(([\\w\\-]){1,15})(?![\\w\\-])");
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testNullText() {
+        new MentionScanner(null);
+    }
+
+    @Test
+    public void testEmptyText() {
+        assertEquals(new ArrayList<String>(), scan(""));
+        assertEquals(new ArrayList<String>(), scan("@"));
+    }
+
+    @Test
+    public void testBeginningMiddleEnd() {
+        assertEquals(list("usa123", "canada-1", "usa_456"), scan("@usa123, @canada-1, @usa_456"));
+        assertEquals(list("johnsmith"), scan("Kyle, @johnsmith is my name"));
+        assertEquals(list("playboy"), scan("hi my name is @playboy!"));
+    }
+
+    @Test
+    public void testFoldsCase() {
+        assertEquals(list("johnsmith", "johnsmith"), scan("fyi: @johnsmith @JohnSmith are the same name"));
+    }
+
+    @Test
+    public void testEmailAddress() {
+        assertEquals(new ArrayList<String>(), scan("my email address: batman@gmail.com"));
+    }
+
+    @Test
+    public void testAtSigns() {
+        assertEquals(list("dupatsign"), scan("This is a legit name-mention: @@dupatsign"));
+        assertEquals(list("johnsmith"), scan("one or two or no name? @johnsmith@mit?"));
+    }
+
+    @Test
+    public void testNameLength() {
+        assertEquals(list("a12345678901234"), scan("@a12345678901234"));
+        assertEquals(new ArrayList<String>(), scan("@a123456789012345"));
+        assertEquals(new ArrayList<String>(), scan("this username @A1234567890123456789 is too long!"));
+    }
+
+    @Test
+    public void testStartEnd() {
+        MentionScanner scanner = new MentionScanner("hi @Bob!");
+
+        assertTrue(scanner.find());
+        assertEquals(4, scanner.start());
+        assertEquals(7, scanner.end());
+        assertFalse(scanner.find());
+    }
+
+    @Test(expected=IllegalStateException.class)
+    public void testMentionBeforeFind() {
+        new MentionScanner("@bob").mention();
+    }
+
+    @Test
+    public void testReset() {
+        MentionScanner scanner = new MentionScanner("@alice");
+
+        assertTrue(scanner.find());
+        assertFalse(scanner.find());
+        scanner.reset("@bob @carol");
+        assertTrue(scanner.find());
+        assertEquals("bob", scanner.mention());
+    }
+
+    @Test
+    public void testAgreesWithRegex() {
+        final String alphabet = "aZ09_-@@@ .,!?\t";
+        final Random random = new Random(6005);
+
+        for (int n = 0; n < 20000; ++n) {
+            final StringBuilder text = new StringBuilder();
+            final int length = random.nextInt(40);
+            for (int i = 0; i < length; ++i) {
+                text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            // long runs are rare at random, so splice some in to cover the length limit
+            if (random.nextBoolean()) {
+                text.insert(random.nextInt(text.length() + 1),
+                        "@" + "abcdefghijklmnopqrstuvwxyz".substring(0, 13 + random.nextInt(5)));
+            }
+            assertEquals("text: " + text, regex(text.toString()), scan(text.toString()));
+        }
+    }
+
+    /*
+     * @return every mention in text, in order, according to the reference regex.
+     */
+    private static List<String> regex(final String text) {
+        final List<String> names = new ArrayList<String>();
+        final Matcher matcher = REFERENCE.matcher(text);
+        while (matcher.find()) {
+            names.add(matcher.group(1).toLowerCase());
+        }
+        return names;
+    }
+
+    /*
+     * @return every mention in text, in order, according to MentionScanner.
+     */
+    private static List<String> scan(final String text) {
+        final List<String> names = new ArrayList<String>();
+        final MentionScanner scanner = new MentionScanner(text);
+        while (scanner.find()) {
+            names.add(scanner.mention());
+        }
+        return names;
+    }
+
+    private static List<String> list(final String... names) {
+        final List<String> result = new ArrayList<String>();
+        for (String name : names) {
+            result.add(name);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,168 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class PageRankTest {
+
+    /*
+     * Testing strategy for PageRank
+     *
+     * Partition the inputs as follows:
+     * users = 0, 1, > 1; more users than one parallel block
+     * dangling users: none, some
+     * seeds: none (plain PageRank), one, several, some not in the graph,
+     *   none in the graph
+     * k = 0, < users, > users
+     * parameters: default, damping = 0, invalid
+     */
+
+    private static final double EPSILON = 1e-9;
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    private static Map<String, Set<String>> graph(final String... edges) {
+        final Map<String, Set<String>> map = new HashMap<String, Set<String>>();
+        for (String edge : edges) {
+            final String[] ends = edge.split(">");
+            map.computeIfAbsent(ends[0], key -> new HashSet<String>());
+            if (ends.length > 1) {
+                map.get(ends[0]).add(ends[1]);
+            }
+        }
+        return map;
+    }
+
+    // textbook power iteration over the map, for comparison
+    private static double[] reference(final FollowsGraph graph, final double[] teleport, final double damping) {
+        final int n = graph.userCount();
+        double[] rank = teleport.clone();
+        for (int iteration = 0; iteration < 1000; ++iteration) {
+            final double[] next = new double[n];
+            double dangling = 0;
+            for (int u = 0; u < n; ++u) {
+                if (graph.outDegree(u) == 0) {
+                    dangling += rank[u];
+                }
+                for (int i = graph.outStart(u); i < graph.outEnd(u); ++i) {
+                    next[graph.outTarget(i)] += damping * rank[u] / graph.outDegree(u);
+                }
+            }
+            for (int v = 0; v < n; ++v) {
+                next[v] += (1 - damping + damping * dangling) * teleport[v];
+            }
+            rank = next;
+        }
+        return rank;
+    }
+
+    private static double sum(final double[] values) {
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    @Test
+    public void testEmpty() {
+        FollowsGraph graph = FollowsGraph.fromMap(Collections.<String, Set<String>>emptyMap());
+        assertEquals(0, new PageRank().ranks(graph).length);
+        assertEquals(Collections.emptyList(), new PageRank().influencers(graph, 3));
+    }
+
+    @Test
+    public void testOneUser() {
+        FollowsGraph graph = FollowsGraph.fromMap(graph("alice"));
+        assertArrayEquals(new double[] {1.0}, new PageRank().ranks(graph), EPSILON);
+    }
+
+    @Test
+    public void testCycleIsUniform() {
+        FollowsGraph graph = FollowsGraph.fromMap(graph("a>b", "b>c", "c>a"));
+        assertArrayEquals(new double[] {1.0 / 3, 1.0 / 3, 1.0 / 3}, new PageRank().ranks(graph), EPSILON);
+    }
+
+    @Test
+    public void testDanglingAndStar() {
+        // hub follows nobody; everyone follows hub
+        FollowsGraph graph = FollowsGraph.fromMap(graph("a>hub", "b>hub", "c>hub", "c>a"));
+        double[] ranks = new PageRank().ranks(graph);
+        assertEquals(1.0, sum(ranks), EPSILON);
+        double[] teleport = new double[graph.userCount()];
+        Arrays.fill(teleport, 1.0 / teleport.length);
+        assertArrayEquals(reference(graph, teleport, 0.85), ranks, 1e-8);
+
+        assertEquals(Arrays.asList("hub", "a"), new PageRank().influencers(graph, 2));
+        assertEquals(Arrays.asList(), new PageRank().influencers(graph, 0));
+        assertEquals(4, new PageRank().influencers(graph, 10).size());
+    }
+
+    @Test
+    public void testNoDamping() {
+        FollowsGraph graph = FollowsGraph.fromMap(graph("a>b", "c>b"));
+        assertArrayEquals(new double[] {1.0 / 3, 1.0 / 3, 1.0 / 3},
+                new PageRank(0, 0, 5).ranks(graph), EPSILON);
+    }
+
+    @Test
+    public void testRankOfFollowersCounts() {
+        // alice has one influential follower, bob has two unknown ones; alice
+        // also collects nearly all of the rank of hub
+        FollowsGraph graph = FollowsGraph.fromMap(graph(
+                "x1>hub", "x2>hub", "x3>hub", "x4>hub", "hub>alice", "y1>bob", "y2>bob"));
+        assertEquals(Arrays.asList("alice", "hub", "bob"), new PageRank().influencers(graph, 3));
+        assertEquals(Arrays.asList("hub", "bob", "alice"), SocialNetwork.influencers(graph, 3));
+    }
+
+    @Test
+    public void testPersonalized() {
+        FollowsGraph graph = FollowsGraph.fromMap(graph("a>b", "b>c", "d>e", "e>d"));
+        double[] ranks = new PageRank(0.85, 1e-12, 1000).ranks(graph,
+                new HashSet<String>(Arrays.asList("A", "nobody")));
+        assertEquals(1.0, sum(ranks), EPSILON);
+        assertEquals(0.0, ranks[graph.id("d")], EPSILON);
+        assertEquals(0.0, ranks[graph.id("e")], EPSILON);
+        double[] teleport = new double[graph.userCount()];
+        teleport[graph.id("a")] = 1;
+        assertArrayEquals(reference(graph, teleport, 0.85), ranks, 1e-8);
+
+        assertEquals(Arrays.asList("a", "b", "c"),
+                new PageRank().influencers(graph, Collections.singleton("a"), 3));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNoSeedInGraph() {
+        new PageRank().ranks(FollowsGraph.fromMap(graph("a>b")), Collections.singleton("c"));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInvalidDamping() {
+        new PageRank(1, 0, 10);
+    }
+
+    @Test
+    public void testManyBlocksMatchReference() {
+        List<Tweet> tweets = new TweetGenerator(16).withUsers(20000).list(60000);
+        FollowsGraph graph = FollowsGraph.fromTweets(tweets);
+        assertTrue(graph.userCount() > 8192);
+        double[] teleport = new double[graph.userCount()];
+        Arrays.fill(teleport, 1.0 / teleport.length);
+
+        double[] ranks = new PageRank(0.85, 1e-12, 200).ranks(graph);
+        assertEquals(1.0, sum(ranks), 1e-9);
+        assertArrayEquals(reference(graph, teleport, 0.85), ranks, 1e-10);
+    }
+}
@@ -0,0 +1,126 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class ShortestPathsTest {
+
+    /*
+     * Testing strategy for ShortestPaths
+     *
+     * Partition the inputs as follows:
+     * from == to, from != to; users not in the graph
+     * path: none, 1 hop, > 1 hops; only in the follows direction
+     * maxHops = 0, < path length, = path length, unbounded; < 0
+     * queries in a row on the same object (buffers are reused)
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    private static FollowsGraph graph(final String... edges) {
+        final Map<String, Set<String>> map = new HashMap<String, Set<String>>();
+        for (String edge : edges) {
+            final String[] ends = edge.split(">");
+            map.computeIfAbsent(ends[0], key -> new HashSet<String>()).add(ends[1]);
+        }
+        return FollowsGraph.fromMap(map);
+    }
+
+    // plain breadth-first search, for comparison
+    private static int hops(final FollowsGraph graph, final int from, final int to) {
+        final int[] distance = new int[graph.userCount()];
+        Arrays.fill(distance, -1);
+        final Queue<Integer> queue = new ArrayDeque<Integer>();
+        distance[from] = 0;
+        queue.add(from);
+        while (!queue.isEmpty()) {
+            final int u = queue.remove();
+            for (int i = graph.outStart(u); i < graph.outEnd(u); ++i) {
+                final int v = graph.outTarget(i);
+                if (distance[v] < 0) {
+                    distance[v] = distance[u] + 1;
+                    queue.add(v);
+                }
+            }
+        }
+        return distance[to];
+    }
+
+    @Test
+    public void testChain() {
+        FollowsGraph graph = graph("a>b", "b>c", "c>d", "a>x", "x>y");
+        ShortestPaths paths = new ShortestPaths(graph);
+        assertEquals(Arrays.asList("a", "b", "c", "d"), paths.path("A", "d"));
+        assertEquals(3, paths.degreesOfSeparation("a", "D"));
+        assertEquals(Arrays.asList("a", "b"), paths.path("a", "b"));
+        assertEquals(Arrays.asList("c"), paths.path("c", "c"));
+        assertEquals(0, paths.degreesOfSeparation("c", "c"));
+        assertNull(paths.path("d", "a"));  // edges only go one way
+        assertEquals(-1, paths.degreesOfSeparation("d", "a"));
+        assertNull(paths.path("a", "nobody"));
+    }
+
+    @Test
+    public void testMaxHops() {
+        FollowsGraph graph = graph("a>b", "b>c", "c>d");
+        ShortestPaths paths = new ShortestPaths(graph);
+        assertNull(paths.path("a", "d", 2));
+        assertEquals(Arrays.asList("a", "b", "c", "d"), paths.path("a", "d", 3));
+        assertNull(paths.path("a", "b", 0));
+        assertEquals(Arrays.asList("a"), paths.path("a", "a", 0));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNegativeMaxHops() {
+        new ShortestPaths(graph("a>b")).path(0, 1, -1);
+    }
+
+    @Test
+    public void testShortcutIsFound() {
+        // the long way is found first from either side if levels are cut short
+        FollowsGraph graph = graph("s>a", "a>b", "b>c", "c>t", "s>m", "m>t");
+        assertEquals(Arrays.asList("s", "m", "t"), new ShortestPaths(graph).path("s", "t"));
+    }
+
+    @Test
+    public void testMatchesBreadthFirstSearch() {
+        FollowsGraph graph = FollowsGraph.fromTweets(new TweetGenerator(20).withUsers(3000).list(6000));
+        ShortestPaths paths = new ShortestPaths(graph);
+        int n = graph.userCount();
+        int found = 0;
+        for (int q = 0; q < 400; ++q) {
+            int from = (q * 7919) % n;
+            int to = (q * 104729 + 13) % n;
+            int expected = hops(graph, from, to);
+            int[] path = paths.path(from, to, ShortestPaths.UNBOUNDED);
+            if (expected < 0) {
+                assertNull(path);
+                continue;
+            }
+            ++found;
+            assertEquals(expected, path.length - 1);
+            assertEquals(from, path[0]);
+            assertEquals(to, path[path.length - 1]);
+            for (int i = 0; i + 1 < path.length; ++i) {
+                assertTrue(graph.follows(path[i], path[i + 1]));
+            }
+            if (expected > 0) {
+                assertNull(paths.path(from, to, expected - 1));
+            }
+        }
+        assertTrue("some pairs should be connected", found > 10);
+    }
+}
@@ -0,0 +1,90 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class SocialGraphTest {
+
+    /*
+     * Testing strategy for SocialGraph
+     *
+     * Partition the inputs as follows:
+     * tweets added = 0, 1, > 1; one at a time, in batches
+     * tweet adds 0, 1, > 1 new edges; repeated evidence; self mention
+     * follower counts: ties, a user overtaking another
+     * influencers(k): k = 0, < users, > users
+     * followsGraph() compared with SocialNetwork.guessFollowsGraph()
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "@bob @carol", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bob", "@carol @bob", d1);
+    private static final Tweet tweet3 = new Tweet(3, "dave", "@Bob, @BOB", d1);
+    private static final Tweet tweet4 = new Tweet(4, "erin", "@bob", d1);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        SocialGraph graph = new SocialGraph();
+
+        assertEquals(0, graph.userCount());
+        assertTrue(graph.influencers().isEmpty());
+        assertTrue(graph.followsGraph().isEmpty());
+    }
+
+    @Test
+    public void testIncremental() {
+        SocialGraph graph = new SocialGraph();
+
+        assertEquals(2, graph.add(tweet1));
+        assertEquals(1, graph.add(tweet2));
+        assertEquals(0, graph.add(tweet2));
+        assertEquals(2, graph.followerCount("CAROL"));
+        assertEquals(Arrays.asList("carol"), graph.influencers(1));
+
+        // bob overtakes carol
+        assertEquals(2, graph.addAll(Arrays.asList(tweet3, tweet4)));
+        assertEquals(3, graph.followerCount("bob"));
+        assertEquals(Arrays.asList("bob", "carol"), graph.influencers(2));
+        assertEquals(5, graph.influencers(10).size());
+        assertEquals(0, graph.influencers(0).size());
+        assertEquals(5, graph.edgeCount());
+    }
+
+    @Test
+    public void testSameAsSocialNetwork() {
+        List<Tweet> tweets = new TweetGenerator(13).withUsers(400).withEdgeCaseRate(0.1).list(6000);
+        SocialGraph graph = new SocialGraph();
+        graph.addAll(tweets.subList(0, 1000));
+        for (Tweet t : tweets.subList(1000, tweets.size())) {
+            graph.add(t);
+        }
+        Map<String, Set<String>> expected = SocialNetwork.guessFollowsGraph(tweets);
+
+        assertEquals(expected, graph.followsGraph());
+
+        List<String> influencers = graph.influencers();
+        assertEquals(new HashSet<String>(SocialNetwork.influencers(expected)), new HashSet<String>(influencers));
+        for (int i = 1; i < influencers.size(); ++i) {
+            assertTrue("expected descending follower counts",
+                    graph.followerCount(influencers.get(i - 1)) >= graph.followerCount(influencers.get(i)));
+        }
+        List<String> top = SocialNetwork.influencers(expected, 20);
+        for (int i = 0; i < top.size(); ++i) {
+            assertEquals(graph.followerCount(top.get(i)), graph.followerCount(influencers.get(i)));
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TimeIndexTest {
+
+    /*
+     * Testing strategy for TimeIndex
+     *
+     * Partition the inputs as follows:
+     * indexed tweets = 0, 1, > 1
+     * matching tweets = 0, 1, all, some
+     * timespan endpoints: equal to a timestamp, between timestamps, outside all
+     * duplicate timestamps
+     * timestamps outside the epoch-nanosecond range (Instant.MIN, Instant.MAX)
+     * input order: sorted by time, unsorted
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+    private static final Instant d3 = Instant.parse("2016-02-17T12:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d2);
+    private static final Tweet tweet3 = new Tweet(3, "alyssa", "on my way", d3);
+    private static final Tweet tweet4 = new Tweet(4, "smith", "same time as tweet2", d2);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        TimeIndex index = new TimeIndex(new ArrayList<Tweet>());
+
+        assertEquals(0, index.size());
+        assertTrue("expected empty list", index.inTimespan(new Timespan(d1, d3)).isEmpty());
+    }
+
+    @Test
+    public void testEndpointsInclusive() {
+        TimeIndex index = new TimeIndex(Arrays.asList(tweet3, tweet1, tweet2));
+
+        assertEquals(Arrays.asList(tweet2), index.inTimespan(new Timespan(d2, d2)));
+        assertEquals(Arrays.asList(tweet3, tweet1, tweet2), index.inTimespan(new Timespan(d1, d3)));
+        assertEquals(Arrays.asList(tweet3, tweet2), index.inTimespan(new Timespan(d2, d3)));
+    }
+
+    @Test
+    public void testNoMatch() {
+        TimeIndex index = new TimeIndex(Arrays.asList(tweet1, tweet3));
+
+        assertTrue(index.inTimespan(new Timespan(d2, d2)).isEmpty());
+        assertTrue(index.inTimespan(new Timespan(d3.plusNanos(1), d3.plusSeconds(60))).isEmpty());
+    }
+
+    @Test
+    public void testDuplicatesKeepInputOrder() {
+        TimeIndex index = new TimeIndex(Arrays.asList(tweet4, tweet1, tweet2));
+
+        assertEquals(Arrays.asList(tweet4, tweet2), index.inTimespan(new Timespan(d2, d3)));
+    }
+
+    @Test
+    public void testExtremeTimestamps() {
+        Tweet min = new Tweet(10, "old", "first", Instant.MIN);
+        Tweet max = new Tweet(11, "new", "last", Instant.MAX);
+        Tweet early = new Tweet(12, "old", "before 1677", Instant.parse("1000-01-01T00:00:00Z"));
+        List<Tweet> tweets = Arrays.asList(max, tweet1, min, early);
+        TimeIndex index = new TimeIndex(tweets);
+
+        assertEquals(tweets, index.inTimespan(new Timespan(Instant.MIN, Instant.MAX)));
+        assertEquals(Arrays.asList(min), index.inTimespan(new Timespan(Instant.MIN, Instant.MIN)));
+        assertEquals(Arrays.asList(early), index.inTimespan(
+                new Timespan(Instant.parse("0999-01-01T00:00:00Z"), Instant.parse("1001-01-01T00:00:00Z"))));
+    }
+
+    @Test
+    public void testSameAsFilter() {
+        Random random = new Random(6005);
+        List<Tweet> tweets = new ArrayList<Tweet>();
+        for (int i = 0; i < 2000; ++i) {
+            tweets.add(new Tweet(i, "author", "text", d1.plusSeconds(random.nextInt(5000))));
+        }
+        TimeIndex index = new TimeIndex(tweets);
+
+        for (int n = 0; n < 200; ++n) {
+            Instant start = d1.plusSeconds(random.nextInt(5500) - 250);
+            Timespan timespan = new Timespan(start, start.plusSeconds(random.nextInt(1000)));
+            assertEquals(Filter.inTimespan(tweets, timespan), index.inTimespan(timespan));
+        }
+    }
+}
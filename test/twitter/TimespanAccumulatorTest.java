@@ -0,0 +1,134 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TimespanAccumulatorTest {
+
+    /*
+     * Testing strategy for TimespanAccumulator
+     *
+     * Partition the inputs as follows:
+     * tweets seen = 0, 1, > 1
+     * timestamps: same second with different nanos, Instant.MIN, Instant.MAX
+     * merge: with empty accumulator, with non-empty accumulator
+     * collector: sequential stream, parallel stream
+     * concurrent accept() from several threads
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+    private static final Instant d3 = Instant.parse("2016-12-01T00:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d2);
+    private static final Tweet tweet3 = new Tweet(3, "smith", "Kyle, @johnsmith is my name", d3);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        TimespanAccumulator accumulator = new TimespanAccumulator();
+
+        assertEquals(0, accumulator.count());
+        assertEquals(Extract.getTimespan(new ArrayList<Tweet>()), accumulator.toTimespan());
+    }
+
+    @Test
+    public void testOneTweet() {
+        TimespanAccumulator accumulator = new TimespanAccumulator();
+        accumulator.accept(tweet2);
+
+        assertEquals(new Timespan(d2, d2), accumulator.toTimespan());
+    }
+
+    @Test
+    public void testIncremental() {
+        TimespanAccumulator accumulator = new TimespanAccumulator();
+        accumulator.accept(tweet2);
+        accumulator.accept(tweet3);
+        assertEquals(new Timespan(d2, d3), accumulator.toTimespan());
+
+        accumulator.accept(tweet1);
+        assertEquals(new Timespan(d1, d3), accumulator.toTimespan());
+        assertEquals(3, accumulator.count());
+    }
+
+    @Test
+    public void testNanosAndExtremes() {
+        TimespanAccumulator accumulator = new TimespanAccumulator();
+        accumulator.accept(d1.plusNanos(7));
+        accumulator.accept(d1.plusNanos(3));
+        assertEquals(new Timespan(d1.plusNanos(3), d1.plusNanos(7)), accumulator.toTimespan());
+
+        accumulator.accept(Instant.MAX);
+        accumulator.accept(Instant.MIN);
+        assertEquals(new Timespan(Instant.MIN, Instant.MAX), accumulator.toTimespan());
+    }
+
+    @Test
+    public void testMerge() {
+        TimespanAccumulator left = new TimespanAccumulator();
+        TimespanAccumulator right = new TimespanAccumulator();
+        left.accept(tweet2);
+
+        left.merge(new TimespanAccumulator());
+        assertEquals(new Timespan(d2, d2), left.toTimespan());
+
+        right.accept(tweet1);
+        right.accept(tweet3);
+        assertEquals(new Timespan(d1, d3), left.merge(right).toTimespan());
+        assertEquals(3, left.count());
+    }
+
+    @Test
+    public void testCollector() {
+        List<Tweet> tweets = corpus(10000);
+
+        assertEquals(Extract.getTimespan(tweets), tweets.stream().collect(TimespanAccumulator.collector()));
+        assertEquals(Extract.getTimespan(tweets), tweets.parallelStream().collect(TimespanAccumulator.collector()));
+        assertEquals(Extract.getTimespan(Arrays.asList(tweet1)),
+                Arrays.asList(tweet1).stream().collect(TimespanAccumulator.collector()));
+    }
+
+    @Test
+    public void testConcurrentAccept() throws InterruptedException {
+        final List<Tweet> tweets = corpus(40000);
+        final TimespanAccumulator accumulator = new TimespanAccumulator();
+        final Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; ++i) {
+            final int first = i;
+            threads[i] = new Thread(() -> {
+                for (int j = first; j < tweets.size(); j += threads.length) {
+                    accumulator.accept(tweets.get(j));
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(tweets.size(), accumulator.count());
+        assertEquals(Extract.getTimespan(tweets), accumulator.toTimespan());
+    }
+
+    private static List<Tweet> corpus(final int size) {
+        final Random random = new Random(size);
+        final List<Tweet> tweets = new ArrayList<Tweet>();
+        for (int i = 0; i < size; ++i) {
+            tweets.add(new Tweet(i, "author", "text", d1.plusMillis(random.nextInt(1000000000))));
+        }
+        return tweets;
+    }
+}
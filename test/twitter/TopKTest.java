@@ -0,0 +1,116 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+public class TopKTest {
+
+    /*
+     * Testing strategy for TopK and SocialNetwork.influencers(graph, k)
+     *
+     * Partition the inputs as follows:
+     * n = 0, 1, > 1
+     * k = 0, 1, < n, = n, > n; k < 0
+     * ties in follower count
+     * users that only appear as keys, only in follow sets; more than 16
+     *   users without followers
+     * graph given as a Map, as a FollowsGraph
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testSelect() {
+        final int[] counts = {5, 1, 5, 3, 0};
+        final String[] names = {"e", "d", "c", "b", "a"};
+        TopK.Ranking ranking = TopK.byCount(counts, names);
+
+        assertArrayEquals(new int[0], TopK.select(0, 3, ranking));
+        assertArrayEquals(new int[0], TopK.select(5, 0, ranking));
+        assertArrayEquals(new int[] {2}, TopK.select(5, 1, ranking));
+        assertArrayEquals(new int[] {2, 0, 3}, TopK.select(5, 3, ranking));
+        assertArrayEquals(new int[] {2, 0, 3, 1, 4}, TopK.select(5, 9, ranking));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNegativeK() {
+        SocialNetwork.influencers(new HashMap<String, Set<String>>(), -1);
+    }
+
+    @Test
+    public void testSmallGraph() {
+        // the example of SocialNetwork.influencers(): A (2), C (1), D (1), B (0)
+        Map<String, Set<String>> graph = new HashMap<String, Set<String>>();
+        graph.put("A", new TreeSet<String>());
+        graph.put("B", new TreeSet<String>());
+        graph.put("C", new TreeSet<String>(Arrays.asList("A", "D")));
+        graph.put("D", new TreeSet<String>(Arrays.asList("a", "C")));
+
+        assertEquals(Arrays.asList("a", "c", "d", "b"), SocialNetwork.influencers(graph, 10));
+        assertEquals(Arrays.asList("a", "c"), SocialNetwork.influencers(graph, 2));
+        assertEquals(Arrays.asList("a", "c", "d", "b"), SocialNetwork.influencers(FollowsGraph.fromMap(graph), 4));
+    }
+
+    @Test
+    public void testManyUsersWithoutFollowers() {
+        Map<String, Set<String>> graph = new TreeMap<String, Set<String>>();
+        List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < 40; ++i) {
+            String name = String.format("user%02d", i);
+            graph.put(name, new TreeSet<String>());
+            expected.add(name);
+        }
+        assertEquals(expected.subList(0, 20), SocialNetwork.influencers(graph, 20));
+        assertEquals(expected, SocialNetwork.influencers(graph, 100));
+
+        // the users seen last have no followers
+        graph.get("user00").add("user01");
+        expected.remove("user01");
+        expected.add(0, "user01");
+        assertEquals(expected, SocialNetwork.influencers(graph, 40));
+    }
+
+    @Test
+    public void testAgreesWithInfluencers() {
+        List<Tweet> tweets = new TweetGenerator(11).withUsers(500).list(5000);
+        Map<String, Set<String>> graph = SocialNetwork.guessFollowsGraph(tweets);
+        Map<String, Integer> followers = followers(graph);
+
+        List<String> all = SocialNetwork.influencers(graph);
+        List<String> top = SocialNetwork.influencers(graph, 50);
+        assertEquals(top, SocialNetwork.influencers(FollowsGraph.fromTweets(tweets), 50));
+        assertEquals(50, top.size());
+        for (int i = 0; i < top.size(); ++i) {
+            // ties may be ordered differently, counts may not
+            assertEquals(followers.get(all.get(i)), followers.get(top.get(i)));
+        }
+        assertEquals(new TreeSet<String>(all), new TreeSet<String>(SocialNetwork.influencers(graph, all.size())));
+    }
+
+    private static Map<String, Integer> followers(final Map<String, Set<String>> graph) {
+        Map<String, Integer> followers = new HashMap<String, Integer>();
+        for (Map.Entry<String, Set<String>> entry : graph.entrySet()) {
+            followers.putIfAbsent(entry.getKey().toLowerCase(), 0);
+            for (String name : entry.getValue()) {
+                followers.merge(name.toLowerCase(), 1, Integer::sum);
+            }
+        }
+        return followers;
+    }
+}
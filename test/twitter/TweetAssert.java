@@ -0,0 +1,40 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+/**
+ * TweetAssert holds assertions on tweets shared by the tests of the classes
+ * that store or load tweets.
+ */
+final class TweetAssert {
+
+    private TweetAssert() {
+        // not instantiable
+    }
+
+    /**
+     * Assert that two lists hold the same tweets in the same order: equal
+     * ids, authors, texts and timestamps, and equal by equals() and
+     * hashCode(), whatever class implements them.
+     *
+     * @param expected
+     *            the tweets expected.
+     * @param actual
+     *            the tweets to check.
+     */
+    static void assertSameTweets(final List<Tweet> expected, final List<Tweet> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); ++i) {
+            Tweet e = expected.get(i);
+            Tweet a = actual.get(i);
+            assertEquals(e.getId(), a.getId());
+            assertEquals(e.getAuthor(), a.getAuthor());
+            assertEquals(e.getText(), a.getText());
+            assertEquals(e.getTimestamp(), a.getTimestamp());
+            assertEquals(e, a);
+            assertEquals(e.hashCode(), a.hashCode());
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+public class TweetGeneratorTest {
+
+    /*
+     * Testing strategy for TweetGenerator and ZipfSampler
+     *
+     * Partition the inputs as follows:
+     * seed: same, different
+     * generation order: sequential, parallel, single index
+     * skew = 0 (uniform), > 0
+     * edge case rate = 0, 1
+     * bursts: none, every block
+     * invalid settings
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testDeterministic() {
+        TweetGenerator generator = new TweetGenerator(42);
+        List<Tweet> sequential = generator.stream(0, 2000).collect(Collectors.toList());
+        List<Tweet> parallel = generator.list(2000);
+
+        for (int i = 0; i < sequential.size(); ++i) {
+            Tweet t = sequential.get(i);
+            assertEquals(t.toString(), parallel.get(i).toString());
+            assertEquals(t.toString(), new TweetGenerator(42).tweet(i).toString());
+        }
+        assertFalse(new TweetGenerator(43).tweet(7).toString().equals(generator.tweet(7).toString()));
+    }
+
+    @Test
+    public void testTweetsAreValid() {
+        TweetGenerator generator = new TweetGenerator(1).withUsers(50).withMentionsPerTweet(3);
+        Instant previous = Instant.MIN;
+
+        for (Tweet t : generator.list(5000)) {
+            assertTrue("text too long: " + t, t.getText().length() <= 140);
+            assertTrue("bad author: " + t, t.getAuthor().matches("[A-Za-z0-9_-]{1,15}"));
+            assertFalse("self mention: " + t,
+                    Extract.getMentionedNamesFromOneTweet(t).contains(t.getAuthor().toLowerCase()));
+            assertFalse("timestamps must not decrease", t.getTimestamp().isBefore(previous));
+            previous = t.getTimestamp();
+        }
+    }
+
+    @Test
+    public void testEdgeCases() {
+        TweetGenerator generator = new TweetGenerator(5).withMentionsPerTweet(0).withEdgeCaseRate(1);
+        int mentions = 0;
+
+        for (Tweet t : generator.list(1000)) {
+            mentions += Extract.getMentionedNamesFromOneTweet(t).size();
+        }
+        // three of the five edge cases are valid mentions
+        assertEquals(600, mentions, 80);
+        assertTrue(new TweetGenerator(5).withMentionsPerTweet(0).withEdgeCaseRate(0).list(1000).stream()
+                .allMatch(t -> !t.getText().contains("@")));
+    }
+
+    @Test
+    public void testAuthorsSkewed() {
+        List<Tweet> tweets = new TweetGenerator(9).withUsers(1000).withSkew(1.2, 1.2, 1.0).list(20000);
+        Map<String, Integer> counts = tweets.stream()
+                .collect(Collectors.toMap(Tweet::getAuthor, t -> 1, Integer::sum));
+
+        assertTrue("expected the top user to write more than the 100th",
+                counts.get("user1") > 10 * counts.getOrDefault("user100", 0));
+    }
+
+    @Test
+    public void testArrivalRate() {
+        Instant start = Instant.parse("2016-01-01T00:00:00Z");
+        TweetGenerator generator = new TweetGenerator(3).withArrivals(start, 10, 0.5).withBursts(0, 1);
+        Tweet last = generator.tweet(24 * 3600 * 10 - 1);
+
+        // one full day of tweets at 10 per second ends after about one day
+        assertEquals(24 * 3600, last.getTimestamp().getEpochSecond() - start.getEpochSecond(), 2);
+    }
+
+    @Test
+    public void testBurstsCompressTime() {
+        Instant start = Instant.parse("2016-01-01T00:00:00Z");
+        TweetGenerator calm = new TweetGenerator(3).withArrivals(start, 1, 0).withBursts(0, 1);
+        TweetGenerator bursty = calm.withBursts(1, 10);
+
+        assertEquals(1023, calm.tweet(1023).getTimestamp().getEpochSecond() - start.getEpochSecond());
+        assertEquals(102, bursty.tweet(1023).getTimestamp().getEpochSecond() - start.getEpochSecond());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInvalidUsers() {
+        new TweetGenerator(1).withUsers(1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInvalidAmplitude() {
+        new TweetGenerator(1).withArrivals(Instant.EPOCH, 1, 1);
+    }
+
+    @Test
+    public void testZipfSampler() {
+        ZipfSampler uniform = new ZipfSampler(10, 0);
+        ZipfSampler zipf = new ZipfSampler(1000, 1.0);
+        SplittableRandom random = new SplittableRandom(6005);
+        int[] counts = new int[1001];
+
+        for (int i = 0; i < 100000; ++i) {
+            int u = uniform.sample(random);
+            assertTrue(u >= 1 && u <= 10);
+            counts[zipf.sample(random)]++;
+        }
+        // P(1) / P(2) = 2 for exponent 1; P(1) = 1 / H(1000) ~ 0.1336
+        assertEquals(2.0, (double) counts[1] / counts[2], 0.1);
+        assertEquals(0.1336, counts[1] / 100000.0, 0.005);
+    }
+}
@@ -0,0 +1,94 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TweetIndexTest {
+
+    /*
+     * Testing strategy for TweetIndex
+     *
+     * Partition the inputs as follows:
+     * indexed tweets = 0, 1, > 1
+     * matching tweets = 0, 1, > 1
+     * author case: same as query, different from query
+     * tweets added by constructor, by append(), by appendAll(), by both
+     * result order compared with Filter.writtenBy()
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d2);
+    private static final Tweet tweet3 = new Tweet(3, "Alyssa", "@bbitdiddle see you there", d2);
+    private static final Tweet tweet4 = new Tweet(4, "ALYSSA", "on my way", d1);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmptyIndex() {
+        TweetIndex index = new TweetIndex();
+
+        assertEquals(0, index.size());
+        assertTrue("expected empty list", index.writtenBy("alyssa").isEmpty());
+    }
+
+    @Test
+    public void testNoMatch() {
+        TweetIndex index = new TweetIndex(Arrays.asList(tweet1, tweet2));
+
+        assertTrue("expected empty list", index.writtenBy("nobody").isEmpty());
+    }
+
+    @Test
+    public void testOneMatch() {
+        TweetIndex index = new TweetIndex(Arrays.asList(tweet1, tweet2));
+
+        assertEquals(Arrays.asList(tweet2), index.writtenBy("BBitDiddle"));
+    }
+
+    @Test
+    public void testSameAsFilterInOrder() {
+        List<Tweet> tweets = Arrays.asList(tweet4, tweet1, tweet2, tweet3);
+        TweetIndex index = new TweetIndex(tweets);
+
+        for (String username : new String[] {"alyssa", "AlYsSa", "bbitdiddle", "nobody"}) {
+            assertEquals(Filter.writtenBy(tweets, username), index.writtenBy(username));
+        }
+    }
+
+    @Test
+    public void testAppend() {
+        TweetIndex index = new TweetIndex(Arrays.asList(tweet1));
+        index.append(tweet2);
+        index.appendAll(Arrays.asList(tweet3, tweet4));
+
+        assertEquals(4, index.size());
+        assertEquals(Arrays.asList(tweet1, tweet2, tweet3, tweet4), index.tweets());
+        assertEquals(Arrays.asList(tweet1, tweet3, tweet4), index.writtenBy("alyssa"));
+    }
+
+    @Test
+    public void testInputNotAliased() {
+        List<Tweet> tweets = new ArrayList<Tweet>(Arrays.asList(tweet1));
+        TweetIndex index = new TweetIndex(tweets);
+        tweets.add(tweet3);
+
+        assertEquals(Arrays.asList(tweet1), index.writtenBy("alyssa"));
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testTweetsUnmodifiable() {
+        new TweetIndex(Arrays.asList(tweet1)).tweets().add(tweet2);
+    }
+}
@@ -0,0 +1,202 @@
+package twitter;
+
+import static org.junit.Assert.*;
+import static twitter.TweetAssert.assertSameTweets;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+public class TweetLoaderTest {
+
+    /*
+     * Testing strategy for TweetLoader
+     *
+     * Partition the inputs as follows:
+     * file: empty, one line, many lines; last line with, without newline
+     * lines: blank, CRLF, spaces around tokens
+     * fields: any order, unknown fields with strings, numbers, literals,
+     *   nested objects and arrays; missing fields
+     * strings: ASCII, UTF-8, escapes (including \\u and surrogate pairs)
+     * ids: 0, negative, Long.MIN_VALUE/MAX_VALUE, out of range, fractional
+     * chunks: one, many (lines crossing chunk boundaries, chunks without a
+     *   line start); pool parallelism 1, > 1
+     * timestamps: whole seconds, fractions, leap day, years past 9999
+     * errors: bad JSON, bad author, bad timestamp, text after the object,
+     *   line longer than MAX_LINE_LENGTH (at the end, in the middle)
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    private static Path tempFile(final String content) throws IOException {
+        final Path path = Files.createTempFile("tweets", ".ndjson");
+        path.toFile().deleteOnExit();
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+        return path;
+    }
+
+    private static List<Tweet> load(final Path file, final int parallelism, final int chunkSize)
+            throws IOException {
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            final List<Tweet> tweets = new ArrayList<Tweet>();
+            TweetLoader.forEachBatch(file, pool, chunkSize, tweets::addAll);
+            return tweets;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testEmptyFile() throws IOException {
+        assertEquals(Collections.emptyList(), TweetLoader.load(tempFile("")));
+        assertEquals(Collections.emptyList(), TweetLoader.load(tempFile("\n  \r\n\n")));
+    }
+
+    @Test
+    public void testOneLine() throws IOException {
+        Path file = tempFile("{\"id\":7,\"author\":\"alyssa\",\"text\":\"hi @bob\",\"timestamp\":\"2016-02-17T10:00:00Z\"}");
+        assertSameTweets(Arrays.asList(new Tweet(7, "alyssa", "hi @bob", d1)), TweetLoader.load(file));
+    }
+
+    @Test
+    public void testFieldOrderUnknownFieldsAndSpaces() throws IOException {
+        Path good = tempFile("{\"user\":{\"name\":\"x}\",\"tags\":[1,{\"a\":\"]\"},[]]},"
+                + "\"text\":\"caf\u00e9 \\\"quoted\\\" \\u00e9\\ud83d\\ude00\\n\","
+                + " \"id\" : -5 , \"retweets\":12.5e3,\"sensitive\":false,\"reply\":null,\"author\":\"Bob_1\","
+                + "\"timestamp\":\"2016-02-17T10:00:00.000000123Z\"}\r\n");
+        assertSameTweets(Arrays.asList(new Tweet(-5, "Bob_1", "caf\u00e9 \"quoted\" \u00e9\ud83d\ude00\n",
+                d1.plusNanos(123))), TweetLoader.load(good));
+    }
+
+    @Test
+    public void testTimestampForms() throws IOException {
+        Path file = tempFile("{\"id\":1,\"author\":\"a\",\"text\":\"\",\"timestamp\":\"2016-02-29T23:59:59.5Z\"}\n"
+                + "{\"id\":2,\"author\":\"a\",\"text\":\"\",\"timestamp\":\"+10000-01-01T00:00:00Z\"}\n"
+                + "{\"id\":3,\"author\":\"a\",\"text\":\"\",\"timestamp\":\"2016-02-17T10:00:00.123456789Z\"}\n");
+        List<Tweet> tweets = TweetLoader.load(file);
+        assertEquals(Instant.parse("2016-02-29T23:59:59.500Z"), tweets.get(0).getTimestamp());
+        assertEquals(Instant.parse("+10000-01-01T00:00:00Z"), tweets.get(1).getTimestamp());
+        assertEquals(d1.plusNanos(123456789), tweets.get(2).getTimestamp());
+    }
+
+    @Test
+    public void testIdRange() throws IOException {
+        Path file = tempFile("{\"id\":9223372036854775807,\"author\":\"a\",\"text\":\"\",\"timestamp\":\"2016-02-17T10:00:00Z\"}\n"
+                + "{\"id\":-9223372036854775808,\"author\":\"a\",\"text\":\"\",\"timestamp\":\"2016-02-17T10:00:00Z\"}\n"
+                + "{\"id\":0,\"author\":\"a\",\"text\":\"\",\"timestamp\":\"2016-02-17T10:00:00Z\"}\n");
+        List<Tweet> tweets = TweetLoader.load(file);
+        assertEquals(Long.MAX_VALUE, tweets.get(0).getId());
+        assertEquals(Long.MIN_VALUE, tweets.get(1).getId());
+        assertEquals(0, tweets.get(2).getId());
+    }
+
+    @Test
+    public void testRoundTripInSmallChunks() throws IOException {
+        List<Tweet> tweets = new TweetGenerator(24).withUsers(300).withEdgeCaseRate(0.3).list(3000);
+        Path file = Files.createTempFile("tweets", ".ndjson");
+        file.toFile().deleteOnExit();
+        TweetLoader.write(tweets, file);
+
+        assertSameTweets(tweets, TweetLoader.load(file));
+        // chunks much shorter than a line, and of a few lines
+        for (int chunk : new int[] {1, 37, 1000}) {
+            assertSameTweets(tweets, load(file, 4, chunk));
+        }
+        assertSameTweets(tweets, load(file, 1, 500));
+    }
+
+    @Test
+    public void testBatchesInOrder() throws IOException {
+        List<Tweet> tweets = new ArrayList<Tweet>();
+        for (int i = 0; i < 500; ++i) {
+            tweets.add(new Tweet(i, "user" + (i % 9), "tweet number " + i, d1.plusSeconds(i)));
+        }
+        Path file = Files.createTempFile("tweets", ".ndjson");
+        file.toFile().deleteOnExit();
+        TweetLoader.write(tweets, file);
+
+        ForkJoinPool pool = new ForkJoinPool(3);
+        List<Integer> batchSizes = new ArrayList<Integer>();
+        List<Tweet> loaded = new ArrayList<Tweet>();
+        TweetLoader.forEachBatch(file, pool, 256, batch -> {
+            batchSizes.add(batch.size());
+            loaded.addAll(batch);
+        });
+        pool.shutdown();
+        assertTrue(batchSizes.size() > 10);
+        assertSameTweets(tweets, loaded);
+    }
+
+    private static void assertBad(final String line) {
+        try {
+            TweetLoader.load(tempFile("{\"id\":1,\"author\":\"a\",\"text\":\"ok\",\"timestamp\":\"2016-02-17T10:00:00Z\"}\n"
+                    + line + "\n"));
+            fail("expected IOException for " + line);
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("at byte 69"));
+        }
+    }
+
+    // a line of exactly length bytes, not counting its newline
+    private static String line(final long id, final int length) {
+        final String prefix = "{\"id\":" + id + ",\"author\":\"a\",\"timestamp\":\"2016-02-17T10:00:00Z\",\"text\":\"";
+        final StringBuilder line = new StringBuilder(prefix);
+        while (line.length() < length - 2) {
+            line.append('x');
+        }
+        return line.append("\"}").toString();
+    }
+
+    @Test
+    public void testLineLength() throws IOException {
+        String longest = line(2, TweetLoader.MAX_LINE_LENGTH);
+        Path file = tempFile(line(1, 100) + "\n" + longest + "\n" + line(3, 100) + "\n");
+        assertEquals(3, TweetLoader.load(file).size());
+        assertEquals(3, load(file, 2, 4096).size());
+
+        String tooLong = line(2, TweetLoader.MAX_LINE_LENGTH + 1);
+        for (String content : new String[] {
+                line(1, 100) + "\n" + tooLong + "\n" + line(3, 100) + "\n",
+                line(1, 100) + "\n" + tooLong }) {
+            for (int chunk : new int[] {1 << 22, 4096}) {
+                try {
+                    load(tempFile(content), 2, chunk);
+                    fail("expected IOException for a long line");
+                } catch (IOException e) {
+                    assertTrue(e.getMessage(), e.getMessage().contains("at byte 101: line longer than"));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testBadLines() {
+        assertBad("[]");
+        assertBad("{\"id\":1,\"author\":\"a\",\"text\":\"x\"}");
+        assertBad("{\"id\":1,\"author\":\"not a name\",\"text\":\"x\",\"timestamp\":\"2016-02-17T10:00:00Z\"}");
+        assertBad("{\"id\":1,\"author\":\"\",\"text\":\"x\",\"timestamp\":\"2016-02-17T10:00:00Z\"}");
+        assertBad("{\"id\":1,\"author\":\"a\",\"text\":\"x\",\"timestamp\":\"yesterday\"}");
+        assertBad("{\"id\":1,\"author\":\"a\",\"text\":\"x\",\"timestamp\":\"2015-02-29T10:00:00Z\"}");
+        assertBad("{\"id\":1.5,\"author\":\"a\",\"text\":\"x\",\"timestamp\":\"2016-02-17T10:00:00Z\"}");
+        assertBad("{\"id\":9223372036854775808,\"author\":\"a\",\"text\":\"x\",\"timestamp\":\"2016-02-17T10:00:00Z\"}");
+        assertBad("{\"id\":1,\"author\":\"a\",\"text\":\"x\",\"timestamp\":\"2016-02-17T10:00:00Z\"} x");
+        assertBad("{\"id\":1,\"author\":\"a\",\"text\":\"x\\q\",\"timestamp\":\"2016-02-17T10:00:00Z\"}");
+        assertBad("{\"id\":1,\"author\":\"a\",\"text\":\"unterminated");
+        assertBad("{\"id\":1,\"author\":\"a\",\"text\":\"x\",\"timestamp\":\"2016-02-17T10:00:00Z\",}");
+    }
+}
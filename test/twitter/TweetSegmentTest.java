@@ -0,0 +1,209 @@
+package twitter;
+
+import static org.junit.Assert.*;
+import static twitter.TweetAssert.assertSameTweets;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TweetSegmentTest {
+
+    /*
+     * Testing strategy for TweetSegment
+     *
+     * Partition the inputs as follows:
+     * tweets = 0, 1, > 1; blocks = 0, 1, many; last block full, partial
+     * ids: increasing, decreasing, Long.MIN_VALUE and Long.MAX_VALUE
+     * timestamps: in order, out of order, with nanoseconds, extremes of the
+     *   range, out of range
+     * texts: empty, non-ASCII
+     * writtenBy: absent user, user in some blocks, all blocks; case
+     * inTimespan: before, inside one block, across blocks, everything
+     * files: valid, not a segment, bad header, corrupt block; write fails
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    private static Path tempFile() throws IOException {
+        final Path path = Files.createTempFile("segment", ".twsg");
+        path.toFile().deleteOnExit();
+        return path;
+    }
+
+    // a month of tweets in time order, by 200 users.
+    private static List<Tweet> month(final int size) {
+        return new TweetGenerator(25).withUsers(200)
+                .withArrivals(Instant.parse("2016-02-01T00:00:00Z"), size / (30.0 * 24 * 3600), 0.5)
+                .list(size);
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        Path path = tempFile();
+        TweetSegment.write(Collections.<Tweet>emptyList(), path);
+        try (TweetSegment segment = TweetSegment.open(path)) {
+            assertEquals(0, segment.size());
+            assertEquals(0, segment.blockCount());
+            assertEquals(Collections.emptyList(), segment.tweets());
+            assertEquals(Collections.emptyList(), segment.writtenBy("alyssa"));
+            assertEquals(Collections.emptyList(), segment.inTimespan(new Timespan(d1, d1)));
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        List<Tweet> tweets = Arrays.asList(
+                new Tweet(Long.MAX_VALUE, "alyssa", "caf\u00e9 \ud83d\ude00", d1),
+                new Tweet(Long.MIN_VALUE, "Bob", "", d1.minusSeconds(3600).plusNanos(7)),
+                new Tweet(0, "alyssa", "@bob hi", Instant.parse("1678-01-01T00:00:00Z")),
+                new Tweet(-3, "carol", "late", Instant.parse("2261-12-31T23:59:59.999999999Z")),
+                new Tweet(4, "bob", "same time", d1));
+        for (int blockSize : new int[] {1, 2, 4096}) {
+            Path path = tempFile();
+            TweetSegment.write(tweets, path, blockSize);
+            try (TweetSegment segment = TweetSegment.open(path)) {
+                assertEquals(5, segment.size());
+                assertEquals((5 + blockSize - 1) / blockSize, segment.blockCount());
+                assertSameTweets(tweets, segment.tweets());
+                assertEquals(Instant.parse("1678-01-01T00:00:00Z"), segment.timespan().getStart());
+            }
+        }
+    }
+
+    @Test
+    public void testGeneratedTweets() throws IOException {
+        List<Tweet> tweets = new TweetGenerator(25).withUsers(300).withEdgeCaseRate(0.3).list(5000);
+        Path path = tempFile();
+        TweetSegment.write(tweets, path, 512);
+        try (TweetSegment segment = TweetSegment.open(path)) {
+            assertSameTweets(tweets, segment.tweets());
+            String author = tweets.get(17).getAuthor().toUpperCase();
+            assertSameTweets(Filter.writtenBy(tweets, author), segment.writtenBy(author));
+            Timespan span = new Timespan(tweets.get(1000).getTimestamp(), tweets.get(3000).getTimestamp());
+            assertSameTweets(Filter.inTimespan(tweets, span), segment.inTimespan(span));
+        }
+    }
+
+    @Test
+    public void testInTimespanSkipsBlocks() throws IOException {
+        List<Tweet> tweets = month(100000);
+        Path path = tempFile();
+        TweetSegment.write(tweets, path);
+        try (TweetSegment segment = TweetSegment.open(path)) {
+            assertEquals(0, segment.bytesRead());
+            Instant middle = Instant.parse("2016-02-15T12:00:00Z");
+            Timespan hour = new Timespan(middle, middle.plusSeconds(3600));
+            assertSameTweets(Filter.inTimespan(tweets, hour), segment.inTimespan(hour));
+            // one hour of a month is in one or two of the 25 blocks
+            assertTrue(segment.bytesRead() * 10 < Files.size(path));
+
+            Timespan before = new Timespan(Instant.parse("2015-01-01T00:00:00Z"), Instant.parse("2015-02-01T00:00:00Z"));
+            long read = segment.bytesRead();
+            assertEquals(Collections.emptyList(), segment.inTimespan(before));
+            assertEquals(read, segment.bytesRead());
+
+            assertSameTweets(tweets, segment.inTimespan(segment.timespan()));
+        }
+    }
+
+    @Test
+    public void testWrittenBySkipsBlocks() throws IOException {
+        List<Tweet> tweets = new ArrayList<Tweet>(month(50000));
+        // a rare author, in a few blocks only
+        for (int i = 0; i < 3; ++i) {
+            Tweet t = tweets.get(10000 * i + 5);
+            tweets.set(10000 * i + 5, new Tweet(t.getId(), "Rare_User", t.getText(), t.getTimestamp()));
+        }
+        Path path = tempFile();
+        TweetSegment.write(tweets, path, 1000);
+        try (TweetSegment segment = TweetSegment.open(path)) {
+            assertEquals(Collections.emptyList(), segment.writtenBy("nobody"));
+            assertEquals(0, segment.bytesRead());
+
+            assertSameTweets(Filter.writtenBy(tweets, "rare_user"), segment.writtenBy("rare_user"));
+            assertEquals(3, segment.writtenBy("RARE_USER").size());
+            assertTrue(segment.bytesRead() < Files.size(path) / 5);
+
+            String common = tweets.get(0).getAuthor();
+            assertSameTweets(Filter.writtenBy(tweets, common), segment.writtenBy(common));
+        }
+    }
+
+    @Test(expected=IOException.class)
+    public void testNotASegment() throws IOException {
+        Path path = tempFile();
+        Files.write(path, new byte[100]);
+        TweetSegment.open(path);
+    }
+
+    @Test
+    public void testBadHeader() throws IOException {
+        Path path = tempFile();
+        TweetSegment.write(month(100), path);
+        byte[] bytes = Files.readAllBytes(path);
+        for (int at : new int[] {0, 4}) {
+            byte[] bad = bytes.clone();
+            bad[at] ^= 1;
+            Files.write(path, bad);
+            try {
+                TweetSegment.open(path).close();
+                fail("expected IOException for a bad header");
+            } catch (IOException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("tweet segment"));
+            }
+        }
+    }
+
+    @Test
+    public void testFailedWriteRemovesTemporaryFile() throws IOException {
+        // a non-empty directory cannot be replaced by the written file
+        Path directory = Files.createTempDirectory("segment");
+        directory.toFile().deleteOnExit();
+        Path path = directory.resolve("tweets.twsg");
+        Files.createDirectory(path);
+        path.toFile().deleteOnExit();
+        Path inside = Files.createFile(path.resolve("file"));
+        inside.toFile().deleteOnExit();
+        try {
+            TweetSegment.write(month(100), path);
+            fail("expected IOException");
+        } catch (IOException e) {
+            assertFalse(Files.exists(directory.resolve("tweets.twsg.tmp")));
+        }
+    }
+
+    @Test
+    public void testCorruptBlock() throws IOException {
+        List<Tweet> tweets = month(1000);
+        Path path = tempFile();
+        TweetSegment.write(tweets, path, 100);
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[20] ^= 1;
+        Files.write(path, bytes);
+        try (TweetSegment segment = TweetSegment.open(path)) {
+            segment.tweets();
+            fail("expected IOException for a corrupt block");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("corrupt"));
+        }
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testTimestampOutOfRange() throws IOException {
+        TweetSegment.write(Arrays.asList(new Tweet(1, "alyssa", "old", Instant.parse("1000-01-01T00:00:00Z"))),
+                tempFile());
+    }
+}
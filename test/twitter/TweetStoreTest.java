@@ -0,0 +1,126 @@
+package twitter;
+
+import static org.junit.Assert.*;
+import static twitter.TweetAssert.assertSameTweets;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TweetStoreTest {
+
+    /*
+     * Testing strategy for TweetStore
+     *
+     * Partition the inputs as follows:
+     * tweets = 0, 1, > 1; texts: empty, ASCII, non-ASCII, longer than a page
+     * authors: repeated, same name in different case
+     * timestamps: with nanoseconds, out of range
+     * filters: no match, some, all; compared with Filter on the same tweets
+     * views: all tweets, filter results; used by Extract and Filter
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00.000000123Z");
+    private static final Instant d3 = Instant.parse("2016-02-17T12:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d2);
+    private static final Tweet tweet3 = new Tweet(3, "Alyssa", "caf\u00e9 au lait with @BBitDiddle", d3);
+    private static final Tweet tweet4 = new Tweet(4, "bbitdiddle", "", d1);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        TweetStore store = new TweetStore();
+        assertEquals(0, store.size());
+        assertTrue(store.tweets().isEmpty());
+        assertTrue(store.writtenBy("alyssa").isEmpty());
+        assertTrue(store.containing(Arrays.asList("talk")).isEmpty());
+    }
+
+    @Test
+    public void testRoundTrip() {
+        List<Tweet> tweets = Arrays.asList(tweet1, tweet2, tweet3, tweet4);
+        TweetStore store = new TweetStore(tweets);
+        assertEquals(4, store.size());
+        assertEquals(3, store.authorCount());
+        assertSameTweets(tweets, store.tweets());
+        assertEquals(tweet3.toString(), store.tweets().get(2).toString());
+    }
+
+    @Test
+    public void testSmallPages() {
+        // every text but the empty one needs a new page; one is longer than a page
+        List<Tweet> tweets = Arrays.asList(tweet1, tweet2, tweet3, tweet4);
+        TweetStore store = new TweetStore(8);
+        store.appendAll(tweets);
+        assertSameTweets(tweets, store.tweets());
+        assertSameTweets(Filter.containing(tweets, Arrays.asList("caf\u00c9", "#HYPE")),
+                store.containing(Arrays.asList("caf\u00c9", "#HYPE")));
+    }
+
+    @Test
+    public void testFilters() {
+        List<Tweet> tweets = Arrays.asList(tweet1, tweet2, tweet3, tweet4);
+        TweetStore store = new TweetStore(tweets);
+
+        assertSameTweets(Arrays.asList(tweet1, tweet3), store.writtenBy("ALYSSA"));
+        assertSameTweets(Collections.<Tweet>emptyList(), store.writtenBy("nobody"));
+        assertSameTweets(Arrays.asList(tweet2, tweet3),
+                store.inTimespan(new Timespan(d2, d3)));
+        assertSameTweets(Collections.<Tweet>emptyList(),
+                store.inTimespan(new Timespan(d2.plusNanos(1), d3.minusNanos(1))));
+        assertSameTweets(Arrays.asList(tweet1, tweet2), store.containing(Arrays.asList("TALK")));
+        assertSameTweets(Collections.<Tweet>emptyList(), store.containing(Collections.<String>emptyList()));
+        assertEquals(new Timespan(d1, d3).getStart(), store.timespan().getStart());
+        assertEquals(d3, store.timespan().getEnd());
+        assertEquals(Extract.getMentionedUsers(tweets), store.mentionedUsers());
+    }
+
+    @Test
+    public void testViewsWorkWithExtractAndFilter() {
+        List<Tweet> tweets = new TweetGenerator(21).withUsers(300).withEdgeCaseRate(0.2).list(5000);
+        TweetStore store = new TweetStore(tweets);
+        List<Tweet> view = store.tweets();
+
+        assertEquals(Extract.getTimespan(tweets).getStart(), Extract.getTimespan(view).getStart());
+        assertEquals(Extract.getMentionedUsers(tweets), Extract.getMentionedUsers(view));
+        assertEquals(SocialNetwork.guessFollowsGraph(tweets), SocialNetwork.guessFollowsGraph(view));
+
+        String author = tweets.get(17).getAuthor().toUpperCase();
+        assertSameTweets(Filter.writtenBy(tweets, author), store.writtenBy(author));
+        assertSameTweets(Filter.writtenBy(tweets, author), Filter.writtenBy(view, author));
+        Timespan span = new Timespan(tweets.get(1000).getTimestamp(), tweets.get(3000).getTimestamp());
+        assertSameTweets(Filter.inTimespan(tweets, span), store.inTimespan(span));
+        List<String> words = Arrays.asList(new TweetGenerator(21).word(1), new TweetGenerator(21).word(40));
+        assertSameTweets(Filter.containing(tweets, words), store.containing(words));
+        assertEquals(Extract.getMentionedUsers(tweets), store.mentionedUsers());
+    }
+
+    @Test
+    public void testAppendAfterView() {
+        TweetStore store = new TweetStore();
+        List<Tweet> view = store.tweets();
+        List<Tweet> expected = new ArrayList<Tweet>();
+        for (int i = 0; i < 100; ++i) {
+            Tweet t = new Tweet(i, "user" + (i % 7), "hello #" + i, d1.plusSeconds(i));
+            store.append(t);
+            expected.add(t);
+        }
+        assertSameTweets(expected, view);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testTimestampOutOfRange() {
+        new TweetStore().append(new Tweet(1, "alyssa", "old", Instant.parse("1000-01-01T00:00:00Z")));
+    }
+}
@@ -0,0 +1,81 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+public class UsernameDictionaryTest {
+
+    /*
+     * Testing strategy for UsernameDictionary
+     *
+     * Partition the inputs as follows:
+     * names = 0, 1, many (forcing the table and arena to grow)
+     * case: lower, upper, mixed; lookups of present and absent names
+     * intern: String, bytes; of new and known names; of invalid names
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        UsernameDictionary dictionary = new UsernameDictionary();
+        assertEquals(0, dictionary.size());
+        assertEquals(-1, dictionary.id("alice"));
+    }
+
+    @Test
+    public void testInternIgnoresCase() {
+        UsernameDictionary dictionary = new UsernameDictionary();
+        assertEquals(0, dictionary.intern("Alice"));
+        assertEquals(1, dictionary.intern("bob_1"));
+        assertEquals(0, dictionary.intern("ALICE"));
+        assertEquals(2, dictionary.size());
+        assertEquals("alice", dictionary.username(0));
+        assertEquals(1, dictionary.id("BOB_1"));
+        assertEquals(-1, dictionary.id("carol"));
+        assertEquals(-1, dictionary.id("caf\u00e9"));
+    }
+
+    @Test
+    public void testInternBytes() {
+        UsernameDictionary dictionary = new UsernameDictionary();
+        byte[] bytes = "xxbobxx".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(0, dictionary.intern(bytes, 2, 5));
+        assertEquals(0, dictionary.intern("Bob"));
+        assertEquals("bob", dictionary.username(0));
+    }
+
+    @Test
+    public void testManyNames() {
+        UsernameDictionary dictionary = new UsernameDictionary();
+        for (int i = 0; i < 10000; ++i) {
+            assertEquals(i, dictionary.intern("user" + i));
+        }
+        for (int i = 0; i < 10000; ++i) {
+            assertEquals(i, dictionary.id("USER" + i));
+            assertEquals("user" + i, dictionary.username(i));
+        }
+        assertEquals(10000, dictionary.size());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInvalidName() {
+        new UsernameDictionary().intern("not a name");
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testTooLong() {
+        new UsernameDictionary().intern("a123456789012345");
+    }
+
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testBadId() {
+        new UsernameDictionary().username(0);
+    }
+}
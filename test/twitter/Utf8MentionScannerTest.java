@@ -0,0 +1,181 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class Utf8MentionScannerTest {
+
+    /*
+     * Testing strategy for Utf8MentionScanner
+     *
+     * Partition the inputs as follows:
+     * text: empty, ASCII, with 2, 3 and 4 byte UTF-8 characters next to "@"
+     *   and names
+     * source: byte[], heap ByteBuffer, direct ByteBuffer; whole, slice
+     * character before the slice: none, username character
+     * results: mention(), mentionId() of new and known names, start()/end()
+     *
+     * The scanner must agree with MentionScanner on the decoded text, so
+     * besides the partitions above we compare both on random text drawn from
+     * an alphabet dense in "@", boundary and non-ASCII characters.
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmptyText() {
+        assertEquals(new ArrayList<String>(), scan(""));
+        assertEquals(new ArrayList<String>(), scan("@"));
+    }
+
+    @Test
+    public void testSameRulesAsMentionScanner() {
+        assertEquals(Arrays.asList("usa123", "canada-1", "usa_456"), scan("@usa123, @canada-1, @usa_456"));
+        assertEquals(Arrays.asList("johnsmith", "johnsmith"), scan("@johnsmith @JohnSmith"));
+        assertEquals(new ArrayList<String>(), scan("batman@gmail.com"));
+        assertEquals(Arrays.asList("dupatsign"), scan("@@dupatsign"));
+        assertEquals(Arrays.asList("a12345678901234"), scan("@a12345678901234"));
+        assertEquals(new ArrayList<String>(), scan("@a123456789012345"));
+    }
+
+    @Test
+    public void testNonAsciiNeighbours() {
+        // non-ASCII characters are not username characters, before or after
+        assertEquals(Arrays.asList("bob", "carol"), scan("caf\u00e9@bob\u00e9 \u20ac@carol\ud83d\ude00"));
+        assertEquals(Arrays.asList("d"), scan("\u00e9\u00e9 @d \u00e9"));
+    }
+
+    @Test
+    public void testStartEndAreByteIndexes() {
+        byte[] bytes = "\u00e9 @Bob!".getBytes(StandardCharsets.UTF_8);
+        Utf8MentionScanner scanner = new Utf8MentionScanner().reset(bytes, 0, bytes.length);
+
+        assertTrue(scanner.find());
+        assertEquals(4, scanner.start());
+        assertEquals(7, scanner.end());
+        assertEquals("bob", scanner.mention());
+        assertFalse(scanner.find());
+    }
+
+    @Test
+    public void testSlice() {
+        // the slice starts right after a username character: the "@" is
+        // at the beginning of the text
+        byte[] bytes = "xx@alice@bob yy".getBytes(StandardCharsets.UTF_8);
+        Utf8MentionScanner scanner = new Utf8MentionScanner().reset(bytes, 2, 12);
+        List<String> names = new ArrayList<String>();
+        while (scanner.find()) {
+            names.add(scanner.mention());
+        }
+        assertEquals(Arrays.asList("alice"), names);
+
+        // the slice ends inside a name
+        scanner.reset(ByteBuffer.wrap(bytes), 8, 11);
+        assertTrue(scanner.find());
+        assertEquals("bo", scanner.mention());
+    }
+
+    @Test
+    public void testBufferPositionUntouched() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(16);
+        buffer.put("hi @carol".getBytes(StandardCharsets.UTF_8));
+        Utf8MentionScanner scanner = new Utf8MentionScanner().reset(buffer, 0, 9);
+        assertTrue(scanner.find());
+        assertEquals("carol", scanner.mention());
+        assertEquals(9, buffer.position());
+    }
+
+    @Test
+    public void testMentionIds() {
+        UsernameDictionary dictionary = new UsernameDictionary();
+        byte[] bytes = "@Alice @bob @ALICE".getBytes(StandardCharsets.UTF_8);
+        Utf8MentionScanner scanner = new Utf8MentionScanner().reset(bytes, 0, bytes.length);
+        List<Integer> ids = new ArrayList<Integer>();
+        while (scanner.find()) {
+            ids.add(scanner.mentionId(dictionary));
+        }
+        assertEquals(Arrays.asList(0, 1, 0), ids);
+        assertEquals(2, dictionary.size());
+        assertEquals("alice", dictionary.username(0));
+    }
+
+    @Test(expected=IllegalStateException.class)
+    public void testMentionBeforeFind() {
+        byte[] bytes = "@bob".getBytes(StandardCharsets.UTF_8);
+        new Utf8MentionScanner().reset(bytes, 0, bytes.length).mention();
+    }
+
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testBadSlice() {
+        new Utf8MentionScanner().reset(new byte[4], 2, 5);
+    }
+
+    @Test
+    public void testAgreesWithMentionScanner() {
+        final String alphabet = "aZ09_-@@@ .,!?\u00e9\u20ac\ud83d\ude00";
+        final Random random = new Random(6005);
+
+        for (int n = 0; n < 20000; ++n) {
+            final StringBuilder text = new StringBuilder();
+            final int length = random.nextInt(40);
+            for (int i = 0; i < length; ++i) {
+                final char c = alphabet.charAt(random.nextInt(alphabet.length()));
+                text.append(c);
+                if (Character.isHighSurrogate(c)) {
+                    text.append('\uDE00');
+                } else if (Character.isLowSurrogate(c)) {
+                    text.insert(text.length() - 1, '\uD83D');
+                }
+            }
+            if (random.nextBoolean()) {
+                text.insert(random.nextInt(text.length() + 1),
+                        "@" + "abcdefghijklmnopqrstuvwxyz".substring(0, 13 + random.nextInt(5)));
+            }
+            final String s = text.toString();
+            final List<String> expected = new ArrayList<String>();
+            final MentionScanner reference = new MentionScanner(s);
+            while (reference.find()) {
+                expected.add(reference.mention());
+            }
+            assertEquals("text: " + s, expected, scan(s));
+        }
+    }
+
+    /*
+     * @return every mention in text, in order, found by scanning its UTF-8
+     *         bytes as a slice of an array and of a direct buffer, which must
+     *         agree.
+     */
+    private static List<String> scan(final String text) {
+        final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        final byte[] padded = new byte[bytes.length + 6];
+        System.arraycopy(bytes, 0, padded, 3, bytes.length);
+        final List<String> names = new ArrayList<String>();
+        final Utf8MentionScanner scanner = new Utf8MentionScanner().reset(padded, 3, 3 + bytes.length);
+        while (scanner.find()) {
+            names.add(scanner.mention());
+        }
+
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length + 1);
+        buffer.position(1);
+        buffer.put(bytes);
+        final List<String> fromBuffer = new ArrayList<String>();
+        scanner.reset(buffer, 1, 1 + bytes.length);
+        while (scanner.find()) {
+            fromBuffer.add(scanner.mention());
+        }
+        assertEquals(names, fromBuffer);
+        return names;
+    }
+}
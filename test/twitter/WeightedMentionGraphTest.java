@@ -0,0 +1,98 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class WeightedMentionGraphTest {
+
+    /*
+     * Testing strategy for WeightedMentionGraph
+     *
+     * Partition the inputs as follows:
+     * tweets = 0, 1, > 1; out of timestamp order
+     * an edge mentioned: once, in several tweets, several times in one tweet
+     * self mentions; same user in different case
+     * edge lookups: present, absent
+     * k = 0, < users, > users
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+    private static final Instant d3 = Instant.parse("2016-02-17T12:00:00Z");
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        WeightedMentionGraph graph = WeightedMentionGraph.fromTweets(Collections.<Tweet>emptyList());
+        assertEquals(0, graph.userCount());
+        assertEquals(0, graph.edgeCount());
+        assertEquals(Collections.emptyList(), graph.influencers(3));
+    }
+
+    @Test
+    public void testWeights() {
+        List<Tweet> tweets = Arrays.asList(
+                new Tweet(1, "alice", "@bob @BOB @alice", d2),
+                new Tweet(2, "Alice", "hi @bob", d3),
+                new Tweet(3, "alice", "@bob @carol", d1),
+                new Tweet(4, "carol", "@bob", d2),
+                new Tweet(5, "dave", "nothing", d1));
+        WeightedMentionGraph graph = WeightedMentionGraph.fromTweets(tweets);
+        assertEquals(4, graph.userCount());
+        assertEquals(3, graph.edgeCount());
+
+        int alice = graph.id("ALICE");
+        int bob = graph.id("bob");
+        int ab = graph.edge(alice, bob);
+        assertEquals(3, graph.mentionCount(ab));
+        assertEquals(d1, graph.firstSeen(ab));
+        assertEquals(d3, graph.lastSeen(ab));
+        assertEquals(d1.getEpochSecond() * 1000000000L, graph.firstSeenNanos(ab));
+
+        int ac = graph.edge(alice, graph.id("carol"));
+        assertEquals(1, graph.mentionCount(ac));
+        assertEquals(d1, graph.firstSeen(ac));
+        assertEquals(d1, graph.lastSeen(ac));
+        assertEquals(-1, graph.edge(bob, alice));
+        assertEquals(-1, graph.edge(alice, alice));
+        assertEquals(-1, graph.id("eve"));
+
+        assertEquals(4, graph.mentionsReceived()[bob]);
+        assertEquals(Arrays.asList("bob", "carol"), graph.influencers(2));
+        assertEquals(Arrays.asList(), graph.influencers(0));
+        assertEquals(4, graph.influencers(10).size());
+    }
+
+    @Test
+    public void testSameEdgesAsGuessFollowsGraph() {
+        List<Tweet> tweets = new TweetGenerator(18).withUsers(500).withEdgeCaseRate(0.1).list(20000);
+        WeightedMentionGraph graph = WeightedMentionGraph.fromTweets(tweets);
+        Map<String, Set<String>> expected = SocialNetwork.guessFollowsGraph(tweets);
+        assertEquals(expected, graph.toFollowsGraph().asMap());
+
+        // counts add up to the mentions made, once per tweet
+        long total = 0;
+        for (int i = 0; i < graph.edgeCount(); ++i) {
+            total += graph.mentionCount(i);
+            assertFalse(graph.firstSeen(i).isAfter(graph.lastSeen(i)));
+        }
+        long mentions = 0;
+        for (Tweet t : tweets) {
+            Set<String> names = Extract.getMentionedUsers(Arrays.asList(t));
+            mentions += names.size() - (names.contains(t.getAuthor()) ? 1 : 0);
+        }
+        assertEquals(mentions, total);
+    }
+}
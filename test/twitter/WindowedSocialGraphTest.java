@@ -0,0 +1,178 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class WindowedSocialGraphTest {
+
+    /*
+     * Testing strategy for WindowedSocialGraph (and LongIntHashMap)
+     *
+     * Partition the inputs as follows:
+     * tweets: none, in the current bucket, in an older bucket of the window,
+     *   older than the window, later than the window by less than / more
+     *   than the whole window
+     * the same edge seen: once, twice in one bucket, in several buckets
+     * advance(): earlier than the window, later
+     * decay: none, half-life; evidence of different ages
+     * k = 0, < users with evidence, > users with evidence
+     */
+
+    private static final Instant d0 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Duration HOUR = Duration.ofHours(1);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    private static Tweet tweet(final String author, final String text, final long minutes) {
+        return new Tweet(1, author, text, d0.plus(Duration.ofMinutes(minutes)));
+    }
+
+    @Test
+    public void testEmpty() {
+        WindowedSocialGraph graph = new WindowedSocialGraph(HOUR, 6);
+        assertNull(graph.windowStart());
+        assertEquals(0, graph.edgeCount());
+        assertEquals(Collections.emptyList(), graph.influencers(5));
+        assertTrue(graph.followsGraph().isEmpty());
+    }
+
+    @Test
+    public void testExpiry() {
+        WindowedSocialGraph graph = new WindowedSocialGraph(HOUR, 6);
+        assertEquals(2, graph.add(tweet("Alice", "@bob @carol @alice", 0)));
+        assertEquals(1, graph.add(tweet("dave", "@bob", 25)));
+        assertEquals(0, graph.add(tweet("alice", "@BOB again", 5)));  // same bucket, same edge
+        assertEquals(2, graph.followerCount("bob"));
+        assertEquals(Arrays.asList("bob", "carol"), graph.influencers(5));
+        assertEquals(Arrays.asList("bob"), graph.influencers(1));
+        assertEquals(Arrays.asList(), graph.influencers(0));
+
+        // alice's evidence is in bucket 0, which falls out at 60 minutes
+        graph.advance(d0.plus(Duration.ofMinutes(59)));
+        assertEquals(3, graph.edgeCount());
+        graph.advance(d0.plus(Duration.ofMinutes(60)));
+        assertEquals(d0.plus(Duration.ofMinutes(10)), graph.windowStart());
+        assertEquals(1, graph.edgeCount());
+        assertEquals(1, graph.followerCount("bob"));
+        assertEquals(0, graph.followerCount("carol"));
+        assertEquals(Arrays.asList("bob"), graph.influencers(5));
+
+        // too old now
+        assertEquals(0, graph.add(tweet("erin", "@carol", 5)));
+        // moving back does nothing
+        graph.advance(d0);
+        assertEquals(1, graph.edgeCount());
+        // jump past the whole window
+        assertEquals(1, graph.add(tweet("erin", "@carol", 500)));
+        assertEquals(1, graph.edgeCount());
+        assertEquals(Arrays.asList("carol"), graph.influencers(5));
+    }
+
+    @Test
+    public void testEdgeInSeveralBuckets() {
+        WindowedSocialGraph graph = new WindowedSocialGraph(HOUR, 4);
+        graph.add(tweet("alice", "@bob", 0));
+        graph.add(tweet("alice", "@bob", 20));
+        assertEquals(1, graph.followerCount("bob"));
+        graph.advance(d0.plus(Duration.ofMinutes(60)));
+        assertEquals(1, graph.followerCount("bob"));  // still seen at 20 minutes
+        graph.advance(d0.plus(Duration.ofMinutes(75)));
+        assertEquals(0, graph.followerCount("bob"));
+    }
+
+    @Test
+    public void testDecay() {
+        WindowedSocialGraph graph = new WindowedSocialGraph(HOUR, 6, Duration.ofMinutes(10));
+        graph.add(tweet("a", "@old", 0));
+        graph.add(tweet("b", "@old", 0));
+        graph.add(tweet("c", "@new", 30));
+        // old: 2 edges, 3 half-lives ago; new: 1 edge, now
+        assertEquals(0.25, graph.score("old"), 1e-12);
+        assertEquals(1.0, graph.score("new"), 1e-12);
+        assertEquals(Arrays.asList("new", "old"), graph.influencers(2));
+        assertEquals(2, graph.followerCount("old"));
+
+        graph.advance(d0.plus(Duration.ofMinutes(60)));
+        assertEquals(0.0, graph.score("old"), 0);
+        assertEquals(0.125, graph.score("new"), 1e-12);
+    }
+
+    @Test
+    public void testDecayRescales() {
+        WindowedSocialGraph graph = new WindowedSocialGraph(HOUR, 60, Duration.ofSeconds(1));
+        for (int minute = 0; minute < 24 * 60; minute += 7) {
+            graph.add(tweet("a", "@b", minute));
+        }
+        assertTrue(graph.score("b") >= 1.0);
+        assertTrue(Double.isFinite(graph.score("b")));
+    }
+
+    @Test
+    public void testMatchesGuessFollowsGraphOfWindow() {
+        List<Tweet> tweets = new TweetGenerator(17).withUsers(200).withArrivals(d0, 1, 0).list(20000);
+        Duration window = Duration.ofMinutes(30);
+        WindowedSocialGraph graph = new WindowedSocialGraph(window, 10);
+        for (int i = 0; i < tweets.size(); ++i) {
+            graph.add(tweets.get(i));
+            if (i % 4999 == 0 || i == tweets.size() - 1) {
+                Instant start = graph.windowStart();
+                List<Tweet> inWindow = new ArrayList<Tweet>();
+                for (Tweet t : tweets.subList(0, i + 1)) {
+                    if (!t.getTimestamp().isBefore(start)) {
+                        inWindow.add(t);
+                    }
+                }
+                Map<String, Set<String>> expected = SocialNetwork.guessFollowsGraph(inWindow);
+                Iterator<Map.Entry<String, Set<String>>> iter = expected.entrySet().iterator();
+                while (iter.hasNext()) {
+                    Map.Entry<String, Set<String>> entry = iter.next();
+                    // users without any edge are not kept by the window
+                    if (entry.getValue().isEmpty() && countFollowers(expected, entry.getKey()) == 0) {
+                        iter.remove();
+                    }
+                }
+                assertEquals(expected, graph.followsGraph());
+            }
+        }
+    }
+
+    private static int countFollowers(final Map<String, Set<String>> graph, final String name) {
+        int count = 0;
+        for (Set<String> followList : graph.values()) {
+            count += followList.contains(name) ? 1 : 0;
+        }
+        return count;
+    }
+
+    @Test
+    public void testLongIntHashMap() {
+        LongIntHashMap map = new LongIntHashMap();
+        for (long key = 0; key < 1000; ++key) {
+            assertEquals(1, map.increment(key * 16));
+        }
+        assertEquals(2, map.increment(32));
+        for (long key = 0; key < 1000; key += 2) {
+            assertEquals(key == 2 ? 1 : 0, map.decrement(key * 16));
+        }
+        assertEquals(-1, map.decrement(17));
+        assertEquals(501, map.size());
+        assertEquals(501, map.keys().length);
+        for (long key = 0; key < 1000; ++key) {
+            assertEquals(key % 2 == 1 || key == 2 ? 1 : 0, map.get(key * 16));
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class WordIndexTest {
+
+    /*
+     * Testing strategy for WordIndex
+     *
+     * Partition the inputs as follows:
+     * indexed tweets = 0, 1, > 1
+     * query words = 0, 1, > 1; unknown words; duplicate words in different case
+     * word repeated in one tweet
+     * gaps between postings: 1, > 127, > 16383 (multi-byte varints)
+     * same tweet indexed twice
+     * tweets added by constructor and by append()
+     * results compared with Filter.containing()
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d1);
+    private static final Tweet tweet3 = new Tweet(3, "smith", "Talk talk TALK", d1);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        WordIndex index = new WordIndex();
+
+        assertEquals(0, index.size());
+        assertEquals(0, index.terms());
+        assertTrue(index.containing(Arrays.asList("talk")).isEmpty());
+    }
+
+    @Test
+    public void testQueries() {
+        WordIndex index = new WordIndex(Arrays.asList(tweet1, tweet2, tweet3));
+
+        assertTrue(index.containing(new ArrayList<String>()).isEmpty());
+        assertTrue(index.containing(Arrays.asList("hello", "much")).isEmpty());
+        assertEquals(Arrays.asList(tweet1, tweet2, tweet3), index.containing(Arrays.asList("TALK", "talk")));
+        assertEquals(Arrays.asList(tweet1, tweet2), index.containing(Arrays.asList("rivest", "It")));
+        assertEquals(Arrays.asList(tweet1), index.containing(Arrays.asList("much?")));
+    }
+
+    @Test
+    public void testSameTweetTwice() {
+        List<Tweet> tweets = Arrays.asList(tweet1, tweet1);
+
+        assertEquals(Filter.containing(tweets, Arrays.asList("talk")),
+                new WordIndex(tweets).containing(Arrays.asList("talk")));
+    }
+
+    @Test
+    public void testLargeGaps() {
+        WordIndex index = new WordIndex();
+        List<Tweet> expected = new ArrayList<Tweet>();
+        for (int i = 0; i < 40000; ++i) {
+            boolean rare = (i == 5 || i == 200 || i == 20000 || i == 39999);
+            Tweet t = new Tweet(i, "author", rare ? "a rare word" : "a common word", d1);
+            index.append(t);
+            if (rare) {
+                expected.add(t);
+            }
+        }
+
+        assertEquals(expected, index.containing(Arrays.asList("RARE")));
+        assertEquals(40000, index.containing(Arrays.asList("a")).size());
+    }
+
+    @Test
+    public void testSameAsFilter() {
+        final String[] vocabulary = {"rivest", "talk", "Talk", "#hype", "30", "c++", "a", "the", "much?"};
+        final Random random = new Random(6005);
+        final List<Tweet> tweets = new ArrayList<Tweet>();
+        for (int i = 0; i < 3000; ++i) {
+            StringBuilder text = new StringBuilder();
+            for (int w = random.nextInt(6); w > 0; --w) {
+                text.append(vocabulary[random.nextInt(vocabulary.length)]).append(random.nextBoolean() ? " " : "\t");
+            }
+            tweets.add(new Tweet(i, "author", text.toString(), d1));
+        }
+        WordIndex index = new WordIndex(tweets.subList(0, 1000));
+        index.appendAll(tweets.subList(1000, tweets.size()));
+
+        for (int n = 0; n < 100; ++n) {
+            List<String> words = new ArrayList<String>();
+            for (int w = random.nextInt(4); w > 0; --w) {
+                words.add(vocabulary[random.nextInt(vocabulary.length)].toUpperCase());
+            }
+            assertEquals(Filter.containing(tweets, words), index.containing(words));
+        }
+    }
+
+    @Test
+    public void testFootprintGrows() {
+        WordIndex index = new WordIndex(Arrays.asList(tweet1));
+        long before = index.footprint();
+        index.append(tweet2);
+
+        assertTrue("expected a positive footprint", before > 0);
+        assertTrue("expected footprint to grow", index.footprint() > before);
+    }
+}
@@ -0,0 +1,122 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class WordMatcherTest {
+
+    /*
+     * Testing strategy for WordMatcher
+     *
+     * Partition the inputs as follows:
+     * word list size = 0, 1, > 1, many (> table growth)
+     * words that are not words: empty, containing whitespace
+     * duplicate words, same word in different case
+     * regex metacharacters in words
+     * word position in text: beginning, middle, end; text with leading,
+     *   trailing and repeated whitespace, tabs and newlines
+     * word as a prefix, suffix or part of a longer text word (no match)
+     * non-ASCII case folding
+     * text given as a String, as a range of ASCII bytes
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmptyWords() {
+        WordMatcher matcher = new WordMatcher(new ArrayList<String>());
+
+        assertEquals(0, matcher.size());
+        assertFalse(matcher.matches("talk"));
+    }
+
+    @Test
+    public void testIgnoresNonWords() {
+        WordMatcher matcher = new WordMatcher(Arrays.asList("", "two words", "talk", "TALK"));
+
+        assertEquals(1, matcher.size());
+        assertFalse(matcher.matches("two words"));
+    }
+
+    @Test
+    public void testWordPositions() {
+        WordMatcher matcher = new WordMatcher(Arrays.asList("Talk"));
+
+        assertTrue(matcher.matches("talk about rivest"));
+        assertTrue(matcher.matches("  rivest\ttalk\nin 30 minutes"));
+        assertTrue(matcher.matches("rivest TALK"));
+        assertFalse(matcher.matches(""));
+        assertFalse(matcher.matches("talks about rivest-talk, talk? "));
+    }
+
+    @Test
+    public void testMetacharacters() {
+        WordMatcher matcher = new WordMatcher(Arrays.asList("c++", "(hi", "a.b", "$"));
+
+        assertTrue(matcher.matches("i like c++"));
+        assertTrue(matcher.matches("(hi there"));
+        assertTrue(matcher.matches("costs $ 5"));
+        assertFalse(matcher.matches("axb c+ hi"));
+    }
+
+    @Test
+    public void testNonAscii() {
+        WordMatcher matcher = new WordMatcher(Arrays.asList("\u00C9COLE"));
+
+        assertTrue(matcher.matches("\u00E0 l' \u00E9cole"));
+    }
+
+    @Test
+    public void testAgreesWithSplit() {
+        final String alphabet = "abAB  \t.";
+        final Random random = new Random(6005);
+        final List<String> words = new ArrayList<String>();
+        for (int i = 0; i < 300; ++i) {
+            words.add(randomWord(random, "abAB."));
+        }
+        final WordMatcher matcher = new WordMatcher(words);
+
+        for (int n = 0; n < 5000; ++n) {
+            StringBuilder text = new StringBuilder();
+            for (int i = random.nextInt(30); i > 0; --i) {
+                text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            assertEquals("text: " + text, split(text.toString(), words), matcher.matches(text));
+            final byte[] bytes = ("a" + text + "a").getBytes(StandardCharsets.US_ASCII);
+            assertEquals("bytes: " + text, split(text.toString(), words),
+                    matcher.matchesAscii(bytes, 1, bytes.length - 1));
+        }
+    }
+
+    private static String randomWord(final Random random, final String alphabet) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 1 + random.nextInt(4); i > 0; --i) {
+            word.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return word.toString();
+    }
+
+    /*
+     * Reference implementation: split the text into words and compare each.
+     */
+    private static boolean split(final String text, final List<String> words) {
+        for (String token : text.trim().split("\\s+")) {
+            for (String word : words) {
+                if (!token.isEmpty() && token.equalsIgnoreCase(word)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}